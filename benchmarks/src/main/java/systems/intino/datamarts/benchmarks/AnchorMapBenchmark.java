@@ -0,0 +1,66 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import systems.intino.alexandria.datamarts.anchormap.AnchorMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnchorMapBenchmark {
+	private static final String[] Projects = {"ulpgc", "intino", "monentia", "siani"};
+
+	@Param({"10000", "100000"})
+	private int anchors;
+
+	private File directory;
+	private AnchorMap map;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = TempDirectory.create("anchor-map-benchmark");
+		map = new AnchorMap(new File(directory, "benchmark.iam"));
+		Random random = new Random(42);
+		AnchorMap.Indexing indexing = null;
+		for (int i = 0; i < anchors; i++) {
+			indexing = map.on(String.valueOf(i), "model")
+					.set("user", "user" + random.nextInt(anchors / 10) + "@intino.systems")
+					.set("project", Projects[random.nextInt(Projects.length)]);
+			if (random.nextInt(4) == 0) indexing.set("simulation");
+		}
+		if (indexing != null) indexing.commit();
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		map.close();
+		TempDirectory.delete(directory);
+	}
+
+	@Benchmark
+	public int searchByType() {
+		return map.search("model").execute().size();
+	}
+
+	@Benchmark
+	public int searchWithToken() {
+		return map.search("model").with("project", "intino").execute().size();
+	}
+
+	@Benchmark
+	public int searchWithSelectiveToken() {
+		return map.search("model").with("user", "user1@intino.systems").execute().size();
+	}
+
+	@Benchmark
+	public int searchWithAndWithout() {
+		return map.search("model").with("project", "ulpgc").without("simulation").execute().size();
+	}
+}
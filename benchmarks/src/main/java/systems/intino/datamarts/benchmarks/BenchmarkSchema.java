@@ -0,0 +1,86 @@
+package systems.intino.datamarts.benchmarks;
+
+import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.SchemaLayout;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.buffers.store.ByteStore;
+
+import java.util.UUID;
+
+public class BenchmarkSchema extends Schema {
+	public static final int ID_OFFSET = 0;
+	public static final int ID_BITS = Long.SIZE;
+	public static final int AMOUNT_OFFSET = ID_OFFSET + ID_BITS;
+	public static final int AMOUNT_BITS = Double.SIZE;
+	public static final int QUANTITY_OFFSET = AMOUNT_OFFSET + AMOUNT_BITS;
+	public static final int QUANTITY_BITS = Integer.SIZE;
+	public static final int CATEGORY_OFFSET = QUANTITY_OFFSET + QUANTITY_BITS;
+	public static final int CATEGORY_BITS = 12;
+	public static final int SIZE = (int) Math.ceil((CATEGORY_OFFSET + CATEGORY_BITS) / (float) Long.SIZE) * Long.BYTES;
+
+	public static final UUID SERIAL_UUID = UUID.nameUUIDFromBytes(BenchmarkSchema.class.getName().getBytes());
+
+	public static final SchemaLayout LAYOUT = new SchemaLayout(BenchmarkSchema.class.getSimpleName(), SIZE)
+			.add("id", "long", ID_OFFSET, ID_BITS)
+			.add("amount", "double", AMOUNT_OFFSET, AMOUNT_BITS)
+			.add("quantity", "int", QUANTITY_OFFSET, QUANTITY_BITS)
+			.add("category", "short", CATEGORY_OFFSET, CATEGORY_BITS);
+
+	public static final SchemaFactory<BenchmarkSchema> FACTORY = new SchemaFactory<>(BenchmarkSchema.class) {
+		@Override
+		public BenchmarkSchema newInstance(ByteStore store) {
+			return new BenchmarkSchema(store);
+		}
+	};
+
+	public BenchmarkSchema(ByteStore store) {
+		super(store);
+	}
+
+	@Override
+	public long id() {
+		return bitBuffer.getAlignedLong(ID_OFFSET);
+	}
+
+	public BenchmarkSchema id(long id) {
+		bitBuffer.setAlignedLong(ID_OFFSET, id);
+		return this;
+	}
+
+	public double amount() {
+		return bitBuffer.getAlignedReal64Bits(AMOUNT_OFFSET);
+	}
+
+	public BenchmarkSchema amount(double amount) {
+		bitBuffer.setAlignedReal64Bits(AMOUNT_OFFSET, amount);
+		return this;
+	}
+
+	public int quantity() {
+		return bitBuffer.getAlignedInteger(QUANTITY_OFFSET);
+	}
+
+	public BenchmarkSchema quantity(int quantity) {
+		bitBuffer.setAlignedInteger(QUANTITY_OFFSET, quantity);
+		return this;
+	}
+
+	public short category() {
+		return bitBuffer.getShortNBits(CATEGORY_OFFSET, CATEGORY_BITS);
+	}
+
+	public BenchmarkSchema category(int category) {
+		bitBuffer.setShortNBits(CATEGORY_OFFSET, CATEGORY_BITS, (short) category);
+		return this;
+	}
+
+	@Override
+	public int size() {
+		return SIZE;
+	}
+
+	@Override
+	public UUID serialUUID() {
+		return SERIAL_UUID;
+	}
+}
@@ -0,0 +1,85 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.buffers.store.ByteStore;
+import systems.intino.datamarts.led.buffers.store.NativePointerStore;
+import systems.intino.datamarts.led.buffers.store.StoreArena;
+import systems.intino.datamarts.led.buffers.store.VarHandleStore;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ByteStoreBenchmark {
+	@Param({"NativePointerStore", "ByteBufferStore", "VarHandleStore"})
+	private String store;
+
+	@Param({"65536"})
+	private int elements;
+
+	private ByteStore source;
+	private ByteStore dest;
+	private ByteBuffer sourceBuffer;
+	private ByteBuffer destBuffer;
+	private StoreArena arena;
+
+	@Setup
+	public void setup() {
+		final int size = elements * BenchmarkSchema.SIZE;
+		if(store.equals("VarHandleStore")) {
+			arena = new StoreArena();
+			source = arena.allocate(size);
+			dest = arena.allocate(size);
+		} else {
+			sourceBuffer = allocBuffer(size);
+			destBuffer = allocBuffer(size);
+			source = storeOf(sourceBuffer);
+			dest = storeOf(destBuffer);
+		}
+		for(int i = 0;i < elements;i++) source.setLong(i * BenchmarkSchema.SIZE, i);
+	}
+
+	@TearDown
+	public void tearDown() {
+		if(arena != null) arena.close();
+		if(sourceBuffer != null) free(sourceBuffer);
+		if(destBuffer != null) free(destBuffer);
+	}
+
+	@Benchmark
+	public long getLongs() {
+		long sum = 0;
+		for(int i = 0;i < elements;i++) sum += source.getLong(i * BenchmarkSchema.SIZE);
+		return sum;
+	}
+
+	@Benchmark
+	public long setLongs() {
+		for(int i = 0;i < elements;i++) dest.setLong(i * BenchmarkSchema.SIZE, i);
+		return dest.getLong(0);
+	}
+
+	@Benchmark
+	public long bulkCopy() {
+		if(source instanceof VarHandleStore)
+			VarHandleStore.copy((VarHandleStore) source, 0, (VarHandleStore) dest, 0, source.byteSize());
+		else
+			memcpy(source.address(), dest.address(), source.byteSize());
+		return dest.getLong(0);
+	}
+
+	private ByteStore storeOf(ByteBuffer buffer) {
+		if(store.equals("NativePointerStore"))
+			return new NativePointerStore(ModifiableMemoryAddress.of(buffer), 0, buffer.capacity());
+		return new ByteBufferStore(buffer, ModifiableMemoryAddress.of(buffer), 0, buffer.capacity());
+	}
+}
@@ -0,0 +1,86 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.datamarts.led.LedReader;
+import systems.intino.datamarts.led.LedStream;
+import systems.intino.datamarts.led.LedWriter;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+import systems.intino.datamarts.led.columnar.ColumnarLed;
+import systems.intino.datamarts.led.columnar.ColumnarLedWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ColumnarLedBenchmark {
+	@Param({"1000000"})
+	private int size;
+
+	private File directory;
+	private File rows;
+	private File columns;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = TempDirectory.create("columnar-led-benchmark");
+		StackAllocator<BenchmarkSchema> allocator = StackAllocators.managedStackAllocator(BenchmarkSchema.SIZE, size, BenchmarkSchema.class);
+		BenchmarkSchema[] schemas = new BenchmarkSchema[size];
+		Random random = new Random(42);
+		for (int i = 0; i < size; i++) schemas[i] = LedBenchmark.fill(allocator.calloc(), i, random);
+		rows = new File(directory, "rows.led");
+		columns = new File(directory, "columns.led");
+		new LedWriter(rows).write(LedStream.fromStream(BenchmarkSchema.class, Arrays.stream(schemas)));
+		new ColumnarLedWriter(columns).write(LedStream.fromStream(BenchmarkSchema.class, Arrays.stream(schemas)));
+		allocator.free();
+	}
+
+	@TearDown
+	public void tearDown() {
+		TempDirectory.delete(directory);
+	}
+
+	@Benchmark
+	public double sumRows() throws Exception {
+		double[] sum = {0};
+		try (LedStream<BenchmarkSchema> stream = new LedReader(rows).read(BenchmarkSchema.class)) {
+			stream.forEachCursor(schema -> sum[0] += schema.amount());
+		}
+		return sum[0];
+	}
+
+	@Benchmark
+	public double sumColumn() {
+		try (ColumnarLed led = ColumnarLed.open(columns)) {
+			double sum = 0;
+			for (double amount : led.doubles("amount")) sum += amount;
+			return sum;
+		}
+	}
+
+	@Benchmark
+	public double sumProjection() throws Exception {
+		double[] sum = {0};
+		try (ColumnarLed led = ColumnarLed.open(columns); LedStream<BenchmarkSchema> stream = led.project(BenchmarkSchema.class, "amount")) {
+			stream.forEachCursor(schema -> sum[0] += schema.amount());
+		}
+		return sum[0];
+	}
+
+	@Benchmark
+	public void readColumnBlocks(Blackhole blackhole) {
+		try (ColumnarLed led = ColumnarLed.open(columns)) {
+			for (int block = 0; block < led.blockCount(); block++)
+				blackhole.consume(led.readColumn(block, led.layout().field("category")));
+		}
+	}
+}
@@ -0,0 +1,25 @@
+package systems.intino.datamarts.benchmarks;
+
+import java.util.Random;
+
+class Ids {
+
+	static long[] sorted(Random random, int size, int gap) {
+		long[] ids = new long[size];
+		long id = 0;
+		for (int i = 0; i < size; i++) ids[i] = id += 1 + random.nextInt(gap);
+		return ids;
+	}
+
+	static long[] shuffled(Random random, int size) {
+		long[] ids = new long[size];
+		for (int i = 0; i < size; i++) ids[i] = i;
+		for (int i = size - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			long id = ids[i];
+			ids[i] = ids[j];
+			ids[j] = id;
+		}
+		return ids;
+	}
+}
@@ -0,0 +1,117 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.datamarts.led.HeapLedStreamBuilder;
+import systems.intino.datamarts.led.Led;
+import systems.intino.datamarts.led.LedReader;
+import systems.intino.datamarts.led.LedStream;
+import systems.intino.datamarts.led.LedWriter;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedBenchmark {
+	@Param({"1000000"})
+	private int size;
+
+	private File directory;
+	private StackAllocator<BenchmarkSchema> allocator;
+	private BenchmarkSchema[] schemas;
+	private long[] shuffled;
+	private File compressed;
+	private File uncompressed;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = TempDirectory.create("led-benchmark");
+		allocator = StackAllocators.managedStackAllocator(BenchmarkSchema.SIZE, size, BenchmarkSchema.class);
+		schemas = new BenchmarkSchema[size];
+		Random random = new Random(42);
+		for (int i = 0; i < size; i++)
+			schemas[i] = fill(allocator.calloc(), i, random);
+		shuffled = Ids.shuffled(random, size);
+		compressed = new File(directory, "compressed.led");
+		uncompressed = new File(directory, "uncompressed.led");
+		new LedWriter(compressed).write(stream());
+		new LedWriter(uncompressed).writeUncompressed(stream());
+	}
+
+	@TearDown
+	public void tearDown() {
+		allocator.free();
+		TempDirectory.delete(directory);
+	}
+
+	@Benchmark
+	public long write() {
+		File file = new File(directory, "write.led");
+		new LedWriter(file).write(stream());
+		return file.length();
+	}
+
+	@Benchmark
+	public long writeUncompressed() {
+		File file = new File(directory, "write.uncompressed.led");
+		new LedWriter(file).writeUncompressed(stream());
+		return file.length();
+	}
+
+	@Benchmark
+	public void read(Blackhole blackhole) throws Exception {
+		try (LedStream<BenchmarkSchema> stream = new LedReader(compressed).read(BenchmarkSchema.class)) {
+			while (stream.hasNext()) blackhole.consume(stream.next().amount());
+		}
+	}
+
+	@Benchmark
+	public void readCursor(Blackhole blackhole) throws Exception {
+		try (LedStream<BenchmarkSchema> stream = new LedReader(compressed).read(BenchmarkSchema.class)) {
+			stream.forEachCursor(schema -> blackhole.consume(schema.amount()));
+		}
+	}
+
+	@Benchmark
+	public void readAll(Blackhole blackhole) {
+		Led<BenchmarkSchema> led = new LedReader(compressed).readAll(BenchmarkSchema.class);
+		for (int i = 0; i < led.size(); i++) blackhole.consume(led.schema(i).amount());
+	}
+
+	@Benchmark
+	public void readUncompressed(Blackhole blackhole) throws Exception {
+		try (LedStream<BenchmarkSchema> stream = new LedReader(uncompressed).readUncompressed(BenchmarkSchema.SIZE, BenchmarkSchema.class)) {
+			while (stream.hasNext()) blackhole.consume(stream.next().amount());
+		}
+	}
+
+	@Benchmark
+	public void build(Blackhole blackhole) throws Exception {
+		LedStream.Builder<BenchmarkSchema> builder = new HeapLedStreamBuilder<>(BenchmarkSchema.class, size / 4, directory);
+		for (long id : shuffled) builder.append(s -> s.id(id).quantity((int) id));
+		try (LedStream<BenchmarkSchema> stream = builder.build()) {
+			while (stream.hasNext()) blackhole.consume(stream.next().id());
+		}
+	}
+
+	private LedStream<BenchmarkSchema> stream() {
+		return LedStream.fromStream(BenchmarkSchema.class, Arrays.stream(schemas));
+	}
+
+	static BenchmarkSchema fill(BenchmarkSchema schema, long id, Random random) {
+		return schema.id(id)
+				.amount(random.nextDouble() * 1000)
+				.quantity(random.nextInt(100))
+				.category(random.nextInt(1 << 11));
+	}
+}
@@ -0,0 +1,79 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import systems.intino.datamarts.led.GenericSchema;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+import systems.intino.datamarts.led.util.sorting.LedRadixSort;
+
+import java.nio.ByteBuffer;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedChunkSortBenchmark {
+	@Param({"100000", "1000000"})
+	private int size;
+
+	@Param({"1000", "2147483647"})
+	private int idRange;
+
+	private ByteBuffer source;
+	private ByteBuffer unsorted;
+	private ByteBuffer sorted;
+	private LedRadixSort radixSort;
+
+	@Setup
+	public void setup() {
+		source = allocBuffer((long) size * BenchmarkSchema.SIZE);
+		unsorted = allocBuffer(source.capacity());
+		sorted = allocBuffer(source.capacity());
+		Random random = new Random(42);
+		for (int i = 0; i < size; i++)
+			setLong(addressOf(source), (long) i * BenchmarkSchema.SIZE, random.nextInt(idRange));
+		radixSort = new LedRadixSort();
+	}
+
+	@Setup(Level.Invocation)
+	public void reset() {
+		memcpy(addressOf(source), addressOf(unsorted), source.capacity());
+	}
+
+	@TearDown
+	public void tearDown() {
+		free(source);
+		free(unsorted);
+		free(sorted);
+	}
+
+	@Benchmark
+	public long priorityQueue() {
+		StackAllocator<GenericSchema> allocator = StackAllocators.managedStackAllocatorFromBuffer(BenchmarkSchema.SIZE, unsorted, GenericSchema.class);
+		PriorityQueue<GenericSchema> queue = new PriorityQueue<>(size);
+		for (int i = 0; i < size; i++) queue.add(allocator.malloc());
+		final long destPtr = addressOf(sorted);
+		long offset = 0;
+		while (!queue.isEmpty()) {
+			GenericSchema schema = queue.poll();
+			memcpy(schema.address() + schema.baseOffset(), destPtr + offset, BenchmarkSchema.SIZE);
+			offset += BenchmarkSchema.SIZE;
+		}
+		return getLong(destPtr, 0);
+	}
+
+	@Benchmark
+	public long radix() {
+		final long srcPtr = addressOf(unsorted);
+		final long destPtr = addressOf(sorted);
+		radixSort.sort(srcPtr, size, BenchmarkSchema.SIZE).copy(srcPtr, destPtr, BenchmarkSchema.SIZE);
+		return getLong(destPtr, 0);
+	}
+}
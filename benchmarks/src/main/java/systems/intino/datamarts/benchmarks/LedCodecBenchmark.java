@@ -0,0 +1,91 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.datamarts.led.Led;
+import systems.intino.datamarts.led.LedReader;
+import systems.intino.datamarts.led.LedStream;
+import systems.intino.datamarts.led.LedWriter;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+import systems.intino.datamarts.led.codecs.LedCodec;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedCodecBenchmark {
+	@Param({"1000000"})
+	private int size;
+
+	@Param({"legacy", "uncompressed", "snappy", "deflate"})
+	private String codec;
+
+	private File directory;
+	private StackAllocator<BenchmarkSchema> allocator;
+	private BenchmarkSchema[] schemas;
+	private File file;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = TempDirectory.create("led-codec-benchmark");
+		allocator = StackAllocators.managedStackAllocator(BenchmarkSchema.SIZE, size, BenchmarkSchema.class);
+		schemas = new BenchmarkSchema[size];
+		Random random = new Random(42);
+		for (int i = 0; i < size; i++)
+			schemas[i] = LedBenchmark.fill(allocator.calloc(), i, random);
+		file = new File(directory, codec + ".led");
+		writer(file).write(stream());
+	}
+
+	@TearDown
+	public void tearDown() {
+		allocator.free();
+		TempDirectory.delete(directory);
+	}
+
+	@Benchmark
+	public long write() {
+		File file = new File(directory, "write.led");
+		writer(file).write(stream());
+		return file.length();
+	}
+
+	@Benchmark
+	public void read(Blackhole blackhole) throws Exception {
+		try (LedStream<BenchmarkSchema> stream = new LedReader(file).read(BenchmarkSchema.class)) {
+			while (stream.hasNext()) blackhole.consume(stream.next().amount());
+		}
+	}
+
+	@Benchmark
+	public void readAll(Blackhole blackhole) {
+		Led<BenchmarkSchema> led = new LedReader(file).readAll(BenchmarkSchema.class);
+		for (int i = 0; i < led.size(); i++) blackhole.consume(led.schema(i).amount());
+	}
+
+	private LedWriter writer(File file) {
+		return new LedWriter(file).codec(codec());
+	}
+
+	private LedCodec codec() {
+		switch (codec) {
+			case "uncompressed": return LedCodec.uncompressed();
+			case "snappy": return LedCodec.snappy();
+			case "deflate": return LedCodec.deflate();
+			default: return null;
+		}
+	}
+
+	private LedStream<BenchmarkSchema> stream() {
+		return LedStream.fromStream(BenchmarkSchema.class, Arrays.stream(schemas));
+	}
+}
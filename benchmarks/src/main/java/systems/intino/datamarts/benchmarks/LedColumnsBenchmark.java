@@ -0,0 +1,82 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import systems.intino.datamarts.led.LedColumns;
+import systems.intino.datamarts.led.LedCursor;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.free;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedColumnsBenchmark {
+	@Param({"65536", "1048576"})
+	private int size;
+
+	private ByteBuffer buffer;
+	private LedCursor<BenchmarkSchema> cursor;
+	private long[] longs;
+	private double[] doubles;
+
+	@Setup
+	public void setup() {
+		buffer = allocBuffer((long) size * BenchmarkSchema.SIZE);
+		cursor = new LedCursor<>(BenchmarkSchema.FACTORY, BenchmarkSchema.SIZE).reset(buffer);
+		Random random = new Random(42);
+		for(int i = 0;i < size;i++)
+			cursor.moveTo(i).id(i).amount(random.nextDouble() * 1000).quantity(random.nextInt(100)).category(random.nextInt(4096));
+		longs = new long[size];
+		doubles = new double[size];
+	}
+
+	@TearDown
+	public void tearDown() {
+		free(buffer);
+	}
+
+	@Benchmark
+	public double sumAmountWithCursor() {
+		double sum = 0;
+		for(int i = 0;i < size;i++) sum += cursor.moveTo(i).amount();
+		return sum;
+	}
+
+	@Benchmark
+	public double sumAmountWithExtraction() {
+		LedColumns.extractDouble(buffer, BenchmarkSchema.SIZE, BenchmarkSchema.AMOUNT_OFFSET, doubles);
+		double sum = 0;
+		for(int i = 0;i < size;i++) sum += doubles[i];
+		return sum;
+	}
+
+	@Benchmark
+	public long countQuantityWithCursor() {
+		long count = 0;
+		for(int i = 0;i < size;i++) if(cursor.moveTo(i).quantity() > 50) count++;
+		return count;
+	}
+
+	@Benchmark
+	public long countQuantityWithExtraction() {
+		LedColumns.extractLong(buffer, BenchmarkSchema.SIZE, BenchmarkSchema.LAYOUT.field("quantity"), longs);
+		long count = 0;
+		for(int i = 0;i < size;i++) if(longs[i] > 50) count++;
+		return count;
+	}
+
+	@Benchmark
+	public long sumCategoryWithExtraction() {
+		LedColumns.extractLong(buffer, BenchmarkSchema.SIZE, BenchmarkSchema.LAYOUT.field("category"), longs);
+		long sum = 0;
+		for(int i = 0;i < size;i++) sum += longs[i];
+		return sum;
+	}
+}
@@ -0,0 +1,54 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import systems.intino.datamarts.led.UnsortedLedStreamBuilder;
+import systems.intino.datamarts.led.util.sorting.LedExternalMergeSort;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LedExternalMergeSortBenchmark {
+	@Param({"2000000"})
+	private int size;
+
+	@Param({"100000", "1000000"})
+	private int numTransactionsInMemory;
+
+	private File directory;
+	private File unsorted;
+
+	@Setup
+	public void setup() throws IOException {
+		directory = TempDirectory.create("led-sort-benchmark");
+		unsorted = new File(directory, "unsorted.led");
+		Random random = new Random(42);
+		try (UnsortedLedStreamBuilder<BenchmarkSchema> builder = new UnsortedLedStreamBuilder<>(BenchmarkSchema.class, unsorted)) {
+			for (long id : Ids.shuffled(random, size))
+				builder.append(s -> LedBenchmark.fill(s, id, random));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		TempDirectory.delete(directory);
+	}
+
+	@Benchmark
+	public long sort() {
+		File sorted = new File(directory, "sorted.led");
+		new LedExternalMergeSort(unsorted, sorted)
+				.numTransactionsInMemory(numTransactionsInMemory)
+				.chunksDirectory(new File(directory, "chunks"))
+				.deleteChunkDirOnExit(true)
+				.sort();
+		return sorted.length();
+	}
+}
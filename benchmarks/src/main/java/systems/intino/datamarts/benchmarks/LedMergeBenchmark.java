@@ -0,0 +1,72 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.datamarts.led.LedStream;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedMergeBenchmark {
+	@Param({"1000000"})
+	private int size;
+
+	@Param({"2", "16", "365"})
+	private int streams;
+
+	private StackAllocator<BenchmarkSchema> allocator;
+	private BenchmarkSchema[][] schemas;
+	private long[] ids;
+
+	@Setup
+	public void setup() {
+		allocator = StackAllocators.managedStackAllocator(BenchmarkSchema.SIZE, size, BenchmarkSchema.class);
+		schemas = new BenchmarkSchema[streams][];
+		Random random = new Random(42);
+		for (int s = 0; s < streams; s++) {
+			final int count = size / streams + (s < size % streams ? 1 : 0);
+			schemas[s] = new BenchmarkSchema[count];
+			for (int i = 0; i < count; i++)
+				schemas[s][i] = LedBenchmark.fill(allocator.calloc(), (long) i * streams + s, random);
+		}
+		ids = Ids.sorted(random, size / 2, 4);
+	}
+
+	@TearDown
+	public void tearDown() {
+		allocator.free();
+	}
+
+	@Benchmark
+	public void merge(Blackhole blackhole) {
+		LedStream<BenchmarkSchema> merged = LedStream.merged(IntStream.range(0, streams).mapToObj(this::stream));
+		while (merged.hasNext()) blackhole.consume(merged.next());
+	}
+
+	@Benchmark
+	public void removeAll(Blackhole blackhole) {
+		LedStream<BenchmarkSchema> result = stream(0).removeAll(LongStream.of(ids).iterator());
+		while (result.hasNext()) blackhole.consume(result.next());
+	}
+
+	@Benchmark
+	public void retainAll(Blackhole blackhole) {
+		LedStream<BenchmarkSchema> result = stream(0).retainAll(LongStream.of(ids).iterator());
+		while (result.hasNext()) blackhole.consume(result.next());
+	}
+
+	private LedStream<BenchmarkSchema> stream(int index) {
+		return LedStream.fromStream(BenchmarkSchema.class, Arrays.stream(schemas[index]));
+	}
+}
@@ -0,0 +1,95 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.alexandria.datamarts.subjectstore.SubjectStore;
+
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.time.temporal.ChronoUnit.HOURS;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SubjectStoreBenchmark {
+	private static final Instant Start = Instant.parse("2025-01-01T00:00:00Z");
+	private static final String[] Categories = {"low", "medium", "high", "critical"};
+
+	@Param({"1000", "10000"})
+	private int feeds;
+
+	@Param({"7", "90"})
+	private int days;
+
+	private SubjectStore store;
+	private Instant from;
+	private Instant to;
+
+	@Setup
+	public void setup() {
+		store = new SubjectStore("benchmark:patient");
+		feed(store, feeds);
+		from = Start.plus(feeds / 2, HOURS);
+		to = from.plus(days, DAYS);
+	}
+
+	@TearDown
+	public void tearDown() {
+		store.close();
+	}
+
+	@Benchmark
+	public int ingestBatch() {
+		try (SubjectStore store = new SubjectStore("ingestion:patient")) {
+			feed(store, feeds);
+			return store.size();
+		}
+	}
+
+	@Benchmark
+	public int ingestTransactions() {
+		try (SubjectStore store = new SubjectStore("ingestion:patient")) {
+			Random random = new Random(42);
+			for (int i = 0; i < feeds; i++)
+				store.feed(Start.plus(i, HOURS), "sensor")
+						.add("temperature", 36 + random.nextDouble() * 4)
+						.add("heartRate", 50 + random.nextInt(70))
+						.add("status", Categories[random.nextInt(Categories.length)])
+						.terminate();
+			return store.size();
+		}
+	}
+
+	@Benchmark
+	public void numericalRange(Blackhole blackhole) {
+		blackhole.consume(store.numericalQuery("temperature").get(from, to));
+	}
+
+	@Benchmark
+	public void categoricalRange(Blackhole blackhole) {
+		blackhole.consume(store.categoricalQuery("status").get(from, to));
+	}
+
+	@Benchmark
+	public void current(Blackhole blackhole) {
+		blackhole.consume(store.currentNumber("heartRate"));
+	}
+
+	private static void feed(SubjectStore store, int feeds) {
+		Random random = new Random(42);
+		SubjectStore.Batch batch = store.batch();
+		for (int i = 0; i < feeds; i++)
+			batch.feed(Start.plus(i, HOURS), "sensor")
+					.add("temperature", 36 + random.nextDouble() * 4)
+					.add("heartRate", 50 + random.nextInt(70))
+					.add("status", Categories[random.nextInt(Categories.length)])
+					.terminate();
+		batch.terminate();
+	}
+}
@@ -0,0 +1,22 @@
+package systems.intino.datamarts.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+class TempDirectory {
+
+	static File create(String prefix) throws IOException {
+		return Files.createTempDirectory(prefix).toFile();
+	}
+
+	static void delete(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null)
+			for (File file : files) {
+				if (file.isDirectory()) delete(file);
+				else file.delete();
+			}
+		directory.delete();
+	}
+}
@@ -0,0 +1,62 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.io.ZInputStream;
+import systems.intino.datamarts.zet.io.ZOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZStreamBenchmark {
+	@Param({"1000000"})
+	private int size;
+
+	@Param({"1", "16", "4096"})
+	private int gap;
+
+	private long[] ids;
+	private byte[] encoded;
+
+	@Setup
+	public void setup() throws IOException {
+		ids = Ids.sorted(new Random(42), size, gap);
+		encoded = encode(ids);
+	}
+
+	@Benchmark
+	public int encode() throws IOException {
+		return encode(ids).length;
+	}
+
+	@Benchmark
+	public void decode(Blackhole blackhole) throws IOException {
+		try (ZInputStream stream = new ZInputStream(new ByteArrayInputStream(encoded))) {
+			for (int i = 0; i < ids.length; i++) blackhole.consume(stream.readLong());
+		}
+	}
+
+	@Benchmark
+	public void read(Blackhole blackhole) {
+		ZetReader reader = new ZetReader(new ByteArrayInputStream(encoded));
+		while (reader.hasNext()) blackhole.consume(reader.next());
+	}
+
+	private static byte[] encode(long[] ids) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(ids.length * 2);
+		try (ZOutputStream stream = new ZOutputStream(bytes)) {
+			for (long id : ids) stream.writeLong(id);
+		}
+		return bytes.toByteArray();
+	}
+}
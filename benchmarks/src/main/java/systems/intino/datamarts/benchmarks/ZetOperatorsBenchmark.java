@@ -0,0 +1,70 @@
+package systems.intino.datamarts.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.ZetStream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZetOperatorsBenchmark {
+	@Param({"2", "8", "64", "512"})
+	private int fanIn;
+
+	@Param({"100000"})
+	private int size;
+
+	private long[][] sets;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		sets = new long[fanIn][];
+		for (int i = 0; i < fanIn; i++) sets[i] = Ids.sorted(random, size, 4);
+	}
+
+	@Benchmark
+	public void union(Blackhole blackhole) {
+		drain(new ZetStream.Union(streams()), blackhole);
+	}
+
+	@Benchmark
+	public void unionWithFrequency(Blackhole blackhole) {
+		drain(new ZetStream.Union(streams(), Math.max(1, fanIn / 2), fanIn, false), blackhole);
+	}
+
+	@Benchmark
+	public void intersection(Blackhole blackhole) {
+		drain(new ZetStream.Intersection(streams()), blackhole);
+	}
+
+	@Benchmark
+	public void difference(Blackhole blackhole) {
+		drain(new ZetStream.Difference(streams()), blackhole);
+	}
+
+	@Benchmark
+	public void merge(Blackhole blackhole) {
+		drain(new ZetStream.Merge(streams()), blackhole);
+	}
+
+	private List<ZetStream> streams() {
+		List<ZetStream> streams = new ArrayList<>(fanIn);
+		for (long[] set : sets) streams.add(new ZetReader(Arrays.stream(set).iterator()));
+		return streams;
+	}
+
+	private static void drain(ZetStream stream, Blackhole blackhole) {
+		while (stream.hasNext()) blackhole.consume(stream.next());
+	}
+}
@@ -0,0 +1,359 @@
+package systems.intino.datamarts.led;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.util.memory.MemoryUtils;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+import systems.intino.datamarts.led.util.sorting.LedRadixSort;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+public class ConcurrentHeapLedStreamBuilder<T extends Schema> implements LedStream.Builder<T>, AutoCloseable {
+
+    private static final int DEFAULT_NUM_SCHEMAS_PER_BLOCK = 5_000_000;
+    private static final int DEFAULT_NUM_SCHEMAS_PER_THREAD_BUFFER = 65_536;
+    private static final File SYSTEM_TEMP_DIR = new File(System.getProperty("java.io.tmpdir"));
+
+    private final int schemaSize;
+    private final Class<T> schemaClass;
+    private final SchemaFactory<T> factory;
+    private final Path tempDirectory;
+    private final int partSize;
+    private final int partsPerBlock;
+    private final List<Path> tempLeds;
+    private final List<Future<?>> spills;
+    private final ThreadLocal<Slot> slots;
+    private final Queue<Slot> allSlots;
+    private final Queue<ByteBuffer> freeParts;
+    private final Queue<ByteBuffer> allParts;
+    private final Queue<BlockSorter> sorters;
+    private final ThreadLocal<BlockSorter> sorter;
+    private final Semaphore pendingSpills;
+    private final ExecutorService spiller;
+    private final AtomicBoolean released;
+    private List<ByteBuffer> currentBlock;
+    private volatile boolean buildInvoked;
+
+    public ConcurrentHeapLedStreamBuilder(Class<T> schemaClass) {
+        this(schemaClass, DEFAULT_NUM_SCHEMAS_PER_BLOCK);
+    }
+
+    public ConcurrentHeapLedStreamBuilder(Class<T> schemaClass, File tempDirectory) {
+        this(schemaClass, DEFAULT_NUM_SCHEMAS_PER_BLOCK, tempDirectory);
+    }
+
+    public ConcurrentHeapLedStreamBuilder(Class<T> schemaClass, int numSchemasPerBlock) {
+        this(schemaClass, numSchemasPerBlock, SYSTEM_TEMP_DIR);
+    }
+
+    public ConcurrentHeapLedStreamBuilder(Class<T> schemaClass, int numSchemasPerBlock, File tempDirectory) {
+        this(schemaClass, numSchemasPerBlock, DEFAULT_NUM_SCHEMAS_PER_THREAD_BUFFER, 1, tempDirectory);
+    }
+
+    public ConcurrentHeapLedStreamBuilder(Class<T> schemaClass, int numSchemasPerBlock, int numSchemasPerThreadBuffer,
+                                          int maxPendingSpills, File tempDirectory) {
+        if(numSchemasPerBlock <= 0) throw new IllegalArgumentException("NumSchemasPerBlock must be > 0");
+        if(numSchemasPerThreadBuffer <= 0) throw new IllegalArgumentException("NumSchemasPerThreadBuffer must be > 0");
+        this.schemaClass = schemaClass;
+        this.schemaSize = Schema.sizeOf(schemaClass);
+        this.factory = Schema.factoryOf(schemaClass);
+        tempDirectory.mkdirs();
+        this.tempDirectory = tempDirectory.toPath();
+        final int schemasPerPart = Math.min(numSchemasPerThreadBuffer, numSchemasPerBlock);
+        this.partSize = Math.multiplyExact(schemasPerPart, schemaSize);
+        this.partsPerBlock = (numSchemasPerBlock + schemasPerPart - 1) / schemasPerPart;
+        if((long) partsPerBlock * partSize > Integer.MAX_VALUE) throw new IllegalArgumentException("Block too large: " + numSchemasPerBlock + " schemas");
+        this.tempLeds = new CopyOnWriteArrayList<>();
+        this.spills = new CopyOnWriteArrayList<>();
+        this.slots = ThreadLocal.withInitial(this::newSlot);
+        this.allSlots = new ConcurrentLinkedQueue<>();
+        this.freeParts = new ConcurrentLinkedQueue<>();
+        this.allParts = new ConcurrentLinkedQueue<>();
+        this.sorters = new ConcurrentLinkedQueue<>();
+        this.sorter = ThreadLocal.withInitial(this::newSorter);
+        this.pendingSpills = new Semaphore(Math.max(1, maxPendingSpills));
+        this.spiller = Executors.newFixedThreadPool(Math.max(1, maxPendingSpills), r -> {
+            Thread thread = new Thread(r, getClass().getSimpleName() + "-spiller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.currentBlock = new ArrayList<>(partsPerBlock);
+        this.released = new AtomicBoolean();
+    }
+
+    public Path tempDirectory() {
+        return tempDirectory;
+    }
+
+    private String getTempFilePrefix() {
+        return schemaClass.getSimpleName();
+    }
+
+    @Override
+    public Class<T> schemaClass() {
+        return schemaClass;
+    }
+
+    @Override
+    public int schemaSize() {
+        return schemaSize;
+    }
+
+    @Override
+    public LedStream.Builder<T> append(Consumer<T> initializer) {
+        if(buildInvoked) throw new IllegalStateException("Method build has been called, cannot create more schemas.");
+        final Slot slot = slots.get();
+        initializer.accept(slot.allocator.calloc());
+        if(slot.allocator.remainingBytes() == 0) handOff(slot);
+        return this;
+    }
+
+    private void handOff(Slot slot) {
+        final ByteBuffer part = slot.buffer;
+        part.position(0).limit((int) slot.allocator.stackPointer());
+        slot.reset(takePart());
+        addToCurrentBlock(part);
+    }
+
+    private void addToCurrentBlock(ByteBuffer part) {
+        List<ByteBuffer> fullBlock = null;
+        synchronized(this) {
+            currentBlock.add(part);
+            if(currentBlock.size() == partsPerBlock) {
+                fullBlock = currentBlock;
+                currentBlock = new ArrayList<>(partsPerBlock);
+            }
+        }
+        if(fullBlock != null) spill(fullBlock);
+    }
+
+    private void spill(List<ByteBuffer> block) {
+        try {
+            pendingSpills.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        final Path file = createTempFile();
+        tempLeds.add(file);
+        try {
+            spills.add(spiller.submit(() -> {
+                try {
+                    sorter.get().sortAndWrite(block, file);
+                } finally {
+                    freeParts.addAll(block);
+                    pendingSpills.release();
+                }
+            }));
+        } catch (RejectedExecutionException e) {
+            pendingSpills.release();
+            throw e;
+        }
+    }
+
+    private Slot newSlot() {
+        Slot slot = new Slot(takePart());
+        allSlots.add(slot);
+        return slot;
+    }
+
+    private ByteBuffer takePart() {
+        ByteBuffer part = freeParts.poll();
+        if(part == null) {
+            part = allocBuffer(partSize);
+            allParts.add(part);
+        }
+        return part.clear();
+    }
+
+    private BlockSorter newSorter() {
+        BlockSorter blockSorter = new BlockSorter(partsPerBlock * partSize);
+        sorters.add(blockSorter);
+        return blockSorter;
+    }
+
+    private Path createTempFile() {
+        try {
+            return Files.createTempFile(tempDirectory, getTempFilePrefix(), ".led.tmp");
+        } catch (IOException e) {
+            Logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public LedStream<T> build() {
+        if(buildInvoked) {
+            throw new IllegalStateException("Method build has been already been called.");
+        }
+        buildInvoked = true;
+        boolean spilled = false;
+        try {
+            flushSlots();
+            awaitSpills();
+            spilled = true;
+        } finally {
+            release(!spilled);
+        }
+        return mergeAllTempLeds();
+    }
+
+    @Override
+    public void close() {
+        buildInvoked = true;
+        release(true);
+    }
+
+    private void release(boolean discard) {
+        if(!released.compareAndSet(false, true)) return;
+        if(discard) spills.forEach(spill -> spill.cancel(false));
+        spiller.shutdown();
+        if(!awaitTermination()) return;
+        freeBuildBuffers();
+        if(discard) deleteAllTempFiles();
+    }
+
+    private boolean awaitTermination() {
+        try {
+            while(!spiller.awaitTermination(1, TimeUnit.MINUTES)) {
+                Logger.warn("Waiting for pending spills to finish...");
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void flushSlots() {
+        for(Slot slot : allSlots) {
+            if(slot.allocator.stackPointer() > 0) addToCurrentBlock(detach(slot));
+        }
+        final List<ByteBuffer> lastBlock;
+        synchronized(this) {
+            lastBlock = currentBlock;
+            currentBlock = new ArrayList<>(0);
+        }
+        if(!lastBlock.isEmpty()) spill(lastBlock);
+    }
+
+    private ByteBuffer detach(Slot slot) {
+        final ByteBuffer part = slot.buffer;
+        part.position(0).limit((int) slot.allocator.stackPointer());
+        slot.allocator.clear();
+        return part;
+    }
+
+    private void awaitSpills() {
+        try {
+            for(Future<?> spill : spills) spill.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Logger.error(e.getCause());
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private LedStream<T> mergeAllTempLeds() {
+        if(tempLeds.isEmpty()) return LedStream.empty(schemaClass);
+        return LedStream.merged(tempLeds.stream()
+                .map(this::read))
+                .onClose(this::deleteAllTempFiles);
+    }
+
+    private void deleteAllTempFiles() {
+        for(Path tempLedFile : tempLeds) {
+            if(Files.exists(tempLedFile)) {
+                tempLedFile.toFile().delete();
+                tempLedFile.toFile().deleteOnExit();
+            }
+        }
+        tempLeds.clear();
+    }
+
+    private LedStream<T> read(Path path) {
+        return new LedReader(path.toFile()).read(schemaClass);
+    }
+
+    private void freeBuildBuffers() {
+        allParts.forEach(part -> free(part));
+        allParts.clear();
+        freeParts.clear();
+        allSlots.clear();
+        sorters.forEach(BlockSorter::free);
+        sorters.clear();
+    }
+
+    private final class Slot {
+
+        private ByteBuffer buffer;
+        private StackAllocator<T> allocator;
+
+        Slot(ByteBuffer buffer) {
+            reset(buffer);
+        }
+
+        void reset(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.allocator = StackAllocators.managedStackAllocatorFromBuffer(schemaSize, buffer, schemaClass);
+        }
+    }
+
+    private final class BlockSorter {
+
+        private final ByteBuffer buffer;
+        private final ByteBufferStore store;
+        private final LedCursor<T> cursor;
+        private final long[] ids;
+        private final LedRadixSort radixSort;
+
+        BlockSorter(int size) {
+            buffer = allocBuffer(size);
+            store = new ByteBufferStore(buffer, ModifiableMemoryAddress.of(buffer), 0, buffer.capacity());
+            cursor = new LedCursor<>(factory, schemaSize).reset(buffer);
+            ids = new long[size / schemaSize];
+            radixSort = new LedRadixSort();
+        }
+
+        void sortAndWrite(List<ByteBuffer> block, Path file) {
+            final long address = addressOf(buffer);
+            long size = 0;
+            for(ByteBuffer part : block) {
+                memcpy(addressOf(part), address + size, part.limit());
+                size += part.limit();
+            }
+            final int count = (int) (size / schemaSize);
+            for(int i = 0;i < count;i++) ids[i] = cursor.moveTo(i).id();
+            radixSort.sort(ids, count);
+            new LedWriter(file.toFile()).write(LedStream.fromStream(schemaClass, getSortedTransactions()));
+        }
+
+        private Stream<T> getSortedTransactions() {
+            return IntStream.range(0, radixSort.size())
+                    .mapToObj(i -> factory.newInstance(store.slice((long) radixSort.index(i) * schemaSize, schemaSize)));
+        }
+
+        void free() {
+            MemoryUtils.free(buffer);
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package systems.intino.datamarts.led;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.allocators.stack.StackAllocator;
+import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+import systems.intino.datamarts.led.leds.InputLedStream;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.*;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.free;
+
+public class ConcurrentUnsortedLedStreamBuilder<T extends Schema> implements LedStream.Builder<T>, AutoCloseable {
+
+    private static final int DEFAULT_NUM_ELEMENTS_PER_BLOCK = 65_536;
+
+    private final Class<T> schemaClass;
+    private final int schemaSize;
+    private final SchemaFactory<T> factory;
+    private final Path tempLedFile;
+    private final UUID serialUUID;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final FileChannel fileChannel;
+    private final ThreadLocal<Slot> slots;
+    private final Queue<Slot> allSlots;
+    private final Queue<Block> pendingBlocks;
+    private final Queue<ByteBuffer> freeBuffers;
+    private final Queue<ByteBuffer> allBuffers;
+    private final AtomicInteger pendingCount;
+    private final AtomicLong filePosition;
+    private final LongAdder numTransactions;
+    private final AtomicBoolean closed;
+    private volatile Thread writer;
+    private volatile boolean stopWriter;
+    private volatile IOException writeError;
+
+    public ConcurrentUnsortedLedStreamBuilder(Class<T> schemaClass, File tempFile) {
+        this(schemaClass, Schema.factoryOf(schemaClass), DEFAULT_NUM_ELEMENTS_PER_BLOCK, tempFile);
+    }
+
+    public ConcurrentUnsortedLedStreamBuilder(Class<T> schemaClass, SchemaFactory<T> factory, int numElementsPerBlock, File tempFile) {
+        this(schemaClass, factory, numElementsPerBlock, 2 * Runtime.getRuntime().availableProcessors(), tempFile);
+    }
+
+    public ConcurrentUnsortedLedStreamBuilder(Class<T> schemaClass, SchemaFactory<T> factory, int numElementsPerBlock,
+                                              int maxPendingBlocks, File tempFile) {
+        if(numElementsPerBlock <= 0) throw new IllegalArgumentException("NumElementsPerBlock must be > 0");
+        this.schemaClass = schemaClass;
+        this.schemaSize = Schema.sizeOf(schemaClass);
+        this.serialUUID = Schema.getSerialUUID(schemaClass);
+        this.factory = factory;
+        this.blockSize = Math.multiplyExact(numElementsPerBlock, schemaSize);
+        this.maxPendingBlocks = Math.max(1, maxPendingBlocks);
+        final File parentFile = tempFile.getAbsoluteFile().getParentFile();
+        if(parentFile != null) parentFile.mkdirs();
+        this.tempLedFile = tempFile.toPath();
+        this.fileChannel = openFileChannel();
+        this.slots = ThreadLocal.withInitial(this::newSlot);
+        this.allSlots = new ConcurrentLinkedQueue<>();
+        this.pendingBlocks = new ConcurrentLinkedQueue<>();
+        this.freeBuffers = new ConcurrentLinkedQueue<>();
+        this.allBuffers = new ConcurrentLinkedQueue<>();
+        this.pendingCount = new AtomicInteger();
+        this.filePosition = new AtomicLong(LedHeader.SIZE);
+        this.numTransactions = new LongAdder();
+        this.closed = new AtomicBoolean();
+    }
+
+    private FileChannel openFileChannel() {
+        try {
+            return FileChannel.open(tempLedFile, CREATE, TRUNCATE_EXISTING, WRITE);
+        } catch (IOException e) {
+            Logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public File tempLedFile() {
+        return tempLedFile.toFile();
+    }
+
+    public long size() {
+        return numTransactions.sum();
+    }
+
+    @Override
+    public Class<T> schemaClass() {
+        return schemaClass;
+    }
+
+    @Override
+    public int schemaSize() {
+        return schemaSize;
+    }
+
+    @Override
+    public LedStream.Builder<T> append(Consumer<T> initializer) {
+        if(isClosed()) {
+            Logger.error("Trying to use a closed builder.");
+            return this;
+        }
+        final Slot slot = slots.get();
+        initializer.accept(slot.allocator.calloc());
+        numTransactions.increment();
+        if(slot.allocator.remainingBytes() == 0) submit(slot);
+        return this;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    @Override
+    public void close() {
+        if(!closed.compareAndSet(false, true)) return;
+        for(Slot slot : allSlots) {
+            if(slot.allocator.stackPointer() > 0) submit(slot);
+        }
+        stopWriter = true;
+        final Thread writer = this.writer;
+        try {
+            if(writer != null) {
+                LockSupport.unpark(writer);
+                writer.join();
+            }
+            writeHeader();
+            fileChannel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            Logger.error(e);
+            throw new RuntimeException(e);
+        } finally {
+            allBuffers.forEach(buffer -> free(buffer));
+            allBuffers.clear();
+            freeBuffers.clear();
+        }
+        if(writeError != null) {
+            Logger.error(writeError);
+            throw new RuntimeException(writeError);
+        }
+    }
+
+    @Override
+    public LedStream<T> build() {
+        if(isClosed()) {
+            Logger.warn("Trying to call build over a closed " + getClass().getSimpleName() + "...");
+            return LedStream.empty(schemaClass);
+        }
+        close();
+        return new InputLedStream.Builder<T>()
+                .inputStream(getInputStream())
+                .factory(factory)
+                .schemaSize(schemaSize)
+                .onClose(this::deleteTempFile)
+                .build();
+    }
+
+    private Slot newSlot() {
+        Slot slot = new Slot(takeBuffer());
+        allSlots.add(slot);
+        return slot;
+    }
+
+    private ByteBuffer takeBuffer() {
+        ByteBuffer buffer = freeBuffers.poll();
+        if(buffer == null) {
+            buffer = allocBuffer(blockSize);
+            allBuffers.add(buffer);
+        }
+        return buffer.clear();
+    }
+
+    private void submit(Slot slot) {
+        final ByteBuffer buffer = slot.buffer;
+        final int bytes = (int) slot.allocator.stackPointer();
+        buffer.position(0).limit(bytes);
+        final long position = filePosition.getAndAdd(bytes);
+        slot.reset(takeBuffer());
+        if(pendingCount.incrementAndGet() > maxPendingBlocks) {
+            pendingCount.decrementAndGet();
+            write(new Block(buffer, position));
+            return;
+        }
+        pendingBlocks.add(new Block(buffer, position));
+        LockSupport.unpark(writer());
+    }
+
+    private Thread writer() {
+        Thread writer = this.writer;
+        if(writer != null) return writer;
+        synchronized(this) {
+            if(this.writer == null) this.writer = Thread.ofVirtual().name("ConcurrentUnsortedLedStreamBuilder-writer").start(this::writeBlocks);
+            return this.writer;
+        }
+    }
+
+    private void writeBlocks() {
+        while(true) {
+            Block block = pendingBlocks.poll();
+            if(block != null) {
+                pendingCount.decrementAndGet();
+                write(block);
+            } else if(stopWriter) {
+                if(pendingBlocks.isEmpty()) return;
+            } else {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+    }
+
+    private void write(Block block) {
+        try {
+            long position = block.position;
+            while(block.buffer.hasRemaining()) position += fileChannel.write(block.buffer, position);
+        } catch (IOException e) {
+            if(writeError == null) writeError = e;
+        } finally {
+            freeBuffers.add(block.buffer);
+        }
+    }
+
+    private void writeHeader() throws IOException {
+        LedHeader header = new LedHeader();
+        header.elementCount(numTransactions.sum());
+        header.elementSize(schemaSize);
+        header.uuid(serialUUID);
+        ByteBuffer buffer = ByteBuffer.wrap(header.toByteArray());
+        long position = 0;
+        while(buffer.hasRemaining()) position += fileChannel.write(buffer, position);
+    }
+
+    private void deleteTempFile() {
+        tempLedFile.toFile().delete();
+        tempLedFile.toFile().deleteOnExit();
+    }
+
+    private InputStream getInputStream() {
+        try {
+            final InputStream inputStream = Files.newInputStream(tempLedFile);
+            inputStream.skip(LedHeader.SIZE);
+            return inputStream;
+        } catch (IOException e) {
+            Logger.error(e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final class Slot {
+
+        private ByteBuffer buffer;
+        private StackAllocator<T> allocator;
+
+        Slot(ByteBuffer buffer) {
+            reset(buffer);
+        }
+
+        void reset(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.allocator = StackAllocators.managedStackAllocatorFromBuffer(schemaSize, buffer, schemaClass);
+        }
+    }
+
+    private static final class Block {
+
+        private final ByteBuffer buffer;
+        private final long position;
+
+        Block(ByteBuffer buffer, long position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+    }
+}
@@ -1,18 +1,22 @@
 package systems.intino.datamarts.led;
 
 import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
 import systems.intino.datamarts.led.allocators.stack.SingleStackAllocator;
 import systems.intino.datamarts.led.allocators.stack.StackAllocator;
 import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
 import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+import systems.intino.datamarts.led.util.sorting.LedRadixSort;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.*;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
@@ -27,8 +31,11 @@ public class HeapLedStreamBuilder<T extends Schema> implements LedStream.Builder
     private final List<Path> tempLeds;
     private final Path tempDirectory;
     private ByteBuffer buffer;
+    private ByteBufferStore store;
     private StackAllocator<T> allocator;
-    private Queue<T> sortedQueue;
+    private long[] ids;
+    private int size;
+    private LedRadixSort radixSort;
     private volatile boolean buildInvoked;
 
     public HeapLedStreamBuilder(Class<T> schemaClass) {
@@ -52,9 +59,10 @@ public class HeapLedStreamBuilder<T extends Schema> implements LedStream.Builder
         tempLeds.add(createTempFile());
         buffer = allocBuffer((long) numSchemasPerBlock * schemaSize);
         ModifiableMemoryAddress address = ModifiableMemoryAddress.of(buffer);
-        ByteBufferStore store = new ByteBufferStore(buffer, address, 0, buffer.capacity());
+        store = new ByteBufferStore(buffer, address, 0, buffer.capacity());
         allocator = new SingleStackAllocator<>(store, address, schemaSize, schemaClass);
-        sortedQueue = new PriorityQueue<>(numSchemasPerBlock);
+        ids = new long[numSchemasPerBlock];
+        radixSort = new LedRadixSort();
     }
 
     public Path tempDirectory() {
@@ -80,7 +88,7 @@ public class HeapLedStreamBuilder<T extends Schema> implements LedStream.Builder
         if(buildInvoked) throw new IllegalStateException("Method build has been called, cannot create more schemas.");
         T schema = newTransaction();
         initializer.accept(schema);
-        sortedQueue.add(schema);
+        ids[size++] = schema.id();
         return this;
     }
 
@@ -106,16 +114,17 @@ public class HeapLedStreamBuilder<T extends Schema> implements LedStream.Builder
             return;
         }
         LedWriter ledWriter = new LedWriter(getCurrentFile().toFile());
-        sortedQueue.iterator();
+        radixSort.sort(ids, size);
         ledWriter.write(LedStream.fromStream(schemaClass, getSortedTransactions()));
-        sortedQueue.clear();
+        size = 0;
         buffer.clear();
         allocator.clear();
     }
 
     private Stream<T> getSortedTransactions() {
-        return Stream.generate(() -> sortedQueue.poll())
-                .takeWhile(Objects::nonNull);
+        final SchemaFactory<T> factory = Schema.factoryOf(schemaClass);
+        return IntStream.range(0, radixSort.size())
+                .mapToObj(i -> factory.newInstance(store.slice((long) radixSort.index(i) * schemaSize, schemaSize)));
     }
 
     private Path getCurrentFile() {
@@ -156,8 +165,9 @@ public class HeapLedStreamBuilder<T extends Schema> implements LedStream.Builder
     private void freeBuildBuffer() {
         allocator.free();
         buffer = null;
+        store = null;
         allocator = null;
-        sortedQueue.clear();
-        sortedQueue = null;
+        ids = null;
+        radixSort = null;
     }
 }
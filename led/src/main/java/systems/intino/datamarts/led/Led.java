@@ -3,10 +3,13 @@ package systems.intino.datamarts.led;
 import systems.intino.datamarts.led.allocators.indexed.IndexedAllocator;
 import systems.intino.datamarts.led.leds.IteratorLedStream;
 import systems.intino.datamarts.led.leds.ListLed;
+import systems.intino.datamarts.led.util.iterators.LedSpliterator;
 
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface Led<T extends Schema> extends Iterable<T> {
 
@@ -39,6 +42,15 @@ public interface Led<T extends Schema> extends Iterable<T> {
 		return elements().iterator();
 	}
 
+	@Override
+	default Spliterator<T> spliterator() {
+		return new LedSpliterator<>(index -> schema((int) index), Math.min(size(), Integer.MAX_VALUE), LedLibraryConfig.DEFAULT_BUFFER_SIZE.get());
+	}
+
+	default Stream<T> asJavaStream() {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
 	default List<T> elements() {
 		return new AbstractList<T>() {
 			@Override
@@ -0,0 +1,164 @@
+package systems.intino.datamarts.led;
+
+import systems.intino.datamarts.led.buffers.BigEndianBitBuffer;
+import systems.intino.datamarts.led.buffers.BitBuffer;
+import systems.intino.datamarts.led.buffers.LittleEndianBitBuffer;
+import systems.intino.datamarts.led.buffers.store.NativePointerStore;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+public final class LedColumns {
+
+	private static final int UNROLL = 4;
+
+	public static int extractLong(ByteBuffer buffer, int stride, int bitOffset, long[] out) {
+		final int count = countOf(buffer, stride, out.length);
+		extractLong(addressOf(buffer) + buffer.position(), count, stride, byteOffsetOf(bitOffset), out, 0);
+		return count;
+	}
+
+	public static int extractLong(ByteBuffer buffer, int stride, SchemaLayout.Field field, long[] out) {
+		final int count = countOf(buffer, stride, out.length);
+		extractLong(addressOf(buffer) + buffer.position(), count, stride, field, out, 0);
+		return count;
+	}
+
+	public static int extractDouble(ByteBuffer buffer, int stride, int bitOffset, double[] out) {
+		final int count = countOf(buffer, stride, out.length);
+		extractDouble(addressOf(buffer) + buffer.position(), count, stride, byteOffsetOf(bitOffset), out, 0);
+		return count;
+	}
+
+	public static int extractDouble(ByteBuffer buffer, int stride, SchemaLayout.Field field, double[] out) {
+		final int count = countOf(buffer, stride, out.length);
+		extractDouble(addressOf(buffer) + buffer.position(), count, stride, field, out, 0);
+		return count;
+	}
+
+	public static void extractLong(long address, int count, int stride, SchemaLayout.Field field, long[] out, int outOffset) {
+		checkOutput(count, out.length, outOffset);
+		if(field.isReal()) throw new IllegalArgumentException("Field " + field.name() + " is " + field.type() + ". Use extractDouble instead");
+		if(!field.isAligned()) {
+			extractLongNBits(address, count, stride, field, out, outOffset);
+			return;
+		}
+		final long offset = field.byteOffset();
+		switch(field.bitCount()) {
+			case Long.SIZE:
+				extractLong(address, count, stride, offset, out, outOffset);
+				return;
+			case Integer.SIZE:
+				for(int i = 0;i < count;i++) out[outOffset + i] = getInt(address, (long) i * stride + offset);
+				return;
+			case Short.SIZE:
+				for(int i = 0;i < count;i++) out[outOffset + i] = getShort(address, (long) i * stride + offset);
+				return;
+			default:
+				for(int i = 0;i < count;i++) out[outOffset + i] = getByte(address, (long) i * stride + offset);
+		}
+	}
+
+	public static void extractDouble(long address, int count, int stride, SchemaLayout.Field field, double[] out, int outOffset) {
+		checkOutput(count, out.length, outOffset);
+		if(!field.isReal()) {
+			long[] longs = new long[count];
+			extractLong(address, count, stride, field, longs, 0);
+			for(int i = 0;i < count;i++) out[outOffset + i] = longs[i];
+			return;
+		}
+		if(field.bitCount() != Long.SIZE && field.bitCount() != Integer.SIZE)
+			throw new IllegalArgumentException("Real field " + field.name() + " must be 32 or 64 bits");
+		if(!field.isAligned()) {
+			extractRealNBits(address, count, stride, field, out, outOffset);
+			return;
+		}
+		final long offset = field.byteOffset();
+		if(field.bitCount() == Long.SIZE) {
+			extractDouble(address, count, stride, offset, out, outOffset);
+			return;
+		}
+		for(int i = 0;i < count;i++) out[outOffset + i] = getFloat(address, (long) i * stride + offset);
+	}
+
+	public static void extractLong(long address, int count, int stride, long byteOffset, long[] out, int outOffset) {
+		checkOutput(count, out.length, outOffset);
+		long ptr = address + byteOffset;
+		final int unrolled = count - count % UNROLL;
+		int i = 0;
+		for(;i < unrolled;i += UNROLL) {
+			out[outOffset + i] = getLong(ptr, 0);
+			out[outOffset + i + 1] = getLong(ptr, stride);
+			out[outOffset + i + 2] = getLong(ptr, 2L * stride);
+			out[outOffset + i + 3] = getLong(ptr, 3L * stride);
+			ptr += UNROLL * (long) stride;
+		}
+		for(;i < count;i++) {
+			out[outOffset + i] = getLong(ptr, 0);
+			ptr += stride;
+		}
+	}
+
+	public static void extractDouble(long address, int count, int stride, long byteOffset, double[] out, int outOffset) {
+		checkOutput(count, out.length, outOffset);
+		long ptr = address + byteOffset;
+		final int unrolled = count - count % UNROLL;
+		int i = 0;
+		for(;i < unrolled;i += UNROLL) {
+			out[outOffset + i] = getDouble(ptr, 0);
+			out[outOffset + i + 1] = getDouble(ptr, stride);
+			out[outOffset + i + 2] = getDouble(ptr, 2L * stride);
+			out[outOffset + i + 3] = getDouble(ptr, 3L * stride);
+			ptr += UNROLL * (long) stride;
+		}
+		for(;i < count;i++) {
+			out[outOffset + i] = getDouble(ptr, 0);
+			ptr += stride;
+		}
+	}
+
+	private static void extractLongNBits(long address, int count, int stride, SchemaLayout.Field field, long[] out, int outOffset) {
+		final ModifiableMemoryAddress record = new ModifiableMemoryAddress(address);
+		final BitBuffer bits = bitBufferOf(record, stride);
+		for(int i = 0;i < count;i++) {
+			record.set(address + (long) i * stride);
+			out[outOffset + i] = bits.getLongNBits(field.bitIndex(), field.bitCount());
+		}
+	}
+
+	private static void extractRealNBits(long address, int count, int stride, SchemaLayout.Field field, double[] out, int outOffset) {
+		final ModifiableMemoryAddress record = new ModifiableMemoryAddress(address);
+		final BitBuffer bits = bitBufferOf(record, stride);
+		final boolean real64 = field.bitCount() == Long.SIZE;
+		for(int i = 0;i < count;i++) {
+			record.set(address + (long) i * stride);
+			out[outOffset + i] = real64 ? bits.getReal64Bits(field.bitIndex()) : bits.getReal32Bits(field.bitIndex());
+		}
+	}
+
+	private static BitBuffer bitBufferOf(ModifiableMemoryAddress address, int stride) {
+		NativePointerStore store = new NativePointerStore(address, 0, stride);
+		return store.order() == LITTLE_ENDIAN ? new LittleEndianBitBuffer(store) : new BigEndianBitBuffer(store);
+	}
+
+	private static int countOf(ByteBuffer buffer, int stride, int capacity) {
+		if(!buffer.isDirect()) throw new IllegalArgumentException("Buffer is not direct");
+		if(stride <= 0) throw new IllegalArgumentException("Stride must be positive");
+		return Math.min(capacity, buffer.remaining() / stride);
+	}
+
+	private static long byteOffsetOf(int bitOffset) {
+		if(bitOffset < 0 || bitOffset % Byte.SIZE != 0) throw new IllegalArgumentException("Bit offset " + bitOffset + " is not byte aligned");
+		return bitOffset / Byte.SIZE;
+	}
+
+	private static void checkOutput(int count, int length, int offset) {
+		if(count < 0 || offset < 0 || (long) offset + count > length)
+			throw new IndexOutOfBoundsException("Cannot write " + count + " values at " + offset + " into an array of " + length);
+	}
+
+	private LedColumns() {}
+}
@@ -0,0 +1,56 @@
+package systems.intino.datamarts.led;
+
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.buffers.store.NativePointerStore;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.NULL;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.addressOf;
+
+import java.nio.ByteBuffer;
+
+public class LedCursor<T extends Schema> {
+
+	private final ModifiableMemoryAddress address;
+	private final int schemaSize;
+	private final T schema;
+	private long base;
+
+	public LedCursor(Class<T> schemaClass) {
+		this(Schema.factoryOf(schemaClass), Schema.sizeOf(schemaClass));
+	}
+
+	public LedCursor(SchemaFactory<T> factory, int schemaSize) {
+		this.address = new ModifiableMemoryAddress(NULL);
+		this.schemaSize = schemaSize;
+		this.schema = factory.newInstance(new NativePointerStore(address, 0, schemaSize));
+	}
+
+	public T schema() {
+		return schema;
+	}
+
+	public int schemaSize() {
+		return schemaSize;
+	}
+
+	public LedCursor<T> reset(ByteBuffer buffer) {
+		return reset(addressOf(buffer));
+	}
+
+	public LedCursor<T> reset(long address) {
+		this.base = address;
+		this.address.set(address);
+		return this;
+	}
+
+	public T moveTo(int index) {
+		address.set(base + (long) index * schemaSize);
+		return schema;
+	}
+
+	public T moveToAddress(long address) {
+		this.address.set(address);
+		return schema;
+	}
+}
@@ -1,6 +1,7 @@
 package systems.intino.datamarts.led;
 
 import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.codecs.LedCodec;
 
 import java.io.File;
 import java.io.IOException;
@@ -21,6 +22,11 @@ import static java.util.Objects.requireNonNull;
  * UUID low: 8 bytes
  *
  * UUID can be null, which means high and low bytes = 0
+ *
+ * Since version 2, the upper 32 bits of elementSize hold a format tag, the version and the codec id:
+ * magic (16 bits) | version (8 bits) | codec (8 bits) | elementSize (32 bits)
+ * Files written before (version 1) store the plain element size and a Snappy stream as body.
+ * Version 3 files are columnar: each block stores every field of the schema in its own compressed column.
  * */
 public class LedHeader {
 
@@ -31,6 +37,12 @@ public class LedHeader {
 
     public static final int SIZE = UUID_LOW_INDEX + Long.BYTES;
     public static final long UNKNOWN_SIZE = -1;
+    public static final int LEGACY_VERSION = 1;
+    public static final int BLOCK_FRAMED_VERSION = 2;
+    public static final int COLUMNAR_VERSION = 3;
+
+    private static final long FORMAT_TAG = 0x4C44L;
+    private static final long ELEMENT_SIZE_MASK = 0xFFFFFFFFL;
 
     public static LedHeader from(InputStream inputStream) {
         try {
@@ -92,11 +104,57 @@ public class LedHeader {
     }
 
     public long elementSize() {
-        return data.getLong(ELEMENT_SIZE_INDEX);
+        final long value = data.getLong(ELEMENT_SIZE_INDEX);
+        return isTagged() ? value & ELEMENT_SIZE_MASK : value;
     }
 
     public LedHeader elementSize(long elementSize) {
-        data.putLong(ELEMENT_SIZE_INDEX, elementSize);
+        final long value = data.getLong(ELEMENT_SIZE_INDEX);
+        data.putLong(ELEMENT_SIZE_INDEX, isTagged() ? (value & ~ELEMENT_SIZE_MASK) | (elementSize & ELEMENT_SIZE_MASK) : elementSize);
+        return this;
+    }
+
+    public int version() {
+        final long value = data.getLong(ELEMENT_SIZE_INDEX);
+        if((value >>> 48) != FORMAT_TAG) return LEGACY_VERSION;
+        return (int) ((value >>> 40) & 0xFF);
+    }
+
+    public boolean isBlockFramed() {
+        return version() == BLOCK_FRAMED_VERSION;
+    }
+
+    public boolean isColumnar() {
+        return version() == COLUMNAR_VERSION;
+    }
+
+    private boolean isTagged() {
+        return version() >= BLOCK_FRAMED_VERSION;
+    }
+
+    public int codecId() {
+        return isTagged() ? (int) ((data.getLong(ELEMENT_SIZE_INDEX) >>> 32) & 0xFF) : 0;
+    }
+
+    public LedCodec codec() {
+        return isTagged() ? LedCodec.of(codecId()) : null;
+    }
+
+    public LedHeader codec(LedCodec codec) {
+        return codec(codec, BLOCK_FRAMED_VERSION);
+    }
+
+    public LedHeader columnar(LedCodec codec) {
+        return codec(requireNonNull(codec), COLUMNAR_VERSION);
+    }
+
+    private LedHeader codec(LedCodec codec, int version) {
+        final long elementSize = elementSize();
+        if(codec == null) {
+            data.putLong(ELEMENT_SIZE_INDEX, elementSize);
+        } else {
+            data.putLong(ELEMENT_SIZE_INDEX, FORMAT_TAG << 48 | (long) version << 40 | (long) codec.id() << 32 | (elementSize & ELEMENT_SIZE_MASK));
+        }
         return this;
     }
 
@@ -126,6 +184,8 @@ public class LedHeader {
         return "LedHeader{" +
                 "elementCount=" + elementCount() +
                 ", elementSize=" + elementSize() +
+                ", version=" + version() +
+                ", codec=" + codecId() +
                 ", uuid=" + uuid() +
                 '}';
     }
@@ -1,5 +1,6 @@
 package systems.intino.datamarts.led;
 
+import systems.intino.datamarts.led.codecs.LedCodec;
 import systems.intino.datamarts.led.util.memory.AllocationInfo;
 
 import java.nio.ByteOrder;
@@ -18,8 +19,11 @@ public final class LedLibraryConfig {
 	public static final Variable<Consumer<AllocationInfo>> ALLOCATION_CALLBACK = new Variable<>();
 	public static final Variable<Consumer<AllocationInfo>> FREE_CALLBACK = new Variable<>();
 	public static final Variable<Integer> DEFAULT_BUFFER_SIZE = new Variable<>(1024);
+	@Deprecated
 	public static final Variable<Boolean> INPUT_LEDSTREAM_CONCURRENCY_ENABLED = new Variable<>(false);
+	public static final Variable<Boolean> INPUT_LEDSTREAM_READ_AHEAD = new Variable<>(false);
 	public static final Variable<Boolean> CHECK_SERIAL_ID = new Variable<>(true);
+	public static final Variable<LedCodec> DEFAULT_CODEC = new Variable<>();
 
 
 	public static final class Variable<T> {
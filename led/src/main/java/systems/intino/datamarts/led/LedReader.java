@@ -5,20 +5,32 @@ import org.xerial.snappy.SnappyInputStream;
 import systems.intino.datamarts.led.allocators.SchemaFactory;
 import systems.intino.datamarts.led.allocators.indexed.IndexedAllocator;
 import systems.intino.datamarts.led.allocators.indexed.IndexedAllocatorFactory;
+import systems.intino.datamarts.led.allocators.indexed.ManagedIndexedAllocator;
+import systems.intino.datamarts.led.codecs.LedBlockIndex;
+import systems.intino.datamarts.led.columnar.ColumnarLed;
+import systems.intino.datamarts.led.codecs.LedBlockInputStream;
+import systems.intino.datamarts.led.leds.BlockLed;
 import systems.intino.datamarts.led.leds.ByteChannelLedStream;
 import systems.intino.datamarts.led.leds.IndexedLed;
 import systems.intino.datamarts.led.leds.InputLedStream;
+import systems.intino.datamarts.led.leds.MappedLed;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
+import static java.nio.file.StandardOpenOption.READ;
 import static systems.intino.datamarts.led.LedLibraryConfig.CHECK_SERIAL_ID;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
 
 public class LedReader {
 
 	private final InputStream srcInputStream;
 	private final File sourceFile;
+	private boolean readAhead = LedLibraryConfig.INPUT_LEDSTREAM_READ_AHEAD.get();
 
 	public LedReader(File file) {
 		this.srcInputStream = inputStreamOf(file);
@@ -30,6 +42,15 @@ public class LedReader {
 		this.sourceFile = null;
 	}
 
+	public boolean readAhead() {
+		return readAhead;
+	}
+
+	public LedReader readAhead(boolean readAhead) {
+		this.readAhead = readAhead;
+		return this;
+	}
+
 	public int size() {
 		if(sourceFile == null) return (int) LedHeader.UNKNOWN_SIZE;
 		try(RandomAccessFile raFile = new RandomAccessFile(sourceFile, "r")) {
@@ -41,23 +62,61 @@ public class LedReader {
 	}
 
 	public <T extends Schema> Led<T> readAll(Class<T> schemaClass) {
-		return readAll(getDefaultAllocatorFactory(), schemaClass);
+		LedHeader header = readHeader(schemaClass);
+		if(header == null) return Led.empty(schemaClass);
+		if(canReadBlocksInParallel(header)) return readBlocksInParallel(schemaClass);
+		return readAllIntoMemory(getDefaultAllocatorFactory(), schemaClass, header);
 	}
 
 	public <T extends Schema> Led<T> readAll(IndexedAllocatorFactory<T> allocatorFactory, Class<T> schemaClass) {
+		LedHeader header = readHeader(schemaClass);
+		if(header == null) return Led.empty(schemaClass);
+		return readAllIntoMemory(allocatorFactory, schemaClass, header);
+	}
+
+	private <T extends Schema> LedHeader readHeader(Class<T> schemaClass) {
 		try {
-			if(srcInputStream.available() == 0) return Led.empty(schemaClass);
+			if(srcInputStream.available() == 0) return null;
 		} catch(Exception e) {
 			Logger.error(e);
-			return Led.empty(schemaClass);
+			return null;
 		}
 		LedHeader header = LedHeader.from(this.srcInputStream);
 		if(CHECK_SERIAL_ID.get()) checkSerialUUID(header.uuid(), Schema.getSerialUUID(schemaClass));
-		return readAllIntoMemory(allocatorFactory, schemaClass, header);
+		return header;
+	}
+
+	private boolean canReadBlocksInParallel(LedHeader header) {
+		return sourceFile != null
+				&& header.isBlockFramed()
+				&& header.elementCount() >= 0
+				&& header.elementCount() * header.elementSize() < Integer.MAX_VALUE;
+	}
+
+	private <T extends Schema> Led<T> readBlocksInParallel(Class<T> schemaClass) {
+		closeSourceInputStream();
+		try(FileChannel channel = FileChannel.open(sourceFile.toPath(), READ)) {
+			LedBlockIndex index = LedBlockIndex.read(channel);
+			final long blockSize = (long) index.elementsPerBlock() * index.elementSize();
+			ByteBuffer buffer = allocBuffer(index.elementCount() * index.elementSize());
+			final long address = addressOf(buffer);
+			IntStream.range(0, index.blockCount()).parallel().forEach(block -> {
+				try {
+					byte[] bytes = index.readBlock(channel, block);
+					memcpy(bytes, 0, address, block * blockSize, bytes.length);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+			return new IndexedLed<>(new ManagedIndexedAllocator<>(buffer, 0, buffer.capacity(), index.elementSize(), schemaClass));
+		} catch (IOException | UncheckedIOException e) {
+			Logger.error(e);
+		}
+		return Led.empty(schemaClass);
 	}
 
 	private <T extends Schema> Led<T> readAllIntoMemory(IndexedAllocatorFactory<T> allocatorFactory, Class<T> schemaClass, LedHeader header) {
-		try(SnappyInputStream inputStream = new SnappyInputStream(this.srcInputStream)) {
+		try(InputStream inputStream = decompressedInputStream(header)) {
 			IndexedAllocator<T> allocator = allocatorFactory.create(inputStream, header.elementCount(), (int)header.elementSize(), schemaClass);
 			return new IndexedLed<>(allocator);
 		} catch (IOException e) {
@@ -71,13 +130,35 @@ public class LedReader {
 			if(srcInputStream.available() == 0) return LedStream.empty(schemaClass);
 			LedHeader header = LedHeader.from(srcInputStream);
 			checkSerialUUID(header.uuid(), Schema.getSerialUUID(schemaClass));
-			return readAsStream(new SnappyInputStream(srcInputStream), schemaClass, (int)header.elementSize());
+			return readAsStream(decompressedInputStream(header), schemaClass, (int)header.elementSize());
 		} catch (IOException e) {
 			Logger.error(e);
 		}
 		return LedStream.empty(schemaClass);
 	}
 
+	public <T extends Schema> BlockLed<T> readRandomAccess(Class<T> schemaClass) {
+		return readRandomAccess(schemaClass, BlockLed.DEFAULT_CACHE_SIZE);
+	}
+
+	public <T extends Schema> BlockLed<T> readRandomAccess(Class<T> schemaClass, int cacheSize) {
+		if(sourceFile == null) throw new UnsupportedOperationException("Random access is only available for led files");
+		closeSourceInputStream();
+		return new BlockLed<>(sourceFile, schemaClass, cacheSize);
+	}
+
+	public <T extends Schema> MappedLed<T> readMapped(Class<T> schemaClass) {
+		if(sourceFile == null) throw new UnsupportedOperationException("Memory mapping is only available for led files");
+		closeSourceInputStream();
+		return MappedLed.open(sourceFile, schemaClass);
+	}
+
+	public ColumnarLed readColumnar() {
+		if(sourceFile == null) throw new UnsupportedOperationException("Columnar reads are only available for led files");
+		closeSourceInputStream();
+		return ColumnarLed.open(sourceFile);
+	}
+
 	public <T extends Schema> LedStream<T> readUncompressed(int elementSize, Class<T> schemaClass) {
 		try {
 			if(srcInputStream.available() == 0) return LedStream.empty(schemaClass);
@@ -88,12 +169,22 @@ public class LedReader {
 		return LedStream.empty(schemaClass);
 	}
 
-	private <T extends Schema> LedStream<T> allocateUncompressed(SchemaFactory<T> factory, int elementSize) {
+	private InputStream decompressedInputStream(LedHeader header) throws IOException {
+		if(header.isColumnar()) throw new IOException("Led is columnar. Use readColumnar instead");
+		if(header.isBlockFramed()) return new LedBlockInputStream(srcInputStream, header.codec());
+		return new SnappyInputStream(srcInputStream);
+	}
+
+	private void closeSourceInputStream() {
 		try {
 			srcInputStream.close();
 		} catch (IOException e) {
 			Logger.error(e);
 		}
+	}
+
+	private <T extends Schema> LedStream<T> allocateUncompressed(SchemaFactory<T> factory, int elementSize) {
+		closeSourceInputStream();
 		return new ByteChannelLedStream<>(sourceFile, factory, elementSize);
 	}
 
@@ -102,6 +193,7 @@ public class LedReader {
 				.inputStream(inputStream)
 				.factory(Schema.factoryOf(schemaClass))
 				.schemaSize(schemaSize)
+				.readAhead(readAhead)
 				.build();
 	}
 
@@ -5,7 +5,7 @@ import systems.intino.datamarts.led.allocators.stack.StackAllocators;
 import systems.intino.datamarts.led.allocators.stack.StackListAllocator;
 import systems.intino.datamarts.led.leds.IteratorLedStream;
 import systems.intino.datamarts.led.util.iterators.IteratorUtils;
-import systems.intino.datamarts.led.util.iterators.MergedIterator;
+import systems.intino.datamarts.led.util.iterators.LoserTreeIterator;
 
 import java.io.File;
 import java.util.*;
@@ -13,6 +13,7 @@ import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -134,6 +135,10 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 		return new RemoveAll<>(this, other);
 	}
 
+	default LedStream<T> removeAll(PrimitiveIterator.OfLong other) {
+		return new RemoveAll<>(this, other);
+	}
+
 	default <O extends Schema> LedStream<T> retainAll(LedStream<O> other) {
 		return new RetainAll<>(this, other);
 	}
@@ -146,6 +151,10 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 		return new RetainAll<>(this, other);
 	}
 
+	default LedStream<T> retainAll(PrimitiveIterator.OfLong other) {
+		return new RetainAll<>(this, other);
+	}
+
 	default Optional<T> findFirst() {
 		return hasNext() ? Optional.ofNullable(next()) : Optional.empty();
 	}
@@ -191,6 +200,10 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 		}
 	}
 
+	default void forEachCursor(Consumer<T> consumer) {
+		forEach(consumer);
+	}
+
 	default void serialize(File file) {
 		LedWriter ledWriter = new LedWriter(file);
 		ledWriter.write(this);
@@ -273,6 +286,17 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 			}
 		}
 
+		@Override
+		public void forEachCursor(Consumer<T> consumer) {
+			if(current != null) {
+				consumer.accept(current);
+				current = null;
+			}
+			source.forEachCursor(schema -> {
+				if(condition.test(schema)) consumer.accept(schema);
+			});
+		}
+
 		@Override
 		public T next() {
 			if(!hasNext())
@@ -309,6 +333,14 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 			return next;
 		}
 
+		@Override
+		public void forEachCursor(Consumer<T> consumer) {
+			source.forEachCursor(schema -> {
+				this.consumer.accept(schema);
+				consumer.accept(schema);
+			});
+		}
+
 		@Override
 		public Class<T> schemaClass() {
 			return source.schemaClass();
@@ -317,15 +349,20 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 
 	class RemoveAll<T extends Schema> extends LedStreamOperation<T, T> {
 
-		private final Iterator<Long> other;
+		private final PrimitiveIterator.OfLong other;
 		private T sourceCurrent;
-		private Long otherCurrentId;
+		private long otherCurrentId;
+		private boolean hasOtherCurrentId;
 
 		public RemoveAll(LedStream<T> source, LedStream<?> other) {
-			this(source, other.mapToObj(Schema::idOf).iterator());
+			this(source, IteratorUtils.idsOf(other));
 		}
 
 		public RemoveAll(LedStream<T> source, Iterator<Long> idIterator) {
+			this(source, IteratorUtils.longIteratorOf(idIterator));
+		}
+
+		public RemoveAll(LedStream<T> source, PrimitiveIterator.OfLong idIterator) {
 			super(source);
 			this.other = requireNonNull(idIterator);
 		}
@@ -342,15 +379,15 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 			if(!source.hasNext()) {
 				return;
 			}
-			if(!other.hasNext()) {
+			if(!hasOtherCurrentId && !other.hasNext()) {
 				sourceCurrent = source.next();
-				otherCurrentId = null;
 				return;
 			}
 
 			T sourceElement = source.next();
-			if(otherCurrentId == null) {
-				otherCurrentId = other.next();
+			if(!hasOtherCurrentId) {
+				otherCurrentId = other.nextLong();
+				hasOtherCurrentId = true;
 			}
 
 			if(idOf(sourceElement) < otherCurrentId) {
@@ -359,10 +396,10 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 			}
 			while(idOf(sourceElement) > otherCurrentId) {
 				if(other.hasNext()) {
-					otherCurrentId = other.next();
+					otherCurrentId = other.nextLong();
 				} else {
 					sourceCurrent = sourceElement;
-					otherCurrentId = null;
+					hasOtherCurrentId = false;
 					return;
 				}
 			}
@@ -379,9 +416,9 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 					}
 				} else if(comparison > 0) {
 					if(other.hasNext()) {
-						otherCurrentId = other.next();
+						otherCurrentId = other.nextLong();
 					} else {
-						otherCurrentId = null;
+						hasOtherCurrentId = false;
 						break;
 					}
 				}
@@ -408,16 +445,15 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 
 	class Merge<T extends Schema> extends LedStreamOperation<T, T> {
 
-		private final MergedIterator<T> mergedIterator;
+		private final LoserTreeIterator<T> mergedIterator;
 
 		public Merge(LedStream<T> source, LedStream<T> other) {
-			super(source);
-			mergedIterator = new MergedIterator<>(Stream.of(source, requireNonNull(other)), Comparator.comparingLong(Schema::idOf));
+			this(source, Stream.of(requireNonNull(other)));
 		}
 
 		public Merge(LedStream<T> source, Stream<LedStream<T>> others) {
 			super(source);
-			mergedIterator = new MergedIterator<>(Stream.concat(Stream.of(source), others), Comparator.comparingLong(Schema::idOf));
+			mergedIterator = new LoserTreeIterator<>(Stream.concat(Stream.of(source), others).collect(Collectors.toList()), Schema::idOf);
 		}
 
 		@Override
@@ -438,14 +474,18 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 
 	class RetainAll<T extends Schema> extends LedStreamOperation<T, T> {
 
-		private final Iterator<Long> other;
+		private final PrimitiveIterator.OfLong other;
 		private T current;
 
 		public RetainAll(LedStream<T> source, LedStream<?> other) {
-			this(source, other.mapToObj(Schema::idOf).iterator());
+			this(source, IteratorUtils.idsOf(other));
 		}
 
 		public RetainAll(LedStream<T> source, Iterator<Long> idIterator) {
+			this(source, IteratorUtils.longIteratorOf(idIterator));
+		}
+
+		public RetainAll(LedStream<T> source, PrimitiveIterator.OfLong idIterator) {
 			super(source);
 			this.other = requireNonNull(idIterator);
 		}
@@ -464,7 +504,7 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 			}
 
 			T sourceElement = source.next();
-			long otherElementId = other.next();
+			long otherElementId = other.nextLong();
 
 			while(idOf(sourceElement) < otherElementId) {
 				if(!source.hasNext()) {
@@ -476,7 +516,7 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 				if(!other.hasNext()) {
 					return;
 				}
-				otherElementId = other.next();
+				otherElementId = other.nextLong();
 			}
 			if(idOf(sourceElement) == otherElementId) {
 				current = sourceElement;
@@ -533,6 +573,16 @@ public interface LedStream<T extends Schema> extends Iterator<T>, AutoCloseable
 			return newElement;
 		}
 
+		@Override
+		public void forEachCursor(Consumer<R> consumer) {
+			final R target = allocator.calloc();
+			source.forEachCursor(schema -> {
+				target.clear();
+				mapper.accept(schema, target);
+				consumer.accept(target);
+			});
+		}
+
 		@Override
 		public Class<R> schemaClass() {
 			return allocator.schemaClass();
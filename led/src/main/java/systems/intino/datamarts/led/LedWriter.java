@@ -2,6 +2,9 @@ package systems.intino.datamarts.led;
 
 import io.intino.alexandria.logger.Logger;
 import org.xerial.snappy.SnappyOutputStream;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.codecs.LedBlockOutputStream;
+import systems.intino.datamarts.led.codecs.LedCodec;
 
 import java.io.*;
 import java.nio.ByteBuffer;
@@ -14,6 +17,7 @@ import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
 public class LedWriter {
 
 	private int bufferSize = LedLibraryConfig.DEFAULT_BUFFER_SIZE.get();
+	private LedCodec codec = LedLibraryConfig.DEFAULT_CODEC.get();
 	private final OutputStream destOutputStream;
 	private final File destinationFile;
 
@@ -37,6 +41,15 @@ public class LedWriter {
 		return this;
 	}
 
+	public LedCodec codec() {
+		return codec;
+	}
+
+	public LedWriter codec(LedCodec codec) {
+		this.codec = codec;
+		return this;
+	}
+
 	private FileOutputStream outputStream(File destination) {
 		try {
 			return new FileOutputStream(destination);
@@ -63,50 +76,40 @@ public class LedWriter {
 	}
 
 	private <T extends Schema> void fastSerializeUncompressed(LedStream<T> ledStream) {
+		final int schemaSize = ledStream.schemaSize();
+		ByteBuffer outputBuffer = allocBuffer((long) bufferSize * schemaSize);
 		try (FileChannel fileChannel = FileChannel.open(destinationFile.toPath(), WRITE)) {
-			final int schemaSize = ledStream.schemaSize();
-			ByteBuffer outputBuffer = allocBuffer((long) bufferSize * schemaSize);
 			final long destPtr = addressOf(outputBuffer);
-			int offset = 0;
-			while (ledStream.hasNext()) {
-				Schema schema = ledStream.next();
-				memcpy(schema.address() + schema.baseOffset(), destPtr + offset, schemaSize);
-				offset += schemaSize;
-				if (offset == outputBuffer.capacity()) {
-					fileChannel.write(outputBuffer);
-					outputBuffer.clear();
-					offset = 0;
-				}
-			}
-			if (offset > 0) {
-				outputBuffer.limit(offset);
-				fileChannel.write(outputBuffer);
-				outputBuffer.clear();
-			}
+			ledStream.forEachCursor(schema -> {
+				memcpy(schema.address() + schema.baseOffset(), destPtr + outputBuffer.position(), schemaSize);
+				outputBuffer.position(outputBuffer.position() + schemaSize);
+				if (!outputBuffer.hasRemaining()) write(fileChannel, outputBuffer);
+			});
+			write(fileChannel, outputBuffer);
 			destOutputStream.close();
 			ledStream.close();
 		} catch (Exception e) {
 			Logger.error(e);
+		} finally {
+			free(outputBuffer);
+		}
+	}
+
+	private static void write(FileChannel fileChannel, ByteBuffer buffer) {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) fileChannel.write(buffer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
+		buffer.clear();
 	}
 
 	private <T extends Schema> void serializeUncompressed(LedStream<T> ledStream) {
 		try (OutputStream outputStream = this.destOutputStream) {
-			final int schemaSize = ledStream.schemaSize();
-			final byte[] outputBuffer = new byte[bufferSize * schemaSize];
-			int offset = 0;
-			while (ledStream.hasNext()) {
-				Schema schema = ledStream.next();
-				memcpy(schema.address(), schema.baseOffset(), outputBuffer, offset, schemaSize);
-				offset += schemaSize;
-				if (offset == outputBuffer.length) {
-					writeToOutputStream(outputStream, outputBuffer);
-					offset = 0;
-				}
-			}
-			if (offset > 0) {
-				writeToOutputStream(outputStream, outputBuffer, 0, offset);
-			}
+			BatchWriter batchWriter = new BatchWriter(outputStream, ledStream.schemaSize());
+			ledStream.forEachCursor(batchWriter::accept);
+			batchWriter.flush();
 			ledStream.close();
 		} catch (Exception e) {
 			Logger.error(e);
@@ -119,17 +122,20 @@ public class LedWriter {
 		final int schemaSize = led.schemaSize();
 		final int numBatches = (int) Math.ceil(led.size() / (float) bufferSize);
 		try (OutputStream originalOutputStream = this.destOutputStream) {
+			final SchemaFactory<?> idFactory = idFactoryOf(led.schemaClass());
 			LedHeader header = new LedHeader();
-			header.elementCount(size).elementSize(schemaSize).uuid(led.serialUUID());
+			header.elementCount(size).elementSize(schemaSize).uuid(led.serialUUID()).codec(codec);
 			originalOutputStream.write(header.toByteArray());
-			writeLed(led, schemaSize, numBatches, originalOutputStream);
+			writeLed(led, schemaSize, numBatches, idFactory, originalOutputStream);
+		} catch (IllegalArgumentException e) {
+			throw e;
 		} catch (Exception e) {
 			Logger.error(e);
 		}
 	}
 
-	private void writeLed(Led<? extends Schema> led, int schemaSize, int numBatches, OutputStream fos) throws IOException {
-		try (SnappyOutputStream outputStream = new SnappyOutputStream(fos)) {
+	private void writeLed(Led<? extends Schema> led, int schemaSize, int numBatches, SchemaFactory<?> idFactory, OutputStream fos) throws IOException {
+		try (OutputStream outputStream = compressedOutputStream(fos, schemaSize, idFactory)) {
 			for (int i = 0; i < numBatches; i++) {
 				final int start = i * bufferSize;
 				final int numElements = (int) Math.min(bufferSize, led.size() - start);
@@ -147,9 +153,12 @@ public class LedWriter {
 	private void serialize(LedStream<? extends Schema> ledStream) {
 		long elementCount = 0;
 		try (OutputStream outputStream = this.destOutputStream) {
+			final SchemaFactory<?> idFactory = idFactoryOf(ledStream.schemaClass());
 			reserveHeader(ledStream, outputStream);
-			elementCount = writeLedStream(ledStream, elementCount, outputStream);
+			elementCount = writeLedStream(ledStream, elementCount, idFactory, outputStream);
 			ledStream.close();
+		} catch (IllegalArgumentException e) {
+			throw e;
 		} catch (Exception e) {
 			Logger.error(e);
 		}
@@ -157,39 +166,42 @@ public class LedWriter {
 			overrideHeader(elementCount, ledStream.schemaSize(), ledStream.serialUUID());
 	}
 
-	private long writeLedStream(LedStream<? extends Schema> ledStream, long elementCount, OutputStream outputStream) throws IOException {
-		try (SnappyOutputStream snappyOutputStream = new SnappyOutputStream(outputStream)) {
-			final int schemaSize = ledStream.schemaSize();
-			final byte[] outputBuffer = new byte[bufferSize * schemaSize];
-			int offset = 0;
-			while (ledStream.hasNext()) {
-				Schema schema = ledStream.next();
-				memcpy(schema.address(), schema.baseOffset(), outputBuffer, offset, schemaSize);
-				offset += schemaSize;
-				if (offset == outputBuffer.length) {
-					writeToOutputStream(snappyOutputStream, outputBuffer);
-					offset = 0;
-				}
-				++elementCount;
-			}
-			if (offset > 0)
-				writeToOutputStream(snappyOutputStream, outputBuffer, 0, offset);
+	private long writeLedStream(LedStream<? extends Schema> ledStream, long elementCount, SchemaFactory<?> idFactory, OutputStream outputStream) throws IOException {
+		final int schemaSize = ledStream.schemaSize();
+		try (OutputStream compressedOutputStream = compressedOutputStream(outputStream, schemaSize, idFactory)) {
+			BatchWriter batchWriter = new BatchWriter(compressedOutputStream, schemaSize);
+			ledStream.forEachCursor(batchWriter::accept);
+			batchWriter.flush();
+			return elementCount + batchWriter.count;
+		}
+	}
+
+	private OutputStream compressedOutputStream(OutputStream outputStream, int schemaSize, SchemaFactory<?> idFactory) throws IOException {
+		if(codec == null) return new SnappyOutputStream(outputStream);
+		return new LedBlockOutputStream(outputStream, codec, schemaSize, bufferSize, LedHeader.SIZE, idFactory);
+	}
+
+	private SchemaFactory<?> idFactoryOf(Class<? extends Schema> schemaClass) {
+		if(codec == null) return null;
+		if(schemaClass == null) return GenericSchema.FACTORY;
+		try {
+			return Schema.factoryOf(schemaClass);
+		} catch (RuntimeException e) {
+			throw new IllegalArgumentException("Block compressed leds need the FACTORY of " + schemaClass.getName() + " to index their blocks by id", e);
 		}
-		return elementCount;
 	}
 
 	private void reserveHeader(LedStream<? extends Schema> ledStream, OutputStream fos) throws IOException {
 		LedHeader header = new LedHeader();
-		header.elementCount(LedHeader.UNKNOWN_SIZE).elementSize(ledStream.schemaSize()).uuid(ledStream.serialUUID());
+		header.elementCount(LedHeader.UNKNOWN_SIZE).elementSize(ledStream.schemaSize()).uuid(ledStream.serialUUID()).codec(codec);
 		fos.write(header.toByteArray());
 	}
 
 	private void overrideHeader(long elementCount, int schemaSize, UUID uuid) {
 		try(RandomAccessFile raFile = new RandomAccessFile(destinationFile, "rw")) {
-			raFile.writeLong(elementCount);
-			raFile.writeLong(schemaSize);
-			raFile.writeLong(uuid.getMostSignificantBits());
-			raFile.writeLong(uuid.getLeastSignificantBits());
+			LedHeader header = new LedHeader();
+			header.elementCount(elementCount).elementSize(schemaSize).uuid(uuid).codec(codec);
+			LedHeader.write(header, raFile);
 		} catch (IOException e) {
 			Logger.error(e);
 		}
@@ -206,4 +218,34 @@ public class LedWriter {
 			Logger.error(e);
 		}
 	}
+
+	private class BatchWriter {
+
+		private final OutputStream outputStream;
+		private final int schemaSize;
+		private final byte[] outputBuffer;
+		private int offset;
+		private long count;
+
+		BatchWriter(OutputStream outputStream, int schemaSize) {
+			this.outputStream = outputStream;
+			this.schemaSize = schemaSize;
+			this.outputBuffer = new byte[bufferSize * schemaSize];
+		}
+
+		void accept(Schema schema) {
+			memcpy(schema.address(), schema.baseOffset(), outputBuffer, offset, schemaSize);
+			offset += schemaSize;
+			++count;
+			if (offset == outputBuffer.length) {
+				writeToOutputStream(outputStream, outputBuffer);
+				offset = 0;
+			}
+		}
+
+		void flush() {
+			if (offset > 0) writeToOutputStream(outputStream, outputBuffer, 0, offset);
+			offset = 0;
+		}
+	}
 }
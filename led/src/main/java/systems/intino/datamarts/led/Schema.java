@@ -40,6 +40,16 @@ public abstract class Schema implements OffHeapObject, Comparable<Schema>, Seria
 		}
 	}
 
+	public static <T extends Schema> SchemaLayout layoutOf(Class<T> type) {
+		try {
+			final Field layout = type.getField("LAYOUT");
+			layout.setAccessible(true);
+			return (SchemaLayout) layout.get(null);
+		} catch (IllegalAccessException | NoSuchFieldException e) {
+			return null;
+		}
+	}
+
 	@SuppressWarnings("unchecked")
 	public static <T extends Schema> SchemaFactory<T> factoryOf(Class<T> type) {
 		try {
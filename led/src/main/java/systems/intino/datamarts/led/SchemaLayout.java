@@ -0,0 +1,152 @@
+package systems.intino.datamarts.led;
+
+import systems.intino.datamarts.led.util.SchemaSerialBuilder;
+
+import java.util.*;
+
+import static java.util.Objects.requireNonNull;
+
+public class SchemaLayout {
+
+	private final String name;
+	private final int size;
+	private final List<Field> fields;
+	private final Map<String, Field> fieldsByName;
+
+	public SchemaLayout(String name, int size) {
+		if(size <= 0) throw new IllegalArgumentException("Schema size must be > 0");
+		this.name = requireNonNull(name);
+		this.size = size;
+		this.fields = new ArrayList<>();
+		this.fieldsByName = new HashMap<>();
+	}
+
+	public SchemaLayout add(String name, String type, int bitIndex, int bitCount) {
+		Field field = new Field(fields.size(), name, type, bitIndex, bitCount);
+		if(bitIndex < 0 || bitCount <= 0 || bitCount > Long.SIZE || bitIndex + bitCount > size * Byte.SIZE)
+			throw new IllegalArgumentException("Field " + name + " does not fit in a schema of " + size + " bytes");
+		if(fieldsByName.putIfAbsent(name, field) != null)
+			throw new IllegalArgumentException("Field " + name + " is already defined in " + this.name);
+		fields.add(field);
+		return this;
+	}
+
+	public String name() {
+		return name;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public List<Field> fields() {
+		return Collections.unmodifiableList(fields);
+	}
+
+	public Field field(String name) {
+		Field field = fieldsByName.get(name);
+		if(field == null) throw new IllegalArgumentException("Field " + name + " is not defined in " + this.name);
+		return field;
+	}
+
+	public boolean contains(String name) {
+		return fieldsByName.containsKey(name);
+	}
+
+	public UUID serialUUID() {
+		SchemaSerialBuilder builder = new SchemaSerialBuilder(name);
+		for(Field field : fields) builder.add(field.name, field.type, field.bitIndex, field.bitCount);
+		return builder.buildSerialId();
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if(this == o) return true;
+		if(o == null || getClass() != o.getClass()) return false;
+		SchemaLayout other = (SchemaLayout) o;
+		return size == other.size && name.equals(other.name) && fields.equals(other.fields);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(name, size, fields);
+	}
+
+	@Override
+	public String toString() {
+		return name + fields;
+	}
+
+	public static class Field {
+
+		private final int index;
+		private final String name;
+		private final String type;
+		private final int bitIndex;
+		private final int bitCount;
+
+		private Field(int index, String name, String type, int bitIndex, int bitCount) {
+			this.index = index;
+			this.name = requireNonNull(name);
+			this.type = requireNonNull(type);
+			this.bitIndex = bitIndex;
+			this.bitCount = bitCount;
+		}
+
+		public int index() {
+			return index;
+		}
+
+		public String name() {
+			return name;
+		}
+
+		public String type() {
+			return type;
+		}
+
+		public int bitIndex() {
+			return bitIndex;
+		}
+
+		public int bitCount() {
+			return bitCount;
+		}
+
+		public int byteOffset() {
+			return bitIndex / Byte.SIZE;
+		}
+
+		public int byteLength() {
+			return (bitIndex + bitCount + Byte.SIZE - 1) / Byte.SIZE - byteOffset();
+		}
+
+		public boolean isAligned() {
+			return (bitCount == Byte.SIZE || bitCount == Short.SIZE || bitCount == Integer.SIZE || bitCount == Long.SIZE)
+					&& bitIndex % Byte.SIZE == 0;
+		}
+
+		public boolean isReal() {
+			final String type = this.type.toLowerCase();
+			return type.equals("double") || type.equals("float") || type.startsWith("real");
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if(this == o) return true;
+			if(o == null || getClass() != o.getClass()) return false;
+			Field other = (Field) o;
+			return bitIndex == other.bitIndex && bitCount == other.bitCount && name.equals(other.name) && type.equals(other.type);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(name, type, bitIndex, bitCount);
+		}
+
+		@Override
+		public String toString() {
+			return name + " : " + type + "(" + bitIndex + "," + bitCount + ")";
+		}
+	}
+}
@@ -0,0 +1,82 @@
+package systems.intino.datamarts.led.buffers.store;
+
+import io.intino.alexandria.logger.Logger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static systems.intino.datamarts.led.LedLibraryConfig.BYTE_ORDER;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.free;
+
+/**
+ * Owns the stores it hands out and frees their buffers on {@link #close()}.
+ * <p>
+ * An arena and its stores must be confined to one thread, or closed only after every access to them has
+ * finished. Typed accesses are not checked against the arena's liveness, so reading or writing a store after
+ * {@code close()} touches freed memory. Only structural operations ({@code allocate}, {@code map},
+ * {@code slice} and {@code copy}) fail with {@link IllegalStateException} on a closed arena. The same applies
+ * to the raw pointer returned by {@link VarHandleStore#address()}: code that copies through it (memcpy,
+ * BitBuffer) must not outlive the arena.
+ */
+public class StoreArena implements AutoCloseable {
+
+	private final Scope scope = new Scope();
+	private final List<ByteBuffer> buffers = new ArrayList<>();
+
+	public synchronized VarHandleStore allocate(long size) {
+		checkSize(size);
+		checkAlive();
+		ByteBuffer buffer = allocBuffer(size);
+		buffers.add(buffer);
+		return new VarHandleStore(buffer, scope, 0, (int) size);
+	}
+
+	public synchronized VarHandleStore map(FileChannel channel, FileChannel.MapMode mode, long position, long size) {
+		checkSize(size);
+		checkAlive();
+		try {
+			MappedByteBuffer buffer = channel.map(mode, position, size);
+			buffer.order(BYTE_ORDER.get());
+			buffers.add(buffer);
+			return new VarHandleStore(buffer, scope, 0, (int) size);
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public boolean isAlive() {
+		return scope.isAlive();
+	}
+
+	@Override
+	public synchronized void close() {
+		if(!scope.isAlive()) return;
+		scope.alive = false;
+		for(ByteBuffer buffer : buffers) free(buffer);
+		buffers.clear();
+	}
+
+	private void checkAlive() {
+		if(!scope.isAlive()) throw new IllegalStateException("Store arena has already been closed");
+	}
+
+	private static void checkSize(long size) {
+		if(size < 0 || size > Integer.MAX_VALUE) throw new IllegalArgumentException("Store size must be between 0 and " + Integer.MAX_VALUE);
+	}
+
+	static final class Scope {
+
+		private volatile boolean alive = true;
+
+		boolean isAlive() {
+			return alive;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package systems.intino.datamarts.led.buffers.store;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static java.nio.ByteOrder.BIG_ENDIAN;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Objects.requireNonNull;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.addressOf;
+
+public class VarHandleStore implements ByteStore {
+
+	private static final VarHandle SHORT_LE = MethodHandles.byteBufferViewVarHandle(short[].class, LITTLE_ENDIAN);
+	private static final VarHandle SHORT_BE = MethodHandles.byteBufferViewVarHandle(short[].class, BIG_ENDIAN);
+	private static final VarHandle CHAR_LE = MethodHandles.byteBufferViewVarHandle(char[].class, LITTLE_ENDIAN);
+	private static final VarHandle CHAR_BE = MethodHandles.byteBufferViewVarHandle(char[].class, BIG_ENDIAN);
+	private static final VarHandle INT_LE = MethodHandles.byteBufferViewVarHandle(int[].class, LITTLE_ENDIAN);
+	private static final VarHandle INT_BE = MethodHandles.byteBufferViewVarHandle(int[].class, BIG_ENDIAN);
+	private static final VarHandle LONG_LE = MethodHandles.byteBufferViewVarHandle(long[].class, LITTLE_ENDIAN);
+	private static final VarHandle LONG_BE = MethodHandles.byteBufferViewVarHandle(long[].class, BIG_ENDIAN);
+	private static final VarHandle FLOAT_LE = MethodHandles.byteBufferViewVarHandle(float[].class, LITTLE_ENDIAN);
+	private static final VarHandle FLOAT_BE = MethodHandles.byteBufferViewVarHandle(float[].class, BIG_ENDIAN);
+	private static final VarHandle DOUBLE_LE = MethodHandles.byteBufferViewVarHandle(double[].class, LITTLE_ENDIAN);
+	private static final VarHandle DOUBLE_BE = MethodHandles.byteBufferViewVarHandle(double[].class, BIG_ENDIAN);
+
+	public static void copy(VarHandleStore src, long srcOffset, VarHandleStore dest, long destOffset, long bytes) {
+		src.checkBounds(srcOffset, bytes);
+		dest.checkBounds(destOffset, bytes);
+		dest.buffer.put(dest.baseOffset + (int) destOffset, src.buffer, src.baseOffset + (int) srcOffset, (int) bytes);
+	}
+
+	private final ByteBuffer buffer;
+	private final StoreArena.Scope scope;
+	private final int baseOffset;
+	private final int size;
+	private final boolean bigEndian;
+	private long address = -1;
+
+	public VarHandleStore(ByteBuffer buffer) {
+		this(buffer, null, 0, buffer.capacity());
+	}
+
+	VarHandleStore(ByteBuffer buffer, StoreArena.Scope scope, int baseOffset, int size) {
+		this.buffer = requireNonNull(buffer);
+		this.scope = scope;
+		if(baseOffset < 0 || size < 0 || (long) baseOffset + size > buffer.capacity())
+			throw new IndexOutOfBoundsException("Region [" + baseOffset + ", " + ((long) baseOffset + size) + ") is out of buffer bounds " + buffer.capacity());
+		this.baseOffset = baseOffset;
+		this.size = size;
+		this.bigEndian = buffer.order() == BIG_ENDIAN;
+	}
+
+	/**
+	 * Raw address of the backing buffer. Accesses through it bypass bounds checks, see {@link StoreArena}.
+	 */
+	@Override
+	public long address() {
+		if(address == -1) address = buffer.isDirect() ? addressOf(buffer) : NULL;
+		return address;
+	}
+
+	@Override
+	public long byteSize() {
+		return size;
+	}
+
+	@Override
+	public ByteOrder order() {
+		return buffer.order();
+	}
+
+	@Override
+	public ByteBuffer storeImpl() {
+		return buffer;
+	}
+
+	@Override
+	public long baseOffset() {
+		return baseOffset;
+	}
+
+	public boolean isAlive() {
+		return scope == null || scope.isAlive();
+	}
+
+	@Override
+	public byte getByte(int byteIndex) {
+		return buffer.get(baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setByte(int byteIndex, byte value) {
+		buffer.put(baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public short getShort(int byteIndex) {
+		return bigEndian ? (short) SHORT_BE.get(buffer, baseOffset + byteIndex) : (short) SHORT_LE.get(buffer, baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setShort(int byteIndex, short value) {
+		if(bigEndian) SHORT_BE.set(buffer, baseOffset + byteIndex, value);
+		else SHORT_LE.set(buffer, baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public char getChar(int byteIndex) {
+		return bigEndian ? (char) CHAR_BE.get(buffer, baseOffset + byteIndex) : (char) CHAR_LE.get(buffer, baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setChar(int byteIndex, char value) {
+		if(bigEndian) CHAR_BE.set(buffer, baseOffset + byteIndex, value);
+		else CHAR_LE.set(buffer, baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public int getInt(int byteIndex) {
+		return bigEndian ? (int) INT_BE.get(buffer, baseOffset + byteIndex) : (int) INT_LE.get(buffer, baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setInt(int byteIndex, int value) {
+		if(bigEndian) INT_BE.set(buffer, baseOffset + byteIndex, value);
+		else INT_LE.set(buffer, baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public long getLong(int byteIndex) {
+		return bigEndian ? (long) LONG_BE.get(buffer, baseOffset + byteIndex) : (long) LONG_LE.get(buffer, baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setLong(int byteIndex, long value) {
+		if(bigEndian) LONG_BE.set(buffer, baseOffset + byteIndex, value);
+		else LONG_LE.set(buffer, baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public float getFloat(int byteIndex) {
+		return bigEndian ? (float) FLOAT_BE.get(buffer, baseOffset + byteIndex) : (float) FLOAT_LE.get(buffer, baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setFloat(int byteIndex, float value) {
+		if(bigEndian) FLOAT_BE.set(buffer, baseOffset + byteIndex, value);
+		else FLOAT_LE.set(buffer, baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public double getDouble(int byteIndex) {
+		return bigEndian ? (double) DOUBLE_BE.get(buffer, baseOffset + byteIndex) : (double) DOUBLE_LE.get(buffer, baseOffset + byteIndex);
+	}
+
+	@Override
+	public void setDouble(int byteIndex, double value) {
+		if(bigEndian) DOUBLE_BE.set(buffer, baseOffset + byteIndex, value);
+		else DOUBLE_LE.set(buffer, baseOffset + byteIndex, value);
+	}
+
+	@Override
+	public void clear() {
+		final int end = baseOffset + size;
+		int i = baseOffset;
+		for(;i + Long.BYTES <= end;i += Long.BYTES) LONG_LE.set(buffer, i, 0L);
+		for(;i < end;i++) buffer.put(i, (byte) 0);
+	}
+
+	@Override
+	public VarHandleStore slice(long offset, long size) {
+		checkBounds(offset, size);
+		return new VarHandleStore(buffer, scope, baseOffset + (int) offset, (int) size);
+	}
+
+	public void copyTo(long offset, VarHandleStore dest, long destOffset, long bytes) {
+		copy(this, offset, dest, destOffset, bytes);
+	}
+
+	private void checkBounds(long offset, long bytes) {
+		checkAlive();
+		if(offset < 0 || bytes < 0 || offset + bytes > size)
+			throw new IndexOutOfBoundsException("Region [" + offset + ", " + (offset + bytes) + ") is out of store bounds " + size);
+	}
+
+	private void checkAlive() {
+		if(scope != null && !scope.isAlive()) throw new IllegalStateException("Store arena has already been closed");
+	}
+}
@@ -0,0 +1,72 @@
+package systems.intino.datamarts.led.codecs;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class DeflateCodec implements LedCodec {
+
+	public static final int ID = 3;
+	static final DeflateCodec DEFAULT = new DeflateCodec(Deflater.DEFAULT_COMPRESSION);
+
+	private final int level;
+	private final ThreadLocal<Deflater> deflater;
+	private final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(() -> new Inflater(true));
+
+	public DeflateCodec(int level) {
+		this.level = level;
+		this.deflater = ThreadLocal.withInitial(() -> new Deflater(level, true));
+	}
+
+	public int level() {
+		return level;
+	}
+
+	@Override
+	public int id() {
+		return ID;
+	}
+
+	@Override
+	public int maxCompressedLength(int length) {
+		return length + (length >> 12) + (length >> 14) + (length >> 25) + 64;
+	}
+
+	@Override
+	public int compress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset) throws IOException {
+		Deflater deflater = this.deflater.get();
+		try {
+			deflater.setInput(src, srcOffset, length);
+			deflater.finish();
+			int offset = destOffset;
+			while(!deflater.finished()) {
+				if(offset == dest.length) throw new IOException("Deflated block does not fit in " + (dest.length - destOffset) + " bytes");
+				offset += deflater.deflate(dest, offset, dest.length - offset);
+			}
+			return offset - destOffset;
+		} finally {
+			deflater.reset();
+		}
+	}
+
+	@Override
+	public void decompress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset, int uncompressedLength) throws IOException {
+		Inflater inflater = this.inflater.get();
+		try {
+			inflater.setInput(src, srcOffset, length);
+			int offset = destOffset;
+			final int end = destOffset + uncompressedLength;
+			while(offset < end && !inflater.finished()) {
+				final int bytes = inflater.inflate(dest, offset, end - offset);
+				if(bytes == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+				offset += bytes;
+			}
+			if(offset != end) throw new IOException("Corrupted block: expected " + uncompressedLength + " bytes but got " + (offset - destOffset));
+		} catch (DataFormatException e) {
+			throw new IOException(e);
+		} finally {
+			inflater.reset();
+		}
+	}
+}
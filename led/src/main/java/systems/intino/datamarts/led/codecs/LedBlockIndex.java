@@ -0,0 +1,118 @@
+package systems.intino.datamarts.led.codecs;
+
+import systems.intino.datamarts.led.LedHeader;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+public class LedBlockIndex {
+
+	public static final long MAGIC = 0x4C4544424C4B5331L;
+	public static final int END_OF_BLOCKS = -1;
+	public static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+	public static final int TABLE_ENTRY_SIZE = 2 * Long.BYTES;
+	public static final int TRAILER_SIZE = Long.BYTES + 2 * Integer.BYTES + Long.BYTES;
+
+	public static LedBlockIndex read(FileChannel channel) throws IOException {
+		LedHeader header = new LedHeader(readFully(channel, 0, LedHeader.SIZE));
+		if(!header.isBlockFramed()) throw new IOException("Led is not block framed (version " + header.version() + ")");
+		ByteBuffer trailer = readFully(channel, channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+		final long tableOffset = trailer.getLong();
+		final int blockCount = trailer.getInt();
+		final int elementsPerBlock = trailer.getInt();
+		if(trailer.getLong() != MAGIC) throw new IOException("Led block index not found. File may be truncated");
+		ByteBuffer table = readFully(channel, tableOffset, blockCount * TABLE_ENTRY_SIZE);
+		long[] offsets = new long[blockCount + 1];
+		long[] firstIds = new long[blockCount];
+		for(int i = 0;i < blockCount;i++) {
+			offsets[i] = table.getLong();
+			firstIds[i] = table.getLong();
+		}
+		offsets[blockCount] = tableOffset - Integer.BYTES;
+		return new LedBlockIndex(header, offsets, firstIds, elementsPerBlock);
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of led file");
+		}
+		return buffer.clear();
+	}
+
+	private final LedHeader header;
+	private final LedCodec codec;
+	private final long[] offsets;
+	private final long[] firstIds;
+	private final int elementsPerBlock;
+
+	private LedBlockIndex(LedHeader header, long[] offsets, long[] firstIds, int elementsPerBlock) {
+		this.header = header;
+		this.codec = header.codec();
+		this.offsets = offsets;
+		this.firstIds = firstIds;
+		this.elementsPerBlock = elementsPerBlock;
+	}
+
+	public LedHeader header() {
+		return header;
+	}
+
+	public LedCodec codec() {
+		return codec;
+	}
+
+	public long elementCount() {
+		return header.elementCount();
+	}
+
+	public int elementSize() {
+		return (int) header.elementSize();
+	}
+
+	public int elementsPerBlock() {
+		return elementsPerBlock;
+	}
+
+	public int blockCount() {
+		return offsets.length - 1;
+	}
+
+	public long offset(int block) {
+		return offsets[block];
+	}
+
+	public long firstId(int block) {
+		return firstIds[block];
+	}
+
+	public int blockOf(long index) {
+		return (int) (index / elementsPerBlock);
+	}
+
+	public int lastBlockStartingBefore(long id) {
+		int low = 0;
+		int high = firstIds.length - 1;
+		int result = 0;
+		while(low <= high) {
+			final int mid = (low + high) >>> 1;
+			if(firstIds[mid] < id) {
+				result = mid;
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return result;
+	}
+
+	public byte[] readBlock(FileChannel channel, int block) throws IOException {
+		ByteBuffer frame = readFully(channel, offsets[block], (int) (offsets[block + 1] - offsets[block]));
+		final int compressedLength = frame.getInt();
+		final int length = frame.getInt();
+		byte[] bytes = new byte[length];
+		codec.decompress(frame.array(), BLOCK_HEADER_SIZE, compressedLength, bytes, 0, length);
+		return bytes;
+	}
+}
@@ -0,0 +1,69 @@
+package systems.intino.datamarts.led.codecs;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.util.Objects.requireNonNull;
+
+public class LedBlockInputStream extends InputStream {
+
+	private final DataInputStream inputStream;
+	private final LedCodec codec;
+	private byte[] compressedBlock = new byte[0];
+	private byte[] block = new byte[0];
+	private int position;
+	private int limit;
+	private boolean finished;
+
+	public LedBlockInputStream(InputStream inputStream, LedCodec codec) {
+		this.inputStream = new DataInputStream(requireNonNull(inputStream));
+		this.codec = requireNonNull(codec);
+	}
+
+	@Override
+	public int read() throws IOException {
+		if(!nextBlockIfNeeded()) return -1;
+		return block[position++] & 0xFF;
+	}
+
+	@Override
+	public int read(byte[] bytes, int offset, int length) throws IOException {
+		if(length == 0) return 0;
+		if(!nextBlockIfNeeded()) return -1;
+		final int n = Math.min(length, limit - position);
+		System.arraycopy(block, position, bytes, offset, n);
+		position += n;
+		return n;
+	}
+
+	@Override
+	public int available() throws IOException {
+		return nextBlockIfNeeded() ? limit - position : 0;
+	}
+
+	@Override
+	public void close() throws IOException {
+		finished = true;
+		inputStream.close();
+	}
+
+	private boolean nextBlockIfNeeded() throws IOException {
+		while(position == limit) {
+			if(finished) return false;
+			final int compressedLength = inputStream.readInt();
+			if(compressedLength == LedBlockIndex.END_OF_BLOCKS) {
+				finished = true;
+				return false;
+			}
+			final int length = inputStream.readInt();
+			if(compressedBlock.length < compressedLength) compressedBlock = new byte[compressedLength];
+			if(block.length < length) block = new byte[length];
+			inputStream.readFully(compressedBlock, 0, compressedLength);
+			codec.decompress(compressedBlock, 0, compressedLength, block, 0, length);
+			position = 0;
+			limit = length;
+		}
+		return true;
+	}
+}
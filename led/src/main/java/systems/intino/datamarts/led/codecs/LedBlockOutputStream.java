@@ -0,0 +1,112 @@
+package systems.intino.datamarts.led.codecs;
+
+import systems.intino.datamarts.led.GenericSchema;
+import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.buffers.store.VarHandleStore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+import static systems.intino.datamarts.led.LedLibraryConfig.BYTE_ORDER;
+
+public class LedBlockOutputStream extends OutputStream {
+
+	private final DataOutputStream outputStream;
+	private final LedCodec codec;
+	private final int elementsPerBlock;
+	private final byte[] block;
+	private final ByteBuffer blockView;
+	private final byte[] compressedBlock;
+	private final Schema firstElement;
+	private int blockPosition;
+	private long position;
+	private long[] offsets = new long[16];
+	private long[] firstIds = new long[16];
+	private int blockCount;
+	private boolean closed;
+
+	public LedBlockOutputStream(OutputStream outputStream, LedCodec codec, int elementSize, int elementsPerBlock, long position) {
+		this(outputStream, codec, elementSize, elementsPerBlock, position, GenericSchema.FACTORY);
+	}
+
+	public LedBlockOutputStream(OutputStream outputStream, LedCodec codec, int elementSize, int elementsPerBlock, long position, SchemaFactory<?> factory) {
+		if(elementSize <= 0 || elementsPerBlock <= 0) throw new IllegalArgumentException("Element size and elements per block must be > 0");
+		this.outputStream = new DataOutputStream(requireNonNull(outputStream));
+		this.codec = requireNonNull(codec);
+		this.elementsPerBlock = elementsPerBlock;
+		this.block = new byte[Math.multiplyExact(elementSize, elementsPerBlock)];
+		this.blockView = ByteBuffer.wrap(block).order(BYTE_ORDER.get());
+		this.compressedBlock = new byte[codec.maxCompressedLength(block.length)];
+		this.firstElement = factory.newInstance(new VarHandleStore(blockView).slice(0, elementSize));
+		this.position = position;
+	}
+
+	public int blockCount() {
+		return blockCount;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		block[blockPosition++] = (byte) b;
+		if(blockPosition == block.length) writeBlock();
+	}
+
+	@Override
+	public void write(byte[] bytes, int offset, int length) throws IOException {
+		while(length > 0) {
+			final int n = Math.min(length, block.length - blockPosition);
+			System.arraycopy(bytes, offset, block, blockPosition, n);
+			blockPosition += n;
+			offset += n;
+			length -= n;
+			if(blockPosition == block.length) writeBlock();
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		outputStream.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		if(closed) return;
+		closed = true;
+		try {
+			writeBlock();
+			outputStream.writeInt(LedBlockIndex.END_OF_BLOCKS);
+			final long tableOffset = position + Integer.BYTES;
+			for(int i = 0;i < blockCount;i++) {
+				outputStream.writeLong(offsets[i]);
+				outputStream.writeLong(firstIds[i]);
+			}
+			outputStream.writeLong(tableOffset);
+			outputStream.writeInt(blockCount);
+			outputStream.writeInt(elementsPerBlock);
+			outputStream.writeLong(LedBlockIndex.MAGIC);
+		} finally {
+			outputStream.close();
+		}
+	}
+
+	private void writeBlock() throws IOException {
+		if(blockPosition == 0) return;
+		final int compressedLength = codec.compress(block, 0, blockPosition, compressedBlock, 0);
+		if(blockCount == offsets.length) {
+			offsets = Arrays.copyOf(offsets, blockCount * 2);
+			firstIds = Arrays.copyOf(firstIds, blockCount * 2);
+		}
+		offsets[blockCount] = position;
+		firstIds[blockCount++] = blockPosition >= firstElement.size() ? firstElement.id() : 0;
+		outputStream.writeInt(compressedLength);
+		outputStream.writeInt(blockPosition);
+		outputStream.write(compressedBlock, 0, compressedLength);
+		position += LedBlockIndex.BLOCK_HEADER_SIZE + compressedLength;
+		blockPosition = 0;
+	}
+}
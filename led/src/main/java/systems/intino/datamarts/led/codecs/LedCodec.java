@@ -0,0 +1,38 @@
+package systems.intino.datamarts.led.codecs;
+
+import java.io.IOException;
+
+public interface LedCodec {
+
+	static LedCodec uncompressed() {
+		return UncompressedCodec.INSTANCE;
+	}
+
+	static LedCodec snappy() {
+		return SnappyCodec.INSTANCE;
+	}
+
+	static LedCodec deflate() {
+		return DeflateCodec.DEFAULT;
+	}
+
+	static LedCodec deflate(int level) {
+		return new DeflateCodec(level);
+	}
+
+	static LedCodec of(int id) {
+		return LedCodecRegistry.get(id);
+	}
+
+	static void register(LedCodec codec) {
+		LedCodecRegistry.register(codec);
+	}
+
+	int id();
+
+	int maxCompressedLength(int length);
+
+	int compress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset) throws IOException;
+
+	void decompress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset, int uncompressedLength) throws IOException;
+}
@@ -0,0 +1,32 @@
+package systems.intino.datamarts.led.codecs;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+final class LedCodecRegistry {
+
+	static final int MAX_ID = 0xFF;
+
+	private static final Map<Integer, LedCodec> codecs = new ConcurrentHashMap<>();
+
+	static {
+		register(UncompressedCodec.INSTANCE);
+		register(SnappyCodec.INSTANCE);
+		register(DeflateCodec.DEFAULT);
+	}
+
+	private LedCodecRegistry() {}
+
+	static LedCodec get(int id) {
+		LedCodec codec = codecs.get(id);
+		if(codec == null) throw new IllegalArgumentException("Unknown led codec " + id + ". Register it with LedCodec.register before reading");
+		return codec;
+	}
+
+	static void register(LedCodec codec) {
+		if(codec.id() <= 0 || codec.id() > MAX_ID) throw new IllegalArgumentException("Codec id must be in [1, " + MAX_ID + "]");
+		LedCodec previous = codecs.putIfAbsent(codec.id(), codec);
+		if(previous != null && previous.getClass() != codec.getClass())
+			throw new IllegalArgumentException("Codec id " + codec.id() + " is already used by " + previous.getClass().getName());
+	}
+}
@@ -0,0 +1,32 @@
+package systems.intino.datamarts.led.codecs;
+
+import org.xerial.snappy.Snappy;
+
+import java.io.IOException;
+
+public class SnappyCodec implements LedCodec {
+
+	public static final int ID = 2;
+	static final SnappyCodec INSTANCE = new SnappyCodec();
+
+	@Override
+	public int id() {
+		return ID;
+	}
+
+	@Override
+	public int maxCompressedLength(int length) {
+		return Snappy.maxCompressedLength(length);
+	}
+
+	@Override
+	public int compress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset) throws IOException {
+		return Snappy.compress(src, srcOffset, length, dest, destOffset);
+	}
+
+	@Override
+	public void decompress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset, int uncompressedLength) throws IOException {
+		final int bytes = Snappy.uncompress(src, srcOffset, length, dest, destOffset);
+		if(bytes != uncompressedLength) throw new IOException("Corrupted block: expected " + uncompressedLength + " bytes but got " + bytes);
+	}
+}
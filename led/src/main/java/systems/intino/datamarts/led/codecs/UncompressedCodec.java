@@ -0,0 +1,28 @@
+package systems.intino.datamarts.led.codecs;
+
+public class UncompressedCodec implements LedCodec {
+
+	public static final int ID = 1;
+	static final UncompressedCodec INSTANCE = new UncompressedCodec();
+
+	@Override
+	public int id() {
+		return ID;
+	}
+
+	@Override
+	public int maxCompressedLength(int length) {
+		return length;
+	}
+
+	@Override
+	public int compress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset) {
+		System.arraycopy(src, srcOffset, dest, destOffset, length);
+		return length;
+	}
+
+	@Override
+	public void decompress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset, int uncompressedLength) {
+		System.arraycopy(src, srcOffset, dest, destOffset, uncompressedLength);
+	}
+}
@@ -0,0 +1,134 @@
+package systems.intino.datamarts.led.codegen;
+
+import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.SchemaLayout;
+
+import javax.tools.*;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.CodeSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SchemaCompiler {
+
+	private final JavaCompiler compiler;
+	private final GeneratedClassLoader classLoader;
+
+	public SchemaCompiler() {
+		this(Schema.class.getClassLoader());
+	}
+
+	public SchemaCompiler(ClassLoader parent) {
+		this.compiler = ToolProvider.getSystemJavaCompiler();
+		if(compiler == null) throw new IllegalStateException("No java compiler available. Generate the schema sources with SchemaGenerator at build time");
+		this.classLoader = new GeneratedClassLoader(parent);
+	}
+
+	public Class<? extends Schema> compile(SchemaLayout layout, String packageName, String className) {
+		return compile(new SchemaGenerator(layout, packageName, className));
+	}
+
+	public Class<? extends Schema> compile(SchemaGenerator generator) {
+		final String name = generator.qualifiedName();
+		if(classLoader.isDefined(name)) throw new IllegalStateException(name + " has already been compiled by this compiler");
+		StringWriter diagnostics = new StringWriter();
+		try(ClassFileManager fileManager = new ClassFileManager(compiler.getStandardFileManager(null, null, null))) {
+			JavaFileObject source = new SourceFile(name, generator.generate());
+			List<String> options = List.of("-classpath", classpath(), "-proc:none");
+			Boolean success = compiler.getTask(diagnostics, fileManager, null, options, null, List.of(source)).call();
+			if(!Boolean.TRUE.equals(success)) throw new IllegalStateException("Could not compile " + name + ":\n" + diagnostics);
+			classLoader.define(fileManager.classes);
+			return classLoader.loadClass(name).asSubclass(Schema.class);
+		} catch (ClassNotFoundException | IOException e) {
+			throw new IllegalStateException("Could not compile " + name, e);
+		}
+	}
+
+	private static String classpath() {
+		final String classpath = System.getProperty("java.class.path", "");
+		try {
+			CodeSource codeSource = Schema.class.getProtectionDomain().getCodeSource();
+			if(codeSource == null) return classpath;
+			final String location = new File(codeSource.getLocation().toURI()).getPath();
+			return classpath.isEmpty() ? location : location + File.pathSeparator + classpath;
+		} catch (URISyntaxException e) {
+			return classpath;
+		}
+	}
+
+	private static class SourceFile extends SimpleJavaFileObject {
+
+		private final String code;
+
+		SourceFile(String name, String code) {
+			super(URI.create("string:///" + name.replace('.', '/') + Kind.SOURCE.extension), Kind.SOURCE);
+			this.code = code;
+		}
+
+		@Override
+		public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+			return code;
+		}
+	}
+
+	private static class ClassFile extends SimpleJavaFileObject {
+
+		private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		ClassFile(String name) {
+			super(URI.create("bytes:///" + name.replace('.', '/') + Kind.CLASS.extension), Kind.CLASS);
+		}
+
+		@Override
+		public OutputStream openOutputStream() {
+			return bytes;
+		}
+	}
+
+	private static class ClassFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+		private final Map<String, ClassFile> classes = new ConcurrentHashMap<>();
+
+		ClassFileManager(StandardJavaFileManager fileManager) {
+			super(fileManager);
+		}
+
+		@Override
+		public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind, FileObject sibling) {
+			ClassFile file = new ClassFile(className);
+			classes.put(className, file);
+			return file;
+		}
+	}
+
+	private static class GeneratedClassLoader extends ClassLoader {
+
+		private final Map<String, byte[]> classes = new ConcurrentHashMap<>();
+
+		GeneratedClassLoader(ClassLoader parent) {
+			super(parent);
+		}
+
+		boolean isDefined(String name) {
+			return classes.containsKey(name) || findLoadedClass(name) != null;
+		}
+
+		void define(Map<String, ClassFile> files) {
+			files.forEach((name, file) -> classes.put(name, file.bytes.toByteArray()));
+		}
+
+		@Override
+		protected Class<?> findClass(String name) throws ClassNotFoundException {
+			byte[] bytes = classes.remove(name);
+			if(bytes == null) throw new ClassNotFoundException(name);
+			return defineClass(name, bytes, 0, bytes.length);
+		}
+	}
+}
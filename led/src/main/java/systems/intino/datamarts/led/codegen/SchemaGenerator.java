@@ -0,0 +1,194 @@
+package systems.intino.datamarts.led.codegen;
+
+import systems.intino.datamarts.led.SchemaLayout;
+
+import javax.lang.model.SourceVersion;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+public class SchemaGenerator {
+
+	private static final Set<String> RESERVED_NAMES = Set.of(
+			"size", "serialUUID", "hashCode", "equals", "isReadOnly", "isNull", "notNull", "compareTo", "clear",
+			"bitBuffer", "address", "byteSize", "baseOffset", "invalidate", "bitCount", "endOffset",
+			"toBinaryString", "toHexString", "toString", "getClass", "notify", "notifyAll", "wait");
+
+	private final SchemaLayout layout;
+	private final String packageName;
+	private final String className;
+
+	public SchemaGenerator(SchemaLayout layout, String packageName, String className) {
+		this.layout = requireNonNull(layout);
+		this.packageName = requireNonNull(packageName);
+		this.className = requireNonNull(className);
+		if(!SourceVersion.isName(className) || className.contains("."))
+			throw new IllegalArgumentException(className + " is not a valid class name");
+		if(!packageName.isEmpty() && !SourceVersion.isName(packageName))
+			throw new IllegalArgumentException(packageName + " is not a valid package name");
+		validate();
+	}
+
+	public String qualifiedName() {
+		return packageName.isEmpty() ? className : packageName + "." + className;
+	}
+
+	public File writeTo(File sourceDirectory) throws IOException {
+		File directory = packageName.isEmpty() ? sourceDirectory : new File(sourceDirectory, packageName.replace('.', File.separatorChar));
+		directory.mkdirs();
+		File file = new File(directory, className + ".java");
+		Files.writeString(file.toPath(), generate());
+		return file;
+	}
+
+	private void validate() {
+		if(!layout.contains("id")) throw new IllegalArgumentException("Layout " + layout.name() + " has no id field");
+		for(SchemaLayout.Field field : layout.fields()) {
+			if(!SourceVersion.isIdentifier(field.name()) || SourceVersion.isKeyword(field.name()) || RESERVED_NAMES.contains(field.name()))
+				throw new IllegalArgumentException("Field name " + field.name() + " cannot be used as an accessor");
+			Accessor.of(field);
+		}
+		if(!Accessor.of(layout.field("id")).javaType.equals("long"))
+			throw new IllegalArgumentException("Field id of " + layout.name() + " must be a long");
+	}
+
+	public String generate() {
+		StringBuilder code = new StringBuilder();
+		if(!packageName.isEmpty()) code.append("package ").append(packageName).append(";\n\n");
+		code.append("import systems.intino.datamarts.led.Schema;\n")
+				.append("import systems.intino.datamarts.led.SchemaLayout;\n")
+				.append("import systems.intino.datamarts.led.allocators.SchemaFactory;\n")
+				.append("import systems.intino.datamarts.led.buffers.store.ByteStore;\n\n")
+				.append("import java.util.UUID;\n\n")
+				.append("public class ").append(className).append(" extends Schema {\n\n")
+				.append("\tpublic static final int SIZE = ").append(layout.size()).append(";\n")
+				.append("\tpublic static final SchemaLayout LAYOUT = new SchemaLayout(").append(literal(layout.name())).append(", SIZE)");
+		for(SchemaLayout.Field field : layout.fields()) {
+			code.append("\n\t\t\t.add(").append(literal(field.name())).append(", ").append(literal(field.type()))
+					.append(", ").append(field.bitIndex()).append(", ").append(field.bitCount()).append(')');
+		}
+		code.append(";\n")
+				.append("\tpublic static final UUID SERIAL_UUID = LAYOUT.serialUUID();\n")
+				.append("\tpublic static final SchemaFactory<").append(className).append("> FACTORY = new SchemaFactory<>(").append(className).append(".class) {\n")
+				.append("\t\t@Override\n")
+				.append("\t\tpublic ").append(className).append(" newInstance(ByteStore store) {\n")
+				.append("\t\t\treturn new ").append(className).append("(store);\n")
+				.append("\t\t}\n")
+				.append("\t};\n\n")
+				.append("\tpublic ").append(className).append("(ByteStore store) {\n")
+				.append("\t\tsuper(store);\n")
+				.append("\t}\n\n")
+				.append("\t@Override\n")
+				.append("\tpublic int size() {\n")
+				.append("\t\treturn SIZE;\n")
+				.append("\t}\n\n")
+				.append("\t@Override\n")
+				.append("\tpublic UUID serialUUID() {\n")
+				.append("\t\treturn SERIAL_UUID;\n")
+				.append("\t}\n");
+		for(SchemaLayout.Field field : layout.fields()) appendAccessors(code, field);
+		return code.append("}\n").toString();
+	}
+
+	private void appendAccessors(StringBuilder code, SchemaLayout.Field field) {
+		Accessor accessor = Accessor.of(field);
+		code.append('\n');
+		if(field.name().equals("id")) code.append("\t@Override\n");
+		code.append("\tpublic ").append(accessor.javaType).append(' ').append(field.name()).append("() {\n")
+				.append("\t\treturn ").append(accessor.getter(field)).append(";\n")
+				.append("\t}\n\n")
+				.append("\tpublic ").append(className).append(' ').append(field.name()).append('(').append(accessor.javaType).append(" value) {\n")
+				.append("\t\t").append(accessor.setter(field)).append(";\n")
+				.append("\t\treturn this;\n")
+				.append("\t}\n");
+	}
+
+	private static String literal(String value) {
+		StringBuilder literal = new StringBuilder("\"");
+		for(char c : value.toCharArray()) {
+			if(c == '"' || c == '\\') literal.append('\\').append(c);
+			else if(c < 0x20 || c > 0x7E) literal.append(String.format("\\u%04x", (int) c));
+			else literal.append(c);
+		}
+		return literal.append('"').toString();
+	}
+
+	private enum Accessor {
+		BOOLEAN("boolean", "Boolean", 1),
+		BYTE("byte", "Byte", Byte.SIZE),
+		SHORT("short", "Short", Short.SIZE),
+		INTEGER("int", "Integer", Integer.SIZE),
+		LONG("long", "Long", Long.SIZE),
+		REAL32("float", "Real32Bits", Float.SIZE),
+		REAL64("double", "Real64Bits", Double.SIZE);
+
+		private final String javaType;
+		private final String suffix;
+		private final int size;
+
+		Accessor(String javaType, String suffix, int size) {
+			this.javaType = javaType;
+			this.suffix = suffix;
+			this.size = size;
+		}
+
+		static Accessor of(SchemaLayout.Field field) {
+			Accessor accessor = byType(field.type().toLowerCase());
+			if(accessor == null) throw new IllegalArgumentException("Unsupported type " + field.type() + " for field " + field.name());
+			if(field.bitCount() > accessor.size || (accessor.isReal() || accessor == BOOLEAN) && field.bitCount() != accessor.size)
+				throw new IllegalArgumentException("Field " + field.name() + " of type " + field.type() + " cannot have " + field.bitCount() + " bits");
+			return accessor;
+		}
+
+		private static Accessor byType(String type) {
+			switch(type) {
+				case "boolean":
+				case "bool":
+					return BOOLEAN;
+				case "byte":
+					return BYTE;
+				case "short":
+					return SHORT;
+				case "int":
+				case "integer":
+					return INTEGER;
+				case "long":
+					return LONG;
+				case "float":
+				case "real32":
+					return REAL32;
+				case "double":
+				case "real":
+				case "real64":
+					return REAL64;
+				default:
+					return null;
+			}
+		}
+
+		boolean isReal() {
+			return this == REAL32 || this == REAL64;
+		}
+
+		boolean isAligned(SchemaLayout.Field field) {
+			return field.bitCount() == size && field.isAligned();
+		}
+
+		String getter(SchemaLayout.Field field) {
+			if(this == BOOLEAN) return "bitBuffer.getBoolean(" + field.bitIndex() + ")";
+			if(isAligned(field)) return "bitBuffer.getAligned" + suffix + "(" + field.bitIndex() + ")";
+			if(isReal()) return "bitBuffer.get" + suffix + "(" + field.bitIndex() + ")";
+			return "bitBuffer.get" + suffix + "NBits(" + field.bitIndex() + ", " + field.bitCount() + ")";
+		}
+
+		String setter(SchemaLayout.Field field) {
+			if(this == BOOLEAN) return "bitBuffer.setBoolean(" + field.bitIndex() + ", value)";
+			if(isAligned(field)) return "bitBuffer.setAligned" + suffix + "(" + field.bitIndex() + ", value)";
+			if(isReal()) return "bitBuffer.set" + suffix + "(" + field.bitIndex() + ", value)";
+			return "bitBuffer.set" + suffix + "NBits(" + field.bitIndex() + ", " + field.bitCount() + ", value)";
+		}
+	}
+}
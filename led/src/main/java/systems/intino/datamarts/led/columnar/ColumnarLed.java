@@ -0,0 +1,353 @@
+package systems.intino.datamarts.led.columnar;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.*;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.buffers.BigEndianBitBuffer;
+import systems.intino.datamarts.led.buffers.BitBuffer;
+import systems.intino.datamarts.led.buffers.LittleEndianBitBuffer;
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.codecs.LedCodec;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.nio.file.StandardOpenOption.READ;
+import static systems.intino.datamarts.led.LedLibraryConfig.BYTE_ORDER;
+import static systems.intino.datamarts.led.LedLibraryConfig.CHECK_SERIAL_ID;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+public class ColumnarLed implements AutoCloseable {
+
+	public static final long MAGIC = 0x4C4544434F4C5331L;
+	public static final int COLUMN_HEADER_SIZE = 2 * Integer.BYTES;
+	public static final int TRAILER_SIZE = 2 * Long.BYTES;
+
+	public static ColumnarLed open(File file) {
+		FileChannel channel = null;
+		try {
+			channel = FileChannel.open(file.toPath(), READ);
+			LedHeader header = new LedHeader(readFully(channel, 0, LedHeader.SIZE));
+			if(!header.isColumnar()) throw new IllegalArgumentException(file + " is not a columnar led (version " + header.version() + ")");
+			ByteBuffer trailer = readFully(channel, channel.size() - TRAILER_SIZE, TRAILER_SIZE);
+			final long tableOffset = trailer.getLong();
+			if(trailer.getLong() != MAGIC) throw new IOException("Columnar led table not found. File may be truncated");
+			byte[] table = readFully(channel, tableOffset, (int) (channel.size() - TRAILER_SIZE - tableOffset)).array();
+			return new ColumnarLed(channel, header, tableOffset, new DataInputStream(new ByteArrayInputStream(table)));
+		} catch (IOException e) {
+			close(channel);
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			close(channel);
+			throw e;
+		}
+	}
+
+	private static ByteBuffer readFully(FileChannel channel, long position, int size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		while(buffer.hasRemaining()) {
+			if(channel.read(buffer, position + buffer.position()) < 0) throw new IOException("Unexpected end of led file");
+		}
+		return buffer.clear();
+	}
+
+	private static void close(FileChannel channel) {
+		if(channel == null) return;
+		try {
+			channel.close();
+		} catch (IOException e) {
+			Logger.error(e);
+		}
+	}
+
+	private final FileChannel channel;
+	private final LedHeader header;
+	private final LedCodec codec;
+	private final SchemaLayout layout;
+	private final int elementsPerBlock;
+	private final int[] blockRows;
+	private final long[] offsets;
+
+	private ColumnarLed(FileChannel channel, LedHeader header, long tableOffset, DataInputStream table) throws IOException {
+		this.channel = channel;
+		this.header = header;
+		this.codec = header.codec();
+		this.layout = new SchemaLayout(table.readUTF(), (int) header.elementSize());
+		final int fieldCount = table.readInt();
+		for(int i = 0;i < fieldCount;i++) layout.add(table.readUTF(), table.readUTF(), table.readInt(), table.readInt());
+		this.elementsPerBlock = table.readInt();
+		final int blockCount = table.readInt();
+		this.blockRows = new int[blockCount];
+		this.offsets = new long[blockCount * fieldCount + 1];
+		for(int block = 0;block < blockCount;block++) {
+			blockRows[block] = table.readInt();
+			for(int i = 0;i < fieldCount;i++) offsets[block * fieldCount + i] = table.readLong();
+		}
+		offsets[offsets.length - 1] = tableOffset;
+	}
+
+	public LedHeader header() {
+		return header;
+	}
+
+	public SchemaLayout layout() {
+		return layout;
+	}
+
+	public UUID serialUUID() {
+		return header.uuid();
+	}
+
+	public long size() {
+		return header.elementCount();
+	}
+
+	public int elementsPerBlock() {
+		return elementsPerBlock;
+	}
+
+	public int blockCount() {
+		return blockRows.length;
+	}
+
+	public int blockSize(int block) {
+		return blockRows[block];
+	}
+
+	public byte[] readColumn(int block, SchemaLayout.Field field) {
+		final int index = block * layout.fields().size() + field.index();
+		try {
+			ByteBuffer frame = readFully(channel, offsets[index], (int) (offsets[index + 1] - offsets[index]));
+			final int compressedLength = frame.getInt();
+			final int length = frame.getInt();
+			byte[] column = new byte[length];
+			codec.decompress(frame.array(), COLUMN_HEADER_SIZE, compressedLength, column, 0, length);
+			return column;
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public long[] longs(String fieldName) {
+		final SchemaLayout.Field field = layout.field(fieldName);
+		if(field.isReal()) throw new IllegalArgumentException("Field " + fieldName + " is " + field.type() + ". Use doubles instead");
+		long[] values = new long[Math.toIntExact(size())];
+		FieldReader reader = new FieldReader(field);
+		int offset = 0;
+		for(int block = 0;block < blockCount();block++) {
+			reader.readLongs(readColumn(block, field), blockRows[block], values, offset);
+			offset += blockRows[block];
+		}
+		return values;
+	}
+
+	public double[] doubles(String fieldName) {
+		final SchemaLayout.Field field = layout.field(fieldName);
+		double[] values = new double[Math.toIntExact(size())];
+		FieldReader reader = new FieldReader(field);
+		long[] longs = field.isReal() ? null : new long[elementsPerBlock];
+		int offset = 0;
+		for(int block = 0;block < blockCount();block++) {
+			final int rows = blockRows[block];
+			final byte[] column = readColumn(block, field);
+			if(field.isReal()) {
+				reader.readDoubles(column, rows, values, offset);
+			} else {
+				reader.readLongs(column, rows, longs, 0);
+				for(int i = 0;i < rows;i++) values[offset + i] = longs[i];
+			}
+			offset += rows;
+		}
+		return values;
+	}
+
+	public <T extends Schema> LedStream<T> project(Class<T> schemaClass, String... fieldNames) {
+		if(Schema.sizeOf(schemaClass) != layout.size())
+			throw new IllegalArgumentException(schemaClass.getSimpleName() + " size does not match " + layout.name() + " size");
+		if(CHECK_SERIAL_ID.get()) checkSerialUUID(header.uuid(), Schema.getSerialUUID(schemaClass));
+		SchemaLayout.Field[] fields = new SchemaLayout.Field[fieldNames.length];
+		for(int i = 0;i < fields.length;i++) fields[i] = layout.field(fieldNames[i]);
+		return new Projection<>(schemaClass, Schema.factoryOf(schemaClass), fields);
+	}
+
+	private static void checkSerialUUID(UUID srcUUID, UUID dstUUID) {
+		if(srcUUID == null || dstUUID == null) return;
+		if(!Objects.equals(srcUUID, dstUUID)) throw new SchemaSerialUUIDMismatchException(srcUUID, dstUUID);
+	}
+
+	@Override
+	public void close() {
+		close(channel);
+	}
+
+	private class FieldReader {
+
+		private final SchemaLayout.Field field;
+		private ByteBuffer row;
+		private BitBuffer bits;
+
+		FieldReader(SchemaLayout.Field field) {
+			this.field = field;
+		}
+
+		void readLongs(byte[] column, int rows, long[] values, int offset) {
+			if(field.isAligned()) {
+				ByteBuffer buffer = ByteBuffer.wrap(column).order(BYTE_ORDER.get());
+				switch(field.bitCount()) {
+					case Long.SIZE:
+						buffer.asLongBuffer().get(values, offset, rows);
+						return;
+					case Integer.SIZE:
+						for(int i = 0;i < rows;i++) values[offset + i] = buffer.getInt(i * Integer.BYTES);
+						return;
+					case Short.SIZE:
+						for(int i = 0;i < rows;i++) values[offset + i] = buffer.getShort(i * Short.BYTES);
+						return;
+					default:
+						for(int i = 0;i < rows;i++) values[offset + i] = column[i];
+						return;
+				}
+			}
+			for(int i = 0;i < rows;i++) values[offset + i] = bits(column, i).getLongNBits(field.bitIndex(), field.bitCount());
+		}
+
+		void readDoubles(byte[] column, int rows, double[] values, int offset) {
+			if(field.isAligned() && field.bitCount() == Long.SIZE) {
+				ByteBuffer.wrap(column).order(BYTE_ORDER.get()).asDoubleBuffer().get(values, offset, rows);
+			} else if(field.isAligned() && field.bitCount() == Integer.SIZE) {
+				ByteBuffer buffer = ByteBuffer.wrap(column).order(BYTE_ORDER.get());
+				for(int i = 0;i < rows;i++) values[offset + i] = buffer.getFloat(i * Float.BYTES);
+			} else if(field.bitCount() == Long.SIZE) {
+				for(int i = 0;i < rows;i++) values[offset + i] = bits(column, i).getReal64Bits(field.bitIndex());
+			} else if(field.bitCount() == Integer.SIZE) {
+				for(int i = 0;i < rows;i++) values[offset + i] = bits(column, i).getReal32Bits(field.bitIndex());
+			} else {
+				throw new IllegalArgumentException("Real field " + field.name() + " must be 32 or 64 bits");
+			}
+		}
+
+		private BitBuffer bits(byte[] column, int index) {
+			if(row == null) {
+				row = allocBuffer(layout.size());
+				ByteBufferStore store = new ByteBufferStore(row, ModifiableMemoryAddress.of(row), 0, layout.size());
+				bits = store.order() == LITTLE_ENDIAN ? new LittleEndianBitBuffer(store) : new BigEndianBitBuffer(store);
+			}
+			memcpy(column, (long) index * field.byteLength(), row, field.byteOffset(), field.byteLength());
+			return bits;
+		}
+	}
+
+	private class Projection<T extends Schema> implements LedStream<T> {
+
+		private final Class<T> schemaClass;
+		private final SchemaFactory<T> factory;
+		private final SchemaLayout.Field[] fields;
+		private final int schemaSize;
+		private ByteBufferStore store;
+		private int block = -1;
+		private int row;
+		private int rowCount;
+		private Runnable onClose;
+
+		Projection(Class<T> schemaClass, SchemaFactory<T> factory, SchemaLayout.Field[] fields) {
+			this.schemaClass = schemaClass;
+			this.factory = factory;
+			this.fields = fields;
+			this.schemaSize = layout.size();
+		}
+
+		@Override
+		public Class<T> schemaClass() {
+			return schemaClass;
+		}
+
+		@Override
+		public int schemaSize() {
+			return schemaSize;
+		}
+
+		@Override
+		public UUID serialUUID() {
+			return header.uuid();
+		}
+
+		@Override
+		public boolean hasNext() {
+			while(row == rowCount) {
+				if(block + 1 >= blockCount()) return false;
+				loadBlock(++block, allocBuffer((long) elementsPerBlock * schemaSize));
+			}
+			return true;
+		}
+
+		@Override
+		public T next() {
+			if(!hasNext()) throw new NoSuchElementException();
+			return factory.newInstance(store.slice((long) row++ * schemaSize, schemaSize));
+		}
+
+		@Override
+		public void forEachCursor(Consumer<T> consumer) {
+			while(row < rowCount) consumer.accept(next());
+			LedCursor<T> cursor = new LedCursor<>(factory, schemaSize);
+			ByteBuffer buffer = allocBuffer((long) elementsPerBlock * schemaSize);
+			while(block + 1 < blockCount()) {
+				loadBlock(++block, buffer);
+				cursor.reset(buffer);
+				while(row < rowCount) consumer.accept(cursor.moveTo(row++));
+			}
+		}
+
+		private void loadBlock(int block, ByteBuffer rows) {
+			this.store = new ByteBufferStore(rows, ModifiableMemoryAddress.of(rows), 0, rows.capacity());
+			final long address = addressOf(rows);
+			rowCount = blockRows[block];
+			row = 0;
+			for(SchemaLayout.Field field : fields) scatter(readColumn(block, field), field, address);
+		}
+
+		private void scatter(byte[] column, SchemaLayout.Field field, long address) {
+			final int length = field.byteLength();
+			final long offset = field.byteOffset();
+			ByteBuffer values = ByteBuffer.wrap(column).order(ByteOrder.nativeOrder());
+			switch(length) {
+				case Long.BYTES:
+					for(int i = 0;i < rowCount;i++) setLong(address, (long) i * schemaSize + offset, values.getLong(i * Long.BYTES));
+					break;
+				case Integer.BYTES:
+					for(int i = 0;i < rowCount;i++) setInt(address, (long) i * schemaSize + offset, values.getInt(i * Integer.BYTES));
+					break;
+				case Short.BYTES:
+					for(int i = 0;i < rowCount;i++) setShort(address, (long) i * schemaSize + offset, values.getShort(i * Short.BYTES));
+					break;
+				case Byte.BYTES:
+					for(int i = 0;i < rowCount;i++) setByte(address, (long) i * schemaSize + offset, column[i]);
+					break;
+				default:
+					for(int i = 0;i < rowCount;i++) memcpy(column, (long) i * length, address, (long) i * schemaSize + offset, length);
+			}
+		}
+
+		@Override
+		public LedStream<T> onClose(Runnable onClose) {
+			this.onClose = onClose;
+			return this;
+		}
+
+		@Override
+		public void close() {
+			if(onClose != null) onClose.run();
+			onClose = null;
+		}
+	}
+}
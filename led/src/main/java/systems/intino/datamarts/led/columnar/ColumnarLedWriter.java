@@ -0,0 +1,186 @@
+package systems.intino.datamarts.led.columnar;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.*;
+import systems.intino.datamarts.led.codecs.LedCodec;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static java.util.Objects.requireNonNull;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.memcpy;
+
+public class ColumnarLedWriter {
+
+	public static final int DEFAULT_ELEMENTS_PER_BLOCK = 65_536;
+
+	private final File destinationFile;
+	private final SchemaLayout layout;
+	private LedCodec codec = LedCodec.snappy();
+	private int elementsPerBlock = DEFAULT_ELEMENTS_PER_BLOCK;
+
+	public ColumnarLedWriter(File destinationFile) {
+		this(destinationFile, null);
+	}
+
+	public ColumnarLedWriter(File destinationFile, SchemaLayout layout) {
+		this.destinationFile = requireNonNull(destinationFile);
+		this.layout = layout;
+		File parent = destinationFile.getAbsoluteFile().getParentFile();
+		if(parent != null) parent.mkdirs();
+	}
+
+	public LedCodec codec() {
+		return codec;
+	}
+
+	public ColumnarLedWriter codec(LedCodec codec) {
+		this.codec = requireNonNull(codec);
+		return this;
+	}
+
+	public int elementsPerBlock() {
+		return elementsPerBlock;
+	}
+
+	public ColumnarLedWriter elementsPerBlock(int elementsPerBlock) {
+		if(elementsPerBlock <= 0) throw new IllegalArgumentException("Elements per block must be > 0");
+		this.elementsPerBlock = elementsPerBlock;
+		return this;
+	}
+
+	public <T extends Schema> void write(LedStream<T> ledStream) {
+		final SchemaLayout layout = layoutOf(ledStream);
+		try(ColumnWriter writer = new ColumnWriter(layout)) {
+			ledStream.forEachCursor(writer::accept);
+			writer.finish(ledStream.serialUUID());
+			ledStream.close();
+		} catch (Exception e) {
+			Logger.error(e);
+		}
+	}
+
+	private SchemaLayout layoutOf(LedStream<?> ledStream) {
+		SchemaLayout layout = this.layout != null ? this.layout : Schema.layoutOf(ledStream.schemaClass());
+		if(layout == null)
+			throw new IllegalArgumentException("No layout defined for " + ledStream.schemaClass().getSimpleName());
+		if(layout.size() != ledStream.schemaSize())
+			throw new IllegalArgumentException("Layout " + layout.name() + " is " + layout.size() + " bytes, but schemas are " + ledStream.schemaSize());
+		if(layout.fields().isEmpty()) throw new IllegalArgumentException("Layout " + layout.name() + " has no fields");
+		return layout;
+	}
+
+	private class ColumnWriter implements Closeable {
+
+		private final SchemaLayout layout;
+		private final List<SchemaLayout.Field> fields;
+		private final int schemaSize;
+		private final byte[] rows;
+		private final byte[] column;
+		private final byte[] compressedColumn;
+		private final DataOutputStream outputStream;
+		private long position;
+		private int rowCount;
+		private long elementCount;
+		private int[] blockRows = new int[16];
+		private long[] offsets;
+		private int blockCount;
+
+		ColumnWriter(SchemaLayout layout) throws IOException {
+			this.layout = layout;
+			this.fields = layout.fields();
+			this.schemaSize = layout.size();
+			this.rows = new byte[Math.multiplyExact(elementsPerBlock, schemaSize)];
+			this.column = new byte[Math.multiplyExact(elementsPerBlock, maxFieldLength())];
+			this.compressedColumn = new byte[codec.maxCompressedLength(column.length)];
+			this.offsets = new long[blockRows.length * fields.size()];
+			this.outputStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(destinationFile)));
+			outputStream.write(new byte[LedHeader.SIZE]);
+			this.position = LedHeader.SIZE;
+		}
+
+		private int maxFieldLength() {
+			return fields.stream().mapToInt(SchemaLayout.Field::byteLength).max().orElse(0);
+		}
+
+		void accept(Schema schema) {
+			memcpy(schema.address(), schema.baseOffset(), rows, (long) rowCount * schemaSize, schemaSize);
+			++elementCount;
+			if(++rowCount == elementsPerBlock) writeBlock();
+		}
+
+		private void writeBlock() {
+			if(rowCount == 0) return;
+			ensureBlockCapacity();
+			try {
+				for(SchemaLayout.Field field : fields) {
+					offsets[blockCount * fields.size() + field.index()] = position;
+					writeColumn(field);
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			blockRows[blockCount++] = rowCount;
+			rowCount = 0;
+		}
+
+		private void writeColumn(SchemaLayout.Field field) throws IOException {
+			final int offset = field.byteOffset();
+			final int length = field.byteLength();
+			for(int i = 0;i < rowCount;i++) System.arraycopy(rows, i * schemaSize + offset, column, i * length, length);
+			final int size = rowCount * length;
+			final int compressedSize = codec.compress(column, 0, size, compressedColumn, 0);
+			outputStream.writeInt(compressedSize);
+			outputStream.writeInt(size);
+			outputStream.write(compressedColumn, 0, compressedSize);
+			position += ColumnarLed.COLUMN_HEADER_SIZE + compressedSize;
+		}
+
+		private void ensureBlockCapacity() {
+			if(blockCount < blockRows.length) return;
+			blockRows = Arrays.copyOf(blockRows, blockRows.length * 2);
+			offsets = Arrays.copyOf(offsets, blockRows.length * fields.size());
+		}
+
+		void finish(UUID serialUUID) throws IOException {
+			writeBlock();
+			final long tableOffset = position;
+			outputStream.writeUTF(layout.name());
+			outputStream.writeInt(fields.size());
+			for(SchemaLayout.Field field : fields) {
+				outputStream.writeUTF(field.name());
+				outputStream.writeUTF(field.type());
+				outputStream.writeInt(field.bitIndex());
+				outputStream.writeInt(field.bitCount());
+			}
+			outputStream.writeInt(elementsPerBlock);
+			outputStream.writeInt(blockCount);
+			for(int block = 0;block < blockCount;block++) {
+				outputStream.writeInt(blockRows[block]);
+				for(int i = 0;i < fields.size();i++) outputStream.writeLong(offsets[block * fields.size() + i]);
+			}
+			outputStream.writeLong(tableOffset);
+			outputStream.writeLong(ColumnarLed.MAGIC);
+			outputStream.close();
+			writeHeader(serialUUID);
+		}
+
+		private void writeHeader(UUID serialUUID) throws IOException {
+			LedHeader header = new LedHeader()
+					.elementCount(elementCount)
+					.elementSize(schemaSize)
+					.uuid(serialUUID)
+					.columnar(codec);
+			try(RandomAccessFile file = new RandomAccessFile(destinationFile, "rw")) {
+				LedHeader.write(header, file);
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			outputStream.close();
+		}
+	}
+}
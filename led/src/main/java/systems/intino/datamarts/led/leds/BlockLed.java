@@ -0,0 +1,266 @@
+package systems.intino.datamarts.led.leds;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.Led;
+import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.SchemaSerialUUIDMismatchException;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.buffers.store.ByteStore;
+import systems.intino.datamarts.led.codecs.LedBlockIndex;
+import systems.intino.datamarts.led.util.iterators.LedSpliterator;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static systems.intino.datamarts.led.LedLibraryConfig.CHECK_SERIAL_ID;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.memcpy;
+
+public class BlockLed<T extends Schema> implements Led<T>, AutoCloseable {
+
+	public static final int DEFAULT_CACHE_SIZE = 64;
+
+	private final FileChannel channel;
+	private final LedBlockIndex index;
+	private final SchemaFactory<T> factory;
+	private final Map<Integer, ByteStore> cache;
+
+	public BlockLed(File file, Class<T> schemaClass) {
+		this(file, schemaClass, DEFAULT_CACHE_SIZE);
+	}
+
+	public BlockLed(File file, Class<T> schemaClass, int cacheSize) {
+		this.factory = Schema.factoryOf(schemaClass);
+		this.channel = open(file);
+		this.index = readIndex(file);
+		this.cache = lruCache(Math.max(1, cacheSize));
+		if(CHECK_SERIAL_ID.get()) checkSerialUUID(index.header().uuid(), Schema.getSerialUUID(schemaClass));
+	}
+
+	private FileChannel open(File file) {
+		try {
+			return FileChannel.open(file.toPath(), READ);
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private LedBlockIndex readIndex(File file) {
+		try {
+			return LedBlockIndex.read(channel);
+		} catch (IOException e) {
+			closeChannel();
+			Logger.error("Failed to read block index of " + file, e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static Map<Integer, ByteStore> lruCache(int cacheSize) {
+		return new LinkedHashMap<>(cacheSize * 2, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, ByteStore> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	@Override
+	public long size() {
+		return index.elementCount();
+	}
+
+	@Override
+	public int schemaSize() {
+		return index.elementSize();
+	}
+
+	@Override
+	public Class<T> schemaClass() {
+		return factory.schemaClass();
+	}
+
+	@Override
+	public UUID serialUUID() {
+		return index.header().uuid();
+	}
+
+	public int blockCount() {
+		return index.blockCount();
+	}
+
+	public int elementsPerBlock() {
+		return index.elementsPerBlock();
+	}
+
+	@Override
+	public T schema(int index) {
+		return schema((long) index);
+	}
+
+	public T schema(long index) {
+		if(index < 0 || index >= size()) throw new IndexOutOfBoundsException("Index " + index + " out of [0, " + size() + ")");
+		final int block = this.index.blockOf(index);
+		final long offset = (index - (long) block * this.index.elementsPerBlock()) * schemaSize();
+		return factory.newInstance(block(block).slice(offset, schemaSize()));
+	}
+
+	@Override
+	public Spliterator<T> spliterator() {
+		return new BlockSpliterator(0, size());
+	}
+
+	public T findById(long id) {
+		final long index = indexOf(id);
+		return index < 0 ? null : schema(index);
+	}
+
+	public long indexOf(long id) {
+		if(size() == 0) return -1;
+		final int block = index.lastBlockStartingBefore(id);
+		long low = (long) block * index.elementsPerBlock();
+		long high = Math.min(size(), low + 2L * index.elementsPerBlock()) - 1;
+		while(low <= high) {
+			final long mid = (low + high) >>> 1;
+			if(schema(mid).id() < id) low = mid + 1;
+			else high = mid - 1;
+		}
+		return low < size() && schema(low).id() == id ? low : -1;
+	}
+
+	public void clearCache() {
+		synchronized(cache) {
+			cache.clear();
+		}
+	}
+
+	private ByteStore block(int block) {
+		synchronized(cache) {
+			ByteStore store = cache.get(block);
+			if(store != null) return store;
+		}
+		ByteStore store = readBlock(block);
+		synchronized(cache) {
+			ByteStore existing = cache.putIfAbsent(block, store);
+			return existing != null ? existing : store;
+		}
+	}
+
+	private ByteStore readBlock(int block) {
+		try {
+			byte[] bytes = index.readBlock(channel, block);
+			ByteBuffer buffer = allocBuffer(bytes.length);
+			memcpy(bytes, 0, buffer, 0, bytes.length);
+			return new ByteBufferStore(buffer, ModifiableMemoryAddress.of(buffer), 0, bytes.length);
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private void checkSerialUUID(UUID srcUUID, UUID dstUUID) {
+		if(srcUUID == null || dstUUID == null) return;
+		if(!Objects.equals(srcUUID, dstUUID)) {
+			closeChannel();
+			throw new SchemaSerialUUIDMismatchException(srcUUID, dstUUID);
+		}
+	}
+
+	private void closeChannel() {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			Logger.error(e);
+		}
+	}
+
+	@Override
+	public void close() {
+		clearCache();
+		closeChannel();
+	}
+
+	private class BlockSpliterator implements Spliterator<T> {
+
+		private long index;
+		private final long end;
+		private int currentBlock = -1;
+		private ByteStore currentStore;
+
+		BlockSpliterator(long from, long to) {
+			this.index = from;
+			this.end = to;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if(index >= end) return false;
+			action.accept(schemaAt(index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			final long end = this.end;
+			for(long i = index;i < end;i++) action.accept(schemaAt(i));
+			index = end;
+		}
+
+		private T schemaAt(long i) {
+			final int elementsPerBlock = BlockLed.this.index.elementsPerBlock();
+			final int block = BlockLed.this.index.blockOf(i);
+			if(block != currentBlock) {
+				currentStore = block(block);
+				currentBlock = block;
+			}
+			return factory.newInstance(currentStore.slice((i - (long) block * elementsPerBlock) * schemaSize(), schemaSize()));
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			final long granularity = BlockLed.this.index.elementsPerBlock();
+			final long remaining = end - index;
+			if(remaining < 2 * granularity) return null;
+			long middle = index + remaining / 2;
+			middle -= middle % granularity;
+			if(middle <= index) middle = index + granularity;
+			if(middle >= end) return null;
+			Spliterator<T> prefix = new BlockSpliterator(index, middle);
+			index = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - index;
+		}
+
+		@Override
+		public long getExactSizeIfKnown() {
+			return end - index;
+		}
+
+		@Override
+		public int characteristics() {
+			return LedSpliterator.CHARACTERISTICS;
+		}
+
+		@Override
+		public Comparator<? super T> getComparator() {
+			return null;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package systems.intino.datamarts.led.leds;
 
 import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.LedCursor;
 import systems.intino.datamarts.led.LedStream;
 import systems.intino.datamarts.led.Schema;
 import systems.intino.datamarts.led.allocators.SchemaFactory;
@@ -13,15 +14,16 @@ import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.util.Iterator;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.nio.file.StandardOpenOption.READ;
 import static systems.intino.datamarts.led.LedLibraryConfig.DEFAULT_BUFFER_SIZE;
-import static systems.intino.datamarts.led.LedLibraryConfig.INPUT_LEDSTREAM_CONCURRENCY_ENABLED;
 import static systems.intino.datamarts.led.Schema.factoryOf;
 import static systems.intino.datamarts.led.Schema.sizeOf;
 import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.free;
 
 public class ByteChannelLedStream<T extends Schema> implements LedStream<T> {
 
@@ -33,6 +35,7 @@ public class ByteChannelLedStream<T extends Schema> implements LedStream<T> {
     private final Iterator<T> iterator;
     private Runnable onClose;
     private final AtomicBoolean closed;
+    private boolean started;
 
     public ByteChannelLedStream(File file, Class<T> schemaClass) {
         this(file, factoryOf(schemaClass), sizeOf(schemaClass), DEFAULT_BUFFER_SIZE.get());
@@ -82,14 +85,42 @@ public class ByteChannelLedStream<T extends Schema> implements LedStream<T> {
 
     @Override
     public boolean hasNext() {
+        started = true;
         return iterator.hasNext();
     }
 
     @Override
     public T next() {
+        started = true;
         return iterator.next();
     }
 
+    @Override
+    public void forEachCursor(Consumer<T> consumer) {
+        if (started) {
+            forEach(consumer);
+            return;
+        }
+        started = true;
+        final LedCursor<T> cursor = new LedCursor<>(factory, schemaSize);
+        final ByteBuffer buffer = allocBuffer((long) bufferSize * schemaSize);
+        try {
+            cursor.reset(buffer);
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                buffer.clear();
+                while (buffer.hasRemaining() && !endOfFile) endOfFile = byteChannel.read(buffer) < 0;
+                final int count = buffer.position() / schemaSize;
+                for (int i = 0; i < count; i++) consumer.accept(cursor.moveTo(i));
+            }
+        } catch (IOException e) {
+            Logger.error(e);
+        } finally {
+            free(buffer);
+            closeByteChannel(byteChannel);
+        }
+    }
+
     @Override
     public LedStream<T> onClose(Runnable onClose) {
         this.onClose = onClose;
@@ -128,11 +159,7 @@ public class ByteChannelLedStream<T extends Schema> implements LedStream<T> {
 
     private Stream<T> allocateAll(ByteBuffer buffer) {
         StackAllocator<T> allocator = StackAllocators.managedStackAllocatorFromBuffer(schemaSize, buffer, schemaClass());
-        IntStream intStream = IntStream.range(0, buffer.remaining() / schemaSize);
-        if(INPUT_LEDSTREAM_CONCURRENCY_ENABLED.get()) {
-            intStream = intStream.sorted().parallel();
-        }
-        return intStream.mapToObj(index -> allocator.malloc());
+        return IntStream.range(0, buffer.remaining() / schemaSize).mapToObj(index -> allocator.malloc());
     }
 
     private synchronized ByteBuffer read(FileChannel byteChannel) {
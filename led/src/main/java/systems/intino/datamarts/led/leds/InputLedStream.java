@@ -1,6 +1,7 @@
 package systems.intino.datamarts.led.leds;
 
 import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.LedCursor;
 import systems.intino.datamarts.led.LedLibraryConfig;
 import systems.intino.datamarts.led.LedStream;
 import systems.intino.datamarts.led.Schema;
@@ -8,30 +9,43 @@ import systems.intino.datamarts.led.allocators.SchemaFactory;
 import systems.intino.datamarts.led.allocators.stack.StackAllocator;
 import systems.intino.datamarts.led.allocators.stack.StackAllocators;
 
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.buffers.store.ByteStore;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.ref.Cleaner;
 import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
-import static systems.intino.datamarts.led.LedLibraryConfig.INPUT_LEDSTREAM_CONCURRENCY_ENABLED;
-import static systems.intino.datamarts.led.util.memory.MemoryUtils.allocBuffer;
+import static systems.intino.datamarts.led.LedLibraryConfig.INPUT_LEDSTREAM_READ_AHEAD;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
 
 public class InputLedStream<T extends Schema> implements LedStream<T> {
 
     private static final int DEFAULT_BUFFER_SIZE = LedLibraryConfig.DEFAULT_BUFFER_SIZE.get();
+    private static final int DEFAULT_READ_AHEAD_BATCHES = 2;
+    private static final Cleaner CLEANER = Cleaner.create();
 
     private final InputStream inputStream;
     private final int bufferSize;
     private final int schemaSize;
     private final SchemaFactory<T> factory;
-    private final Iterator<T> iterator;
+    private Iterator<T> iterator;
     private Runnable onClose;
     private final AtomicBoolean closed;
-    private boolean concurrencyEnabled = INPUT_LEDSTREAM_CONCURRENCY_ENABLED.get();
+    private int readAheadBatches = INPUT_LEDSTREAM_READ_AHEAD.get() ? DEFAULT_READ_AHEAD_BATCHES : 0;
+    private ReadAheadIterator readAheadIterator;
 
     public InputLedStream(InputStream inputStream, SchemaFactory<T> factory, int schemaSize, int bufferSize) {
         this.inputStream = requireNonNull(inputStream);
@@ -39,7 +53,6 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
         this.factory = factory;
         this.bufferSize = assertIsPositive(bufferSize);
         this.closed = new AtomicBoolean();
-        this.iterator = stream().iterator();
     }
 
     private int assertIsPositive(int size) {
@@ -51,23 +64,53 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
         return bufferSize;
     }
 
+    public boolean readAhead() {
+        return readAheadBatches > 0;
+    }
+
+    public int readAheadBatches() {
+        return readAheadBatches;
+    }
+
+    public InputLedStream<T> readAhead(boolean readAhead) {
+        return readAheadBatches(readAhead ? DEFAULT_READ_AHEAD_BATCHES : 0);
+    }
+
+    public InputLedStream<T> readAheadBatches(int readAheadBatches) {
+        if(iterator != null) throw new IllegalStateException("Read ahead must be configured before iterating");
+        this.readAheadBatches = Math.max(0, readAheadBatches);
+        return this;
+    }
+
+    @Deprecated
     public boolean concurrencyEnabled() {
-        return this.concurrencyEnabled;
+        return readAhead();
     }
 
+    @Deprecated
     public InputLedStream<T> concurrencyEnabled(boolean concurrencyEnabled) {
-        this.concurrencyEnabled = concurrencyEnabled;
-        return this;
+        return readAhead(concurrencyEnabled);
     }
 
     @Override
     public boolean hasNext() {
-        return iterator.hasNext();
+        return iterator().hasNext();
     }
 
     @Override
     public T next() {
-        return iterator.next();
+        return iterator().next();
+    }
+
+    private synchronized Iterator<T> iterator() {
+        if(iterator == null) {
+            if(readAheadBatches > 0) {
+                iterator = readAheadIterator = new ReadAheadIterator(readAheadBatches);
+            } else {
+                iterator = stream().iterator();
+            }
+        }
+        return iterator;
     }
 
     @Override
@@ -108,10 +151,7 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
 
     private Stream<T> allocateAll(ByteBuffer buffer) {
         StackAllocator<T> allocator = StackAllocators.managedStackAllocatorFromBuffer(schemaSize, buffer, factory.schemaClass());
-        IntStream intStream = IntStream.range(0, buffer.remaining() / schemaSize);
-        if(concurrencyEnabled)
-            intStream = intStream.sorted().parallel();
-        return intStream.mapToObj(index -> allocator.malloc());
+        return IntStream.range(0, buffer.remaining() / schemaSize).mapToObj(index -> allocator.malloc());
     }
 
     private synchronized ByteBuffer read(InputStream inputStream) {
@@ -131,6 +171,57 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
         return null;
     }
 
+    @Override
+    public void forEachCursor(Consumer<T> consumer) {
+        final boolean started;
+        synchronized (this) {
+            started = iterator != null;
+            if (!started && readAheadBatches == 0) iterator = Collections.emptyIterator();
+        }
+        if (readAheadBatches > 0) {
+            iterator();
+            readAheadIterator.forEachCursor(new LedCursor<>(factory, schemaSize), consumer);
+        } else if (started) {
+            forEach(consumer);
+        } else {
+            readWithCursor(consumer);
+        }
+    }
+
+    private void readWithCursor(Consumer<T> consumer) {
+        final LedCursor<T> cursor = new LedCursor<>(factory, schemaSize);
+        final byte[] inputBuffer = new byte[bufferSize * schemaSize];
+        final ByteBuffer buffer = allocBuffer(inputBuffer.length);
+        try {
+            cursor.reset(buffer);
+            int bytesRead;
+            while ((bytesRead = readBatch(inputBuffer)) > 0) {
+                memcpy(inputBuffer, 0, buffer, 0, bytesRead);
+                final int count = bytesRead / schemaSize;
+                for (int i = 0; i < count; i++) consumer.accept(cursor.moveTo(i));
+            }
+        } catch (IOException e) {
+            Logger.error(e);
+        } finally {
+            free(buffer);
+            closeInputStream(inputStream);
+        }
+    }
+
+    private int readBatch(byte[] inputBuffer) throws IOException {
+        return readBatch(inputStream, inputBuffer, schemaSize);
+    }
+
+    private static int readBatch(InputStream inputStream, byte[] inputBuffer, int schemaSize) throws IOException {
+        int offset = 0;
+        while (offset < inputBuffer.length) {
+            final int bytesRead = inputStream.read(inputBuffer, offset, inputBuffer.length - offset);
+            if (bytesRead < 0) break;
+            offset += bytesRead;
+        }
+        return offset - offset % schemaSize;
+    }
+
     @Override
     public void close() throws Exception {
         if (closed.get()) {
@@ -140,10 +231,137 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
             onClose.run();
             onClose = null;
         }
+        if (readAheadIterator != null) readAheadIterator.stop();
         inputStream.close();
         closed.set(true);
     }
 
+    private final class ReadAheadIterator implements Iterator<T> {
+
+        private final ReadAhead readAhead;
+        private final Cleaner.Cleanable cleanable;
+        private ByteBuffer previous;
+        private ByteBuffer current;
+        private boolean previousHandedOut;
+        private boolean currentHandedOut;
+        private ByteStore store;
+        private int index;
+        private int count;
+
+        ReadAheadIterator(int batches) {
+            readAhead = new ReadAhead(inputStream, schemaSize, bufferSize, batches);
+            cleanable = CLEANER.register(this, readAhead::stop);
+            readAhead.start();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < count) return true;
+            if (current == readAhead.endOfStream) return false;
+            return nextBatch();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            currentHandedOut = true;
+            return factory.newInstance(store.slice((long) index++ * schemaSize, schemaSize));
+        }
+
+        private boolean nextBatch() {
+            try {
+                ByteBuffer next = readAhead.filled.take();
+                if (previous != null) readAhead.free.add(previousHandedOut ? allocBuffer(previous.capacity()) : previous);
+                previous = current;
+                previousHandedOut = currentHandedOut;
+                currentHandedOut = false;
+                index = 0;
+                if (next == readAhead.endOfStream || readAhead.stopped) {
+                    current = readAhead.endOfStream;
+                    count = 0;
+                    return false;
+                }
+                current = next;
+                count = next.limit() / schemaSize;
+                store = new ByteBufferStore(next, ModifiableMemoryAddress.of(next), 0, next.limit());
+                return count > 0;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        void forEachCursor(LedCursor<T> cursor, Consumer<T> consumer) {
+            while (hasNext()) {
+                cursor.reset(current);
+                for (; index < count; index++) consumer.accept(cursor.moveTo(index));
+            }
+        }
+
+        void stop() {
+            cleanable.clean();
+            current = readAhead.endOfStream;
+            index = count = 0;
+        }
+    }
+
+    // Holds no reference to the iterator, so an abandoned iterator can be collected and its cleaner stops the reader
+    private static final class ReadAhead implements Runnable {
+
+        private final ByteBuffer endOfStream = ByteBuffer.allocate(0);
+        private final BlockingQueue<ByteBuffer> filled;
+        private final BlockingQueue<ByteBuffer> free;
+        private final InputStream inputStream;
+        private final int schemaSize;
+        private final int bufferSize;
+        private volatile boolean stopped;
+        private Thread reader;
+
+        ReadAhead(InputStream inputStream, int schemaSize, int bufferSize, int batches) {
+            this.inputStream = inputStream;
+            this.schemaSize = schemaSize;
+            this.bufferSize = bufferSize;
+            free = new ArrayBlockingQueue<>(batches + 2);
+            filled = new ArrayBlockingQueue<>(batches + 4);
+            for (int i = 0; i < batches + 2; i++) free.add(allocBuffer((long) bufferSize * schemaSize));
+        }
+
+        void start() {
+            reader = Thread.ofVirtual().name("InputLedStream-read-ahead").start(this);
+        }
+
+        @Override
+        public void run() {
+            final byte[] inputBuffer = new byte[bufferSize * schemaSize];
+            try {
+                while (!stopped) {
+                    final int bytesRead = readBatch(inputStream, inputBuffer, schemaSize);
+                    if (bytesRead <= 0) break;
+                    ByteBuffer buffer = free.take();
+                    memcpy(inputBuffer, 0, buffer, 0, bytesRead);
+                    buffer.clear().limit(bytesRead);
+                    filled.put(buffer);
+                }
+            } catch (InterruptedException ignored) {
+            } catch (Exception e) {
+                if (!stopped) Logger.error(e);
+            } finally {
+                filled.offer(endOfStream);
+                try {
+                    inputStream.close();
+                } catch (IOException e) {
+                    Logger.error(e);
+                }
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            reader.interrupt();
+            filled.offer(endOfStream);
+        }
+    }
+
     public static class Builder<T extends Schema> {
 
         private InputStream inputStream;
@@ -151,7 +369,7 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
         private int schemaSize = -1;
         private SchemaFactory<?> factory;
         private Runnable onClose;
-        private boolean concurrencyEnabled = INPUT_LEDSTREAM_CONCURRENCY_ENABLED.get();
+        private int readAheadBatches = INPUT_LEDSTREAM_READ_AHEAD.get() ? DEFAULT_READ_AHEAD_BATCHES : 0;
 
         public Builder<T> inputStream(InputStream inputStream) {
             this.inputStream = inputStream;
@@ -178,15 +396,24 @@ public class InputLedStream<T extends Schema> implements LedStream<T> {
             return this;
         }
 
-        public Builder<T> concurrencyEnabled(boolean concurrencyEnabled) {
-            this.concurrencyEnabled = concurrencyEnabled;
+        public Builder<T> readAhead(boolean readAhead) {
+            return readAheadBatches(readAhead ? DEFAULT_READ_AHEAD_BATCHES : 0);
+        }
+
+        public Builder<T> readAheadBatches(int readAheadBatches) {
+            this.readAheadBatches = readAheadBatches;
             return this;
         }
 
+        @Deprecated
+        public Builder<T> concurrencyEnabled(boolean concurrencyEnabled) {
+            return readAhead(concurrencyEnabled);
+        }
+
         @SuppressWarnings("unchecked")
         public InputLedStream<T> build() {
             return (InputLedStream<T>) new InputLedStream<>(inputStream, factory, schemaSize, bufferSize)
-                    .concurrencyEnabled(concurrencyEnabled)
+                    .readAheadBatches(readAheadBatches)
                     .onClose(onClose);
         }
     }
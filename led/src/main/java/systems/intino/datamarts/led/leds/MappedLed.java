@@ -0,0 +1,216 @@
+package systems.intino.datamarts.led.leds;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.led.Led;
+import systems.intino.datamarts.led.LedCursor;
+import systems.intino.datamarts.led.LedHeader;
+import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.SchemaSerialUUIDMismatchException;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
+import systems.intino.datamarts.led.buffers.store.ByteStore;
+import systems.intino.datamarts.led.buffers.store.NativePointerStore;
+import systems.intino.datamarts.led.util.iterators.LedSpliterator;
+import systems.intino.datamarts.led.util.memory.MemoryAddress;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.UUID;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static systems.intino.datamarts.led.LedLibraryConfig.CHECK_SERIAL_ID;
+import static systems.intino.datamarts.led.LedLibraryConfig.DEFAULT_BUFFER_SIZE;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+public class MappedLed<T extends Schema> implements Led<T>, AutoCloseable {
+
+	public static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+	public static <T extends Schema> MappedLed<T> open(File file, Class<T> schemaClass) {
+		return open(file, schemaClass, DEFAULT_SEGMENT_SIZE);
+	}
+
+	public static <T extends Schema> MappedLed<T> open(File file, Class<T> schemaClass, long segmentSize) {
+		FileChannel channel = open(file);
+		try {
+			LedHeader header = LedHeader.from(channel);
+			if(header == null || channel.size() < LedHeader.SIZE) throw new IllegalArgumentException(file + " has no led header");
+			if(header.isBlockFramed()) throw new IllegalArgumentException(file + " is block framed. Use BlockLed instead");
+			if(header.isColumnar()) throw new IllegalArgumentException(file + " is columnar. Use ColumnarLed instead");
+			if(CHECK_SERIAL_ID.get()) checkSerialUUID(header.uuid(), Schema.getSerialUUID(schemaClass));
+			final int schemaSize = (int) header.elementSize();
+			final long size = (channel.size() - LedHeader.SIZE) / schemaSize;
+			final boolean countMatches = header.elementCount() == LedHeader.UNKNOWN_SIZE || header.elementCount() == size;
+			if(!countMatches || (channel.size() - LedHeader.SIZE) % schemaSize != 0)
+				throw new IllegalArgumentException(file + " is not an uncompressed led");
+			return new MappedLed<>(channel, Schema.factoryOf(schemaClass), schemaSize, LedHeader.SIZE, size, header.uuid(), segmentSize);
+		} catch (IOException e) {
+			close(channel);
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		} catch (RuntimeException e) {
+			close(channel);
+			throw e;
+		}
+	}
+
+	public static <T extends Schema> MappedLed<T> openHeaderless(File file, SchemaFactory<T> factory, int schemaSize) {
+		FileChannel channel = open(file);
+		try {
+			final long size = channel.size() / schemaSize;
+			return new MappedLed<>(channel, factory, schemaSize, 0, size, Schema.getSerialUUID(factory.schemaClass()), DEFAULT_SEGMENT_SIZE);
+		} catch (IOException e) {
+			close(channel);
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static FileChannel open(File file) {
+		try {
+			return FileChannel.open(file.toPath(), READ);
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static void close(FileChannel channel) {
+		try {
+			channel.close();
+		} catch (IOException e) {
+			Logger.error(e);
+		}
+	}
+
+	private static void checkSerialUUID(UUID srcUUID, UUID dstUUID) {
+		if(srcUUID == null || dstUUID == null) return;
+		if(!Objects.equals(srcUUID, dstUUID)) throw new SchemaSerialUUIDMismatchException(srcUUID, dstUUID);
+	}
+
+	private final FileChannel channel;
+	private final SchemaFactory<T> factory;
+	private final int schemaSize;
+	private final long size;
+	private final UUID serialUUID;
+	private final long elementsPerSegment;
+	private final ByteStore[] segments;
+
+	private MappedLed(FileChannel channel, SchemaFactory<T> factory, int schemaSize, long baseOffset, long size, UUID serialUUID, long segmentSize) {
+		this.channel = channel;
+		this.factory = factory;
+		this.schemaSize = schemaSize;
+		this.size = size;
+		this.serialUUID = serialUUID;
+		this.elementsPerSegment = Math.max(1, Math.min(segmentSize, Integer.MAX_VALUE) / schemaSize);
+		this.segments = mapSegments(baseOffset);
+	}
+
+	private ByteStore[] mapSegments(long baseOffset) {
+		final long segmentBytes = elementsPerSegment * schemaSize;
+		ByteStore[] segments = new ByteStore[(int) ((size + elementsPerSegment - 1) / elementsPerSegment)];
+		for(int i = 0;i < segments.length;i++) {
+			final long bytes = Math.min(elementsPerSegment, size - i * elementsPerSegment) * schemaSize;
+			MappedByteBuffer buffer = map(channel, FileChannel.MapMode.READ_ONLY, baseOffset + i * segmentBytes, bytes);
+			segments[i] = new NativePointerStore(new SegmentAddress(buffer), 0, bytes);
+		}
+		return segments;
+	}
+
+	@Override
+	public long size() {
+		return size;
+	}
+
+	@Override
+	public int schemaSize() {
+		return schemaSize;
+	}
+
+	@Override
+	public Class<T> schemaClass() {
+		return factory.schemaClass();
+	}
+
+	@Override
+	public UUID serialUUID() {
+		return serialUUID;
+	}
+
+	public int segmentCount() {
+		return segments.length;
+	}
+
+	@Override
+	public T schema(int index) {
+		return schema((long) index);
+	}
+
+	public T schema(long index) {
+		checkIndex(index);
+		return factory.newInstance(segments[segmentOf(index)].slice(offsetOf(index), schemaSize));
+	}
+
+	@Override
+	public Spliterator<T> spliterator() {
+		return new LedSpliterator<>(this::schema, size(), DEFAULT_BUFFER_SIZE.get());
+	}
+
+	public T findById(long id) {
+		final long index = indexOf(id);
+		return index < 0 ? null : schema(index);
+	}
+
+	public long indexOf(long id) {
+		final LedCursor<T> cursor = new LedCursor<>(factory, schemaSize);
+		long low = 0;
+		long high = size - 1;
+		while(low <= high) {
+			final long mid = (low + high) >>> 1;
+			if(idAt(cursor, mid) < id) low = mid + 1;
+			else high = mid - 1;
+		}
+		return low < size && idAt(cursor, low) == id ? low : -1;
+	}
+
+	private long idAt(LedCursor<T> cursor, long index) {
+		return cursor.moveToAddress(segments[segmentOf(index)].address() + offsetOf(index)).id();
+	}
+
+	private int segmentOf(long index) {
+		return (int) (index / elementsPerSegment);
+	}
+
+	private long offsetOf(long index) {
+		return index % elementsPerSegment * schemaSize;
+	}
+
+	private void checkIndex(long index) {
+		if(index < 0 || index >= size) throw new IndexOutOfBoundsException("Index " + index + " out of [0, " + size + ")");
+	}
+
+	@Override
+	public void close() {
+		close(channel);
+	}
+
+	private static class SegmentAddress implements MemoryAddress {
+
+		private final MappedByteBuffer buffer;
+		private final long address;
+
+		SegmentAddress(MappedByteBuffer buffer) {
+			this.buffer = buffer;
+			this.address = addressOf(buffer);
+		}
+
+		@Override
+		public long get() {
+			return address;
+		}
+	}
+}
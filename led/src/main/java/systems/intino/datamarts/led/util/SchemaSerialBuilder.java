@@ -1,22 +1,37 @@
 package systems.intino.datamarts.led.util;
 
+import systems.intino.datamarts.led.SchemaLayout;
+
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class SchemaSerialBuilder {
 
+    private final String className;
+    private final List<FieldEntry> fields;
     private StringBuilder builder;
     private UUID serialId;
 
     public SchemaSerialBuilder(String className) {
+        this.className = className;
+        this.fields = new ArrayList<>();
         builder = new StringBuilder(className).append("{ ");
     }
 
     public SchemaSerialBuilder add(String name, String type, int bitIndex, int bitCount) {
         if(builder == null) throw new IllegalStateException("This builder has already been closed");
         builder.append(name).append(" : ").append(type).append('(').append(bitIndex).append(',').append(bitCount).append(") ");
+        fields.add(new FieldEntry(name, type, bitIndex, bitCount));
         return this;
     }
 
+    public SchemaLayout layout(int size) {
+        SchemaLayout layout = new SchemaLayout(className, size);
+        for(FieldEntry field : fields) layout.add(field.name, field.type, field.bitIndex, field.bitCount);
+        return layout;
+    }
+
     public UUID buildSerialId() {
         if(serialId != null) return serialId;
         final String str = builder.append('}').toString();
@@ -24,4 +39,19 @@ public class SchemaSerialBuilder {
         builder = null;
         return serialId;
     }
+
+    private static class FieldEntry {
+
+        private final String name;
+        private final String type;
+        private final int bitIndex;
+        private final int bitCount;
+
+        FieldEntry(String name, String type, int bitIndex, int bitCount) {
+            this.name = name;
+            this.type = type;
+            this.bitIndex = bitIndex;
+            this.bitCount = bitCount;
+        }
+    }
 }
@@ -1,6 +1,9 @@
 package systems.intino.datamarts.led.util.iterators;
 
+import systems.intino.datamarts.led.Schema;
+
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Spliterator;
 import java.util.Spliterators;
 import java.util.stream.Stream;
@@ -16,4 +19,33 @@ public class IteratorUtils {
         return Spliterators.spliteratorUnknownSize(iterator, Spliterator.SORTED);
     }
 
+    public static PrimitiveIterator.OfLong longIteratorOf(Iterator<Long> iterator) {
+        if(iterator instanceof PrimitiveIterator.OfLong) return (PrimitiveIterator.OfLong) iterator;
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return iterator.next();
+            }
+        };
+    }
+
+    public static PrimitiveIterator.OfLong idsOf(Iterator<? extends Schema> iterator) {
+        return new PrimitiveIterator.OfLong() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public long nextLong() {
+                return Schema.idOf(iterator.next());
+            }
+        };
+    }
+
 }
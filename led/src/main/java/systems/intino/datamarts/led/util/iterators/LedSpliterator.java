@@ -0,0 +1,77 @@
+package systems.intino.datamarts.led.util.iterators;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+public class LedSpliterator<T> implements Spliterator<T> {
+
+	public static final int CHARACTERISTICS = ORDERED | SORTED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+
+	private final LongFunction<T> accessor;
+	private final long granularity;
+	private long index;
+	private final long end;
+
+	public LedSpliterator(LongFunction<T> accessor, long size, long granularity) {
+		this(accessor, 0, size, granularity);
+	}
+
+	public LedSpliterator(LongFunction<T> accessor, long from, long to, long granularity) {
+		if(from < 0 || from > to) throw new IllegalArgumentException("Invalid range [" + from + ", " + to + ")");
+		this.accessor = requireNonNull(accessor);
+		this.index = from;
+		this.end = to;
+		this.granularity = Math.max(1, granularity);
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if(index >= end) return false;
+		action.accept(accessor.apply(index++));
+		return true;
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		final long end = this.end;
+		for(long i = index;i < end;i++) action.accept(accessor.apply(i));
+		index = end;
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		final long remaining = end - index;
+		if(remaining < 2 * granularity) return null;
+		long middle = index + remaining / 2;
+		middle -= middle % granularity;
+		if(middle <= index) middle = index + granularity;
+		if(middle >= end) return null;
+		Spliterator<T> prefix = new LedSpliterator<>(accessor, index, middle, granularity);
+		index = middle;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		return end - index;
+	}
+
+	@Override
+	public long getExactSizeIfKnown() {
+		return end - index;
+	}
+
+	@Override
+	public int characteristics() {
+		return CHARACTERISTICS;
+	}
+
+	@Override
+	public Comparator<? super T> getComparator() {
+		return null;
+	}
+}
@@ -0,0 +1,115 @@
+package systems.intino.datamarts.led.util.iterators;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.ToLongFunction;
+
+import static java.util.Objects.requireNonNull;
+
+public class LoserTreeIterator<T> implements StatefulIterator<T> {
+
+	private final Iterator<T>[] sources;
+	private final Object[] heads;
+	private final long[] keys;
+	private final boolean[] exhausted;
+	private final int[] tree;
+	private final ToLongFunction<T> key;
+	private final Comparator<? super T> comparator;
+	private T current;
+
+	public LoserTreeIterator(List<? extends Iterator<T>> sources, ToLongFunction<T> key) {
+		this(sources, requireNonNull(key), null);
+	}
+
+	public LoserTreeIterator(List<? extends Iterator<T>> sources, Comparator<? super T> comparator) {
+		this(sources, null, requireNonNull(comparator));
+	}
+
+	@SuppressWarnings("unchecked")
+	private LoserTreeIterator(List<? extends Iterator<T>> sources, ToLongFunction<T> key, Comparator<? super T> comparator) {
+		this.sources = sources.toArray((Iterator<T>[]) new Iterator<?>[sources.size()]);
+		this.key = key;
+		this.comparator = comparator;
+		this.heads = new Object[this.sources.length];
+		this.keys = new long[this.sources.length];
+		this.exhausted = new boolean[this.sources.length];
+		this.tree = new int[Math.max(1, this.sources.length)];
+		for (int i = 0; i < this.sources.length; i++) advance(i);
+		if (this.sources.length > 0) tree[0] = build(1);
+	}
+
+	public int size() {
+		return sources.length;
+	}
+
+	@Override
+	public T current() {
+		return current;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return sources.length > 0 && !exhausted[tree[0]];
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T next() {
+		if (!hasNext()) throw new NoSuchElementException();
+		int winner = tree[0];
+		current = (T) heads[winner];
+		advance(winner);
+		replay(winner);
+		return current;
+	}
+
+	public long nextKey() {
+		if (key == null) throw new IllegalStateException("Iterator is ordered by a comparator, not by a key");
+		return keys[tree[0]];
+	}
+
+	private int build(int node) {
+		if (node >= sources.length) return node - sources.length;
+		int left = build(node * 2);
+		int right = build(node * 2 + 1);
+		if (beats(left, right)) {
+			tree[node] = right;
+			return left;
+		}
+		tree[node] = left;
+		return right;
+	}
+
+	private void replay(int winner) {
+		for (int node = (winner + sources.length) >> 1; node > 0; node >>= 1) {
+			if (beats(tree[node], winner)) {
+				int loser = winner;
+				winner = tree[node];
+				tree[node] = loser;
+			}
+		}
+		tree[0] = winner;
+	}
+
+	@SuppressWarnings("unchecked")
+	private boolean beats(int a, int b) {
+		if (exhausted[a]) return false;
+		if (exhausted[b]) return true;
+		if (comparator == null) return keys[a] < keys[b] || keys[a] == keys[b] && a < b;
+		int order = comparator.compare((T) heads[a], (T) heads[b]);
+		return order < 0 || order == 0 && a < b;
+	}
+
+	private void advance(int source) {
+		if (!sources[source].hasNext()) {
+			exhausted[source] = true;
+			heads[source] = null;
+			return;
+		}
+		T head = sources[source].next();
+		heads[source] = head;
+		if (key != null) keys[source] = key.applyAsLong(head);
+	}
+}
@@ -1,52 +1,56 @@
 package systems.intino.datamarts.led.util.iterators;
 
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
 
+@Deprecated
 public class MergedIterator<T> implements StatefulIterator<T> {
 
-	private final List<StatefulIterator<T>> iterators;
-	private final Comparator<StatefulIterator<T>> comparator;
-	private T current = null;
+	private final LoserTreeIterator<T> iterator;
 
 	public MergedIterator(Stream<? extends Iterator<T>> iterators, Comparator<T> comparator) {
-		this.iterators = iterators.map(SimpleStatefulIterator::new).collect(toList());
-		this.comparator = (o1, o2) -> comparator.compare(o1.current(), o2.current());
-		prepareIterators();
-	}
-
-	private void prepareIterators() {
-		iterators.removeIf(i -> !i.hasNext() || i.next() == null);
-		iterators.sort(comparator);
+		this.iterator = new LoserTreeIterator<>(iterators.map(NonNullIterator::new).collect(toList()), comparator);
 	}
 
 	public T current() {
-		return current;
+		return iterator.current();
 	}
 
 	@Override
 	public boolean hasNext() {
-		return !iterators.isEmpty();
+		return iterator.hasNext();
 	}
 
 	@Override
 	public T next() {
-		StatefulIterator<T> iterator = iterators.remove(0);
-		current = iterator.current();
-		updateIterators(iterator);
-		return current;
+		return iterator.next();
 	}
 
-	private void updateIterators(StatefulIterator<T> iterator) {
-		iterator.next();
-		if (iterator.current() == null) return;
-		int index = Collections.binarySearch(iterators, iterator, comparator);
-		index = index < 0 ? (index + 1) * -1 : index;
-		iterators.add(index, iterator);
+	private static class NonNullIterator<T> implements Iterator<T> {
+
+		private final Iterator<T> iterator;
+		private T next;
+
+		NonNullIterator(Iterator<T> iterator) {
+			this.iterator = iterator;
+			this.next = iterator.hasNext() ? iterator.next() : null;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public T next() {
+			if (next == null) throw new NoSuchElementException();
+			T current = next;
+			next = iterator.hasNext() ? iterator.next() : null;
+			return current;
+		}
 	}
 }
@@ -2,28 +2,31 @@ package systems.intino.datamarts.led.util.sorting;
 
 import io.intino.alexandria.logger.Logger;
 import systems.intino.datamarts.led.*;
-import systems.intino.datamarts.led.allocators.stack.StackAllocator;
-import systems.intino.datamarts.led.allocators.stack.StackAllocators;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+import systems.intino.datamarts.led.util.iterators.LoserTreeIterator;
+import systems.intino.datamarts.led.util.memory.MemoryUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.LinkedList;
-import java.util.PriorityQueue;
-import java.util.Queue;
-import java.util.UUID;
-import java.util.stream.Stream;
-
-import static java.nio.file.StandardOpenOption.READ;
-import static java.nio.file.StandardOpenOption.WRITE;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.*;
 import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
 
 public class LedExternalMergeSort {
 
     private static final int DEFAULT_NUM_SCHEMAS_IN_MEMORY = 100_000;
+    private static final int DEFAULT_MERGE_FAN_IN = 256;
+    private static final int MERGE_WRITE_BUFFER_SCHEMAS = 1024;
 
     private final File srcFile;
     private final File destFile;
@@ -31,10 +34,10 @@ public class LedExternalMergeSort {
     private int numTransactionsInMemory;
     private boolean debug;
     private boolean checkChunkSorting;
-    private ByteBuffer primaryBuffer;
-    private ByteBuffer secondaryBuffer;
+    private int threads;
+    private int mergeFanIn;
     private LedHeader ledHeader;
-    private Queue<Path> chunks;
+    private List<Path> chunks;
     private boolean deleteChunkDirOnExit;
     private double startTime = 0;
 
@@ -45,10 +48,16 @@ public class LedExternalMergeSort {
         File defaultChunkDir = new File(srcFile.getParentFile(), Thread.currentThread().getName() + "_Chunks_Dir_" + System.nanoTime());
         chunksDirectory(defaultChunkDir);
         numTransactionsInMemory(DEFAULT_NUM_SCHEMAS_IN_MEMORY);
+        threads(1);
+        mergeFanIn(DEFAULT_MERGE_FAN_IN);
     }
 
     public int maxMemoryUsed(int schemaSize) {
-        return numTransactionsInMemory * schemaSize + numTransactionsInMemory * 32;
+        return (int) Math.min(Integer.MAX_VALUE, maxMemoryUsedInBytes(schemaSize));
+    }
+
+    public long maxMemoryUsedInBytes(int schemaSize) {
+        return (long) threads * (numTransactionsInMemory * (long) schemaSize + numTransactionsInMemory / 2 * (2L * Long.BYTES + 2L * Integer.BYTES));
     }
 
     public int numTransactionsInMemory() {
@@ -60,6 +69,24 @@ public class LedExternalMergeSort {
         return this;
     }
 
+    public int threads() {
+        return threads;
+    }
+
+    public LedExternalMergeSort threads(int threads) {
+        this.threads = Math.max(1, threads);
+        return this;
+    }
+
+    public int mergeFanIn() {
+        return mergeFanIn;
+    }
+
+    public LedExternalMergeSort mergeFanIn(int mergeFanIn) {
+        this.mergeFanIn = Math.max(2, mergeFanIn);
+        return this;
+    }
+
     public File chunksDirectory() {
         return chunksDirectory;
     }
@@ -124,7 +151,6 @@ public class LedExternalMergeSort {
         } catch(Throwable e) {
             Logger.error("Failed to merge sort " + srcFile + " to " + destFile + ": " + e.getMessage(), e);
         } finally {
-            freeBuffers();
             chunks = null;
             ledHeader = null;
             if(deleteChunkDirOnExit) {
@@ -148,148 +174,131 @@ public class LedExternalMergeSort {
         return new CustomLedStream(LedStream.empty(GenericSchema.class, schemaSize), schemaSize, ledHeader.uuid());
     }
 
-    private void createSortedChunks() {
-
+    private void createSortedChunks() throws Exception {
         try(FileChannel fileChannel = FileChannel.open(srcFile.toPath(), READ)) {
-
-            final long fileSize = fileChannel.size();
             final String srcFileName = srcFile.getName();
             ledHeader = LedHeader.from(fileChannel);
+            chunks = new ArrayList<>();
             if(ledHeader == null || ledHeader.elementCount() == 0) {
-                // Empty file
-                if(debug) {
-                    Logger.info("File " + srcFileName + " is empty. Not merge sorting.");
-                    return;
-                }
+                if(debug) Logger.info("File " + srcFileName + " is empty. Not merge sorting.");
+                return;
             }
-            final int schemaSize = (int) ledHeader.elementSize();
-            final int bufferSize = (numTransactionsInMemory * schemaSize) / 2;
+            final int schemaSize = schemaSize();
+            final long numSchemas = (fileChannel.size() - LedHeader.SIZE) / schemaSize;
+            final int schemasPerChunk = schemasPerChunk();
             if(debug) {
-                Logger.info("Buffer Size = " + bufferSize / 1024.0 / 1024.0 + " MB");
+                Logger.info("Chunk Size = " + (long) schemasPerChunk * schemaSize / 1024.0 / 1024.0 + " MB (" + threads + " threads)");
             }
-
-            allocateBuffers(bufferSize);
-
-            chunks = new LinkedList<>();
-
-            StackAllocator<GenericSchema> allocator = createAllocator(primaryBuffer);
-            PriorityQueue<GenericSchema> priorityQueue = new PriorityQueue<>(numTransactionsInMemory);
-
-            Path chunkDir = chunksDirectory.toPath();
-
-            for(int i = 0;fileChannel.position() < fileSize;i++) {
-                Path chunk = Files.createFile(chunkDir.resolve("Chunk["+i+"]_" + srcFileName));
-                clearBuffers();
-                final int bytesRead = fileChannel.read(primaryBuffer);
-                clearBuffers();
-                writeSortedChunk(chunk, schemaSize, allocator, priorityQueue, bytesRead);
-                if(checkChunkSorting) {
-                    checkSorting(chunk, schemaSize);
-                }
-                chunks.add(chunk);
-                priorityQueue.clear();
-                allocator.clear();
-            }
-            priorityQueue.clear();
-            allocator.clear();
-        } catch (Throwable e) {
-            Logger.error(e);
+            sortChunksInParallel(fileChannel, srcFileName, numSchemas, schemasPerChunk);
         }
     }
 
-    private void clearBuffers() {
-        primaryBuffer.clear();
-        secondaryBuffer.clear();
-    }
-
-    private void allocateBuffers(int bufferSize) {
-        primaryBuffer = allocBuffer(bufferSize);
-        secondaryBuffer = allocBuffer(bufferSize);
+    private int schemasPerChunk() {
+        return Math.max(1, numTransactionsInMemory / 2);
     }
 
-    private StackAllocator<GenericSchema> createAllocator(ByteBuffer buffer) {
-        return StackAllocators.managedStackAllocatorFromBuffer(schemaSize(), buffer, GenericSchema.class);
-    }
-
-    private void writeSortedChunk(Path chunk, int schemaSize,
-                                  StackAllocator<GenericSchema> allocator,
-                                  PriorityQueue<GenericSchema> priorityQueue,
-                                  int elementsRead) {
-        try(FileChannel fileChannel = FileChannel.open(chunk, WRITE)) {
-            sortChunk(allocator, priorityQueue, schemaSize, elementsRead);
-            fileChannel.write(secondaryBuffer);
-        } catch (IOException e) {
-            Logger.error(e);
+    private void sortChunksInParallel(FileChannel fileChannel, String srcFileName, long numSchemas, int schemasPerChunk) throws Exception {
+        final int schemaSize = schemaSize();
+        final int numChunks = (int) ((numSchemas + schemasPerChunk - 1) / schemasPerChunk);
+        final Path chunkDir = chunksDirectory.toPath();
+        final Queue<ChunkSorter> sorters = new ConcurrentLinkedQueue<>();
+        final ThreadLocal<ChunkSorter> sorter = ThreadLocal.withInitial(() -> {
+            ChunkSorter chunkSorter = new ChunkSorter(schemasPerChunk * schemaSize);
+            sorters.add(chunkSorter);
+            return chunkSorter;
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, Math.max(1, numChunks)));
+        List<Future<Path>> futures = new ArrayList<>(numChunks);
+        try {
+            for(int i = 0;i < numChunks;i++) {
+                final Path chunk = chunkDir.resolve("Chunk[" + i + "]_" + srcFileName);
+                final long position = LedHeader.SIZE + (long) i * schemasPerChunk * schemaSize;
+                final int length = (int) Math.min(schemasPerChunk, numSchemas - (long) i * schemasPerChunk) * schemaSize;
+                futures.add(executor.submit(() -> sorter.get().sort(fileChannel, position, length, chunk)));
+            }
+            for(Future<Path> future : futures) chunks.add(future.get());
+        } finally {
+            futures.forEach(future -> future.cancel(false));
+            executor.shutdown();
+            if(awaitTermination(executor)) sorters.forEach(ChunkSorter::free);
         }
     }
 
-    private void sortChunk(StackAllocator<GenericSchema> allocator,
-                           PriorityQueue<GenericSchema> priorityQueue,
-                           int schemaSize, int bytesRead) {
-
-        for(int i = 0;i < bytesRead;i+=schemaSize) {
-            priorityQueue.add(allocator.malloc());
-        }
-        final int limit = priorityQueue.size() * schemaSize;
-        final long tempBufferPtr = addressOf(secondaryBuffer);
-        long offset = 0;
-        while(!priorityQueue.isEmpty()) {
-            GenericSchema schema = priorityQueue.poll();
-            memcpy(schema.address() + schema.baseOffset(), tempBufferPtr + offset, schemaSize);
-            offset += schemaSize;
+    private static boolean awaitTermination(ExecutorService executor) {
+        try {
+            while(!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                Logger.warn("Waiting for chunk sorters to finish...");
+            }
+            return true;
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
-        secondaryBuffer.position(0).limit(limit);
     }
 
     private void mergeSortedChunks() throws IOException {
-        //Logger.info("Merging sorted chunks..." + time());
-        if(chunks.size() == 1) {
-            writeFinalChunkToDestFile(destFile, chunks.remove(), ledHeader);
-            removeDirectory(chunksDirectory);
-            return;
-        }
-        final int schemaSize = schemaSize();
-        //ByteBuffer tempBuffer = allocBuffer(chunkCreationInfo.chunkSize);
-        int count = 0;
-
-        Path chunksDir = chunksDirectory.toPath();
-
-        while(chunks.size() > 2) {
-            Path chunk1 = chunks.remove();
-            Path chunk2 = chunks.remove();
-            Path mergedChunk = Files.createFile(chunksDir.resolve("Chunk_" + count + "_merged_with_" + (count + 1) + ".led.tmp"));
-            merge(chunk1, chunk2, mergedChunk, schemaSize);
-            if(checkChunkSorting) {
-                checkSorting(mergedChunk, schemaSize);
-            }
-            deleteChunks(chunk1, chunk2);
-            chunks.add(mergedChunk);
-            count += 2;
+        if(debug) {
+            Logger.info("Merging " + chunks.size() + " sorted chunks..." + time());
         }
+        for(int level = 0;chunks.size() > mergeFanIn;level++) chunks = mergeLevel(level);
+        new LedWriter(destFile).write(merged(readChunks(chunks)));
+        deleteChunks(chunks.toArray(new Path[0]));
+        removeDirectory(chunksDirectory);
+    }
 
+    private List<Path> mergeLevel(int level) throws IOException {
         if(debug) {
-            Logger.info("Running final merge..." + time());
+            Logger.info("Merging " + chunks.size() + " chunks in groups of " + mergeFanIn + " (level " + level + ")..." + time());
         }
-
-        freeBuffers();
-
-        if(chunks.size() == 2) {
-            doFinalMergeAndWriteToDestFile(destFile, chunks.remove(), chunks.remove(), ledHeader);
-        } else if(chunks.size() == 1) {
-            writeFinalChunkToDestFile(destFile, chunks.remove(), ledHeader);
-        } else {
-            throw new IllegalStateException("Number of chunks is neither 1 or 2.");
+        List<Path> merged = new ArrayList<>((chunks.size() + mergeFanIn - 1) / mergeFanIn);
+        for(int from = 0;from < chunks.size();from += mergeFanIn) {
+            List<Path> group = chunks.subList(from, Math.min(chunks.size(), from + mergeFanIn));
+            if(group.size() == 1) {
+                merged.add(group.get(0));
+                continue;
+            }
+            final Path chunk = chunksDirectory.toPath().resolve("Merged[" + level + "][" + merged.size() + "]_" + srcFile.getName());
+            writeChunk(merged(readChunks(group)), chunk);
+            deleteChunks(group.toArray(new Path[0]));
+            merged.add(chunk);
         }
+        return merged;
+    }
+
+    private List<LedStream<GenericSchema>> readChunks(List<Path> chunks) {
+        final int schemaSize = schemaSize();
+        List<LedStream<GenericSchema>> streams = new ArrayList<>(chunks.size());
+        for(Path chunk : chunks) streams.add(readChunk(chunk, schemaSize));
+        return streams;
     }
 
-    private void freeBuffers() {
-        free(primaryBuffer);
-        free(secondaryBuffer);
+    private void writeChunk(LedStream<GenericSchema> ledStream, Path chunk) throws IOException {
+        final int schemaSize = schemaSize();
+        ByteBuffer buffer = allocBuffer((long) MERGE_WRITE_BUFFER_SCHEMAS * schemaSize);
+        try(FileChannel fileChannel = FileChannel.open(chunk, CREATE_NEW, WRITE)) {
+            final long destPtr = addressOf(buffer);
+            ledStream.forEachCursor(schema -> {
+                memcpy(schema.address() + schema.baseOffset(), destPtr + buffer.position(), schemaSize);
+                buffer.position(buffer.position() + schemaSize);
+                if(!buffer.hasRemaining()) write(fileChannel, buffer);
+            });
+            write(fileChannel, buffer);
+        } catch(UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            close(List.of(ledStream));
+            MemoryUtils.free(buffer);
+        }
     }
 
-    private void merge(Path chunk1, Path chunk2, Path mergedChunk, int schemaSize) {
-        LedStream.merged(Stream.of(readChunk(chunk1, schemaSize), readChunk(chunk2, schemaSize)))
-                .serializeUncompressed(mergedChunk.toFile());
+    private static void write(FileChannel fileChannel, ByteBuffer buffer) {
+        buffer.flip();
+        try {
+            while(buffer.hasRemaining()) fileChannel.write(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
     }
 
     private void removeDirectory(File dir) {
@@ -323,27 +332,20 @@ public class LedExternalMergeSort {
         }
     }
 
-    private void doFinalMergeAndWriteToDestFile(File destFile, Path chunk1, Path chunk2, LedHeader ledHeader) {
-        final int elementSize = (int) ledHeader.elementSize();
-        merged(Stream.of(readChunk(chunk1, elementSize), readChunk(chunk2, elementSize))).serialize(destFile);
-        deleteChunks(chunk1, chunk2);
-        deleteDir(chunk1.getParent());
-    }
-
-    private LedStream<?> merged(Stream<LedStream<GenericSchema>> chunks) {
-        return new CustomLedStream(LedStream.merged(chunks), (int) ledHeader.elementSize(), ledHeader.uuid());
+    private LedStream<GenericSchema> merged(List<LedStream<GenericSchema>> chunks) {
+        LoserTreeIterator<GenericSchema> iterator = new LoserTreeIterator<>(chunks, Schema::idOf);
+        LedStream<GenericSchema> merged = new IteratorLedStream<>(GenericSchema.class, schemaSize(), iterator).onClose(() -> close(chunks));
+        return new CustomLedStream(merged, schemaSize(), ledHeader.uuid());
     }
 
-    private void writeFinalChunkToDestFile(File destFile, Path chunk, LedHeader ledHeader) {
-        final int elementSize = (int) ledHeader.elementSize();
-        readChunk(chunk, elementSize).serialize(destFile);
-        deleteChunks(chunk);
-    }
-
-    private void deleteDir(Path dir) {
-        File dirFile = dir.toFile();
-        dirFile.delete();
-        dirFile.deleteOnExit();
+    private void close(List<LedStream<GenericSchema>> chunks) {
+        for(LedStream<GenericSchema> chunk : chunks) {
+            try {
+                chunk.close();
+            } catch (Exception e) {
+                Logger.error(e);
+            }
+        }
     }
 
     private LedStream<GenericSchema> readChunk(Path chunk, int elementSize) {
@@ -353,6 +355,49 @@ public class LedExternalMergeSort {
                 ledHeader.uuid());
     }
 
+    private class ChunkSorter {
+
+        private final ByteBuffer primaryBuffer;
+        private final ByteBuffer secondaryBuffer;
+        private final LedRadixSort radixSort;
+
+        ChunkSorter(int bufferSize) {
+            primaryBuffer = allocBuffer(bufferSize);
+            secondaryBuffer = allocBuffer(bufferSize);
+            radixSort = new LedRadixSort();
+        }
+
+        Path sort(FileChannel source, long position, int length, Path chunk) throws IOException {
+            primaryBuffer.clear().limit(length);
+            while(primaryBuffer.hasRemaining()) {
+                if(source.read(primaryBuffer, position + primaryBuffer.position()) < 0) break;
+            }
+            final int bytesRead = primaryBuffer.position();
+            primaryBuffer.clear();
+            sortChunk(bytesRead);
+            try(FileChannel fileChannel = FileChannel.open(chunk, CREATE_NEW, WRITE)) {
+                while(secondaryBuffer.hasRemaining()) fileChannel.write(secondaryBuffer);
+            }
+            if(checkChunkSorting) {
+                checkSorting(chunk, schemaSize());
+            }
+            return chunk;
+        }
+
+        private void sortChunk(int bytesRead) {
+            final int schemaSize = schemaSize();
+            final int count = bytesRead / schemaSize;
+            final long srcPtr = addressOf(primaryBuffer);
+            radixSort.sort(srcPtr, count, schemaSize).copy(srcPtr, addressOf(secondaryBuffer), schemaSize);
+            secondaryBuffer.position(0).limit(count * schemaSize);
+        }
+
+        void free() {
+            MemoryUtils.free(primaryBuffer);
+            MemoryUtils.free(secondaryBuffer);
+        }
+    }
+
     private static class CustomLedStream implements LedStream<GenericSchema> {
 
         private final LedStream<GenericSchema> source;
@@ -0,0 +1,108 @@
+package systems.intino.datamarts.led.util.sorting;
+
+import java.util.Arrays;
+
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.getLong;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.memcpy;
+
+public class LedRadixSort {
+
+	private static final int RADIX_BITS = 8;
+	private static final int RADIX = 1 << RADIX_BITS;
+	private static final int PASSES = Long.SIZE / RADIX_BITS;
+
+	private final int[] histograms = new int[PASSES * RADIX];
+	private long[] keys = new long[0];
+	private long[] keysBuffer = new long[0];
+	private int[] indices = new int[0];
+	private int[] indicesBuffer = new int[0];
+	private int size;
+
+	public int size() {
+		return size;
+	}
+
+	public int index(int position) {
+		return indices[position];
+	}
+
+	public LedRadixSort sort(long address, int count, int schemaSize) {
+		ensureCapacity(count);
+		for (int i = 0; i < count; i++) keys[i] = getLong(address, (long) i * schemaSize);
+		return sortKeys(count);
+	}
+
+	public LedRadixSort sort(long[] ids, int count) {
+		ensureCapacity(count);
+		System.arraycopy(ids, 0, keys, 0, count);
+		return sortKeys(count);
+	}
+
+	public void copy(long srcAddress, long destAddress, int schemaSize) {
+		for (int i = 0; i < size; i++)
+			memcpy(srcAddress + (long) indices[i] * schemaSize, destAddress + (long) i * schemaSize, schemaSize);
+	}
+
+	private LedRadixSort sortKeys(int count) {
+		size = count;
+		for (int i = 0; i < count; i++) {
+			keys[i] ^= Long.MIN_VALUE;
+			indices[i] = i;
+		}
+		computeHistograms(count);
+		for (int pass = 0; pass < PASSES; pass++) {
+			if (isTrivial(pass, count)) continue;
+			scatter(pass, count);
+		}
+		return this;
+	}
+
+	private void computeHistograms(int count) {
+		Arrays.fill(histograms, 0);
+		for (int i = 0; i < count; i++) {
+			long key = keys[i];
+			for (int pass = 0; pass < PASSES; pass++)
+				histograms[pass * RADIX + (int) ((key >>> (pass * RADIX_BITS)) & (RADIX - 1))]++;
+		}
+	}
+
+	private boolean isTrivial(int pass, int count) {
+		int base = pass * RADIX;
+		for (int digit = 0; digit < RADIX; digit++) {
+			int n = histograms[base + digit];
+			if (n != 0) return n == count;
+		}
+		return true;
+	}
+
+	private void scatter(int pass, int count) {
+		int base = pass * RADIX;
+		int shift = pass * RADIX_BITS;
+		int offset = 0;
+		for (int digit = 0; digit < RADIX; digit++) {
+			int n = histograms[base + digit];
+			histograms[base + digit] = offset;
+			offset += n;
+		}
+		for (int i = 0; i < count; i++) {
+			long key = keys[i];
+			int position = histograms[base + (int) ((key >>> shift) & (RADIX - 1))]++;
+			keysBuffer[position] = key;
+			indicesBuffer[position] = indices[i];
+		}
+		long[] swapKeys = keys;
+		keys = keysBuffer;
+		keysBuffer = swapKeys;
+		int[] swapIndices = indices;
+		indices = indicesBuffer;
+		indicesBuffer = swapIndices;
+	}
+
+	private void ensureCapacity(int count) {
+		if (keys.length >= count) return;
+		keys = new long[count];
+		keysBuffer = new long[count];
+		indices = new int[count];
+		indicesBuffer = new int[count];
+	}
+}
@@ -2,6 +2,7 @@ package systems.intino.concurrency;
 
 import systems.intino.datamarts.led.LedStream;
 import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.ConcurrentUnsortedLedStreamBuilder;
 import systems.intino.datamarts.led.UnsortedLedStreamBuilder;
 import systems.intino.datamarts.led.allocators.SchemaFactory;
 import systems.intino.datamarts.led.buffers.store.ByteStore;
@@ -29,7 +30,7 @@ public class UnsortedLedStreamBuilderMultithreading {
 
         final File tempFile = new File("test_unsorted.led");
         tempFile.delete();
-        UnsortedLedStreamBuilder<Transaction> builder = new UnsortedLedStreamBuilder<>(Transaction.class, tempFile);
+        ConcurrentUnsortedLedStreamBuilder<Transaction> builder = new ConcurrentUnsortedLedStreamBuilder<>(Transaction.class, tempFile);
         ExecutorService threadPool = Executors.newCachedThreadPool();
 
         final double start = System.currentTimeMillis();
@@ -0,0 +1,104 @@
+package systems.intino.datamarts.led;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import systems.intino.datamarts.led.allocators.DefaultAllocator;
+import systems.intino.datamarts.led.allocators.SchemaAllocator;
+import systems.intino.datamarts.led.codecs.LedCodec;
+import systems.intino.datamarts.led.leds.BlockLed;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+import systems.intino.test.schemas.VentaEnergia;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BlockLed_ {
+
+	private static final int NUM_ELEMENTS = 5_000 + 13;
+	private static final File tempFile = new File("temp/block_led_test.led");
+
+	@BeforeClass
+	public static void beforeClass() {
+		tempFile.getParentFile().mkdirs();
+		SchemaAllocator<Item> allocator = new DefaultAllocator<>(Item.SIZE, Item.class);
+		List<Item> items = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) items.add(allocator.malloc().id(idOf(i)).a(i));
+		new LedWriter(tempFile).codec(LedCodec.snappy()).bufferSize(100).write(new IteratorLedStream<>(Item.class, items.iterator()));
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		tempFile.delete();
+	}
+
+	private static long idOf(int index) {
+		return index / 3 * 2;
+	}
+
+	@Test
+	public void should_get_schemas_by_index() {
+		try(BlockLed<Item> led = new LedReader(tempFile).readRandomAccess(Item.class, 4)) {
+			assertEquals(NUM_ELEMENTS, led.size());
+			assertEquals((NUM_ELEMENTS + 99) / 100, led.blockCount());
+			for(int i = NUM_ELEMENTS - 1;i >= 0;i -= 7) assertEquals(i, led.schema(i).a());
+			assertEquals(NUM_ELEMENTS - 1, led.schema(NUM_ELEMENTS - 1).a());
+		}
+	}
+
+	@Test
+	public void should_find_first_schema_with_id() {
+		try(BlockLed<Item> led = new LedReader(tempFile).readRandomAccess(Item.class)) {
+			for(int i = 0;i < NUM_ELEMENTS;i += 3) {
+				Item item = led.findById(idOf(i));
+				assertNotNull(item);
+				assertEquals(i, item.a());
+			}
+			assertNull(led.findById(1));
+			assertNull(led.findById(-5));
+			assertNull(led.findById(idOf(NUM_ELEMENTS) + 10));
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void should_fail_on_index_out_of_bounds() {
+		try(BlockLed<Item> led = new BlockLed<>(tempFile, Item.class)) {
+			led.schema(NUM_ELEMENTS);
+		}
+	}
+
+	@Test
+	public void should_index_blocks_by_schema_id_when_it_is_not_at_offset_zero() {
+		File file = new File("temp/block_led_venta_energia.led");
+		SchemaAllocator<VentaEnergia> allocator = new DefaultAllocator<>(VentaEnergia.SIZE, VentaEnergia.class);
+		List<VentaEnergia> ventas = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) ventas.add(allocator.malloc().ocr(idOf(i)).total(NUM_ELEMENTS - i).iva(i));
+		new LedWriter(file).codec(LedCodec.snappy()).bufferSize(100).write(new IteratorLedStream<>(VentaEnergia.class, ventas.iterator()));
+		try(BlockLed<VentaEnergia> led = new LedReader(file).readRandomAccess(VentaEnergia.class)) {
+			for(int i = 0;i < NUM_ELEMENTS;i += 3) {
+				VentaEnergia venta = led.findById(idOf(i));
+				assertNotNull(venta);
+				assertEquals(i, venta.iva());
+			}
+			assertNull(led.findById(1));
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test
+	public void should_fail_to_write_blocks_of_a_schema_without_factory() {
+		File file = new File("temp/block_led_without_factory.led");
+		try {
+			new LedWriter(file).codec(LedCodec.snappy()).write(new IteratorLedStream<>(Schema.class, Long.BYTES, Collections.emptyIterator()));
+			fail("Expected IllegalArgumentException");
+		} catch (IllegalArgumentException ignored) {
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package systems.intino.datamarts.led;
+
+import org.junit.After;
+import org.junit.Test;
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.codecs.LedCodec;
+import systems.intino.datamarts.led.columnar.ColumnarLed;
+import systems.intino.datamarts.led.columnar.ColumnarLedWriter;
+
+import java.io.File;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.*;
+
+public class ColumnarLed_ {
+
+	private static final File FILE = new File("temp/columnar.led");
+	private static final int SIZE = 10_000;
+	private static final SchemaLayout LAYOUT = new SchemaLayout("Item", Item.SIZE)
+			.add("id", "long", Item.ID_OFFSET, Item.ID_SIZE)
+			.add("a", "int", Item.A_OFFSET, Item.A_SIZE)
+			.add("b", "float", Item.B_OFFSET, Item.B_SIZE)
+			.add("c", "short", Item.C_OFFSET, Item.C_SIZE)
+			.add("d", "short", Item.D_OFFSET, Item.D_SIZE)
+			.add("c5", "long", Item.C_OFFSET + 3, 5);
+
+	@After
+	public void tearDown() {
+		FILE.delete();
+	}
+
+	@Test
+	public void should_read_single_columns_as_primitive_arrays() {
+		write(LedCodec.snappy());
+		try(ColumnarLed led = new LedReader(FILE).readColumnar()) {
+			assertEquals(SIZE, led.size());
+			assertEquals(3, led.blockCount());
+			assertEquals(LAYOUT, led.layout());
+			long[] ids = led.longs("id");
+			long[] a = led.longs("a");
+			double[] b = led.doubles("b");
+			long[] c = led.longs("c");
+			for(int i = 0;i < SIZE;i++) {
+				assertEquals(i, ids[i]);
+				assertEquals(i * 3, a[i]);
+				assertEquals(i / 2.0f, b[i], 0);
+				assertEquals((short) -i, c[i]);
+			}
+		}
+	}
+
+	@Test
+	public void should_extract_fields_that_are_not_byte_aligned() {
+		write(LedCodec.deflate());
+		long[] values;
+		try(ColumnarLed led = new LedReader(FILE).readColumnar()) {
+			values = led.longs("c5");
+		}
+		Item item = new Item(new ByteBufferStore(Item.SIZE));
+		for(int i = 0;i < SIZE;i++) {
+			fill(item, i);
+			assertEquals(item.bitBuffer().getLongNBits(Item.C_OFFSET + 3, 5), values[i]);
+		}
+	}
+
+	@Test
+	public void should_project_only_the_requested_fields() throws Exception {
+		write(LedCodec.uncompressed());
+		try(ColumnarLed led = ColumnarLed.open(FILE); LedStream<Item> items = led.project(Item.class, "id", "b")) {
+			int i = 0;
+			while(items.hasNext()) {
+				Item item = items.next();
+				assertEquals(i, item.id());
+				assertEquals(i / 2.0f, item.b(), 0);
+				assertEquals(0, item.a());
+				assertEquals(0, item.c());
+				++i;
+			}
+			assertEquals(SIZE, i);
+		}
+	}
+
+	@Test
+	public void should_project_with_a_cursor() {
+		write(LedCodec.snappy());
+		try(ColumnarLed led = ColumnarLed.open(FILE)) {
+			long[] sum = {0};
+			led.project(Item.class, "a").forEachCursor(item -> sum[0] += item.a());
+			assertEquals(3L * SIZE * (SIZE - 1) / 2, sum[0]);
+		}
+	}
+
+	@Test
+	public void should_not_be_readable_as_a_row_led() {
+		write(LedCodec.snappy());
+		try(LedStream<Item> items = new LedReader(FILE).read(Item.class)) {
+			assertFalse(items.hasNext());
+		} catch (Exception e) {
+			fail(e.getMessage());
+		}
+	}
+
+	private void write(LedCodec codec) {
+		new ColumnarLedWriter(FILE, LAYOUT).codec(codec).elementsPerBlock(4096).write(items());
+	}
+
+	private LedStream<Item> items() {
+		return LedStream.fromStream(Item.class, IntStream.range(0, SIZE).mapToObj(i -> fill(new Item(new ByteBufferStore(Item.SIZE)), i)));
+	}
+
+	private static Item fill(Item item, int i) {
+		return item.id(i).a(i * 3).b(i / 2.0f).c((short) -i).d((short) (i % 7));
+	}
+}
@@ -0,0 +1,119 @@
+package systems.intino.datamarts.led;
+
+import org.junit.Test;
+import systems.intino.test.schemas.VentaEnergia;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentHeapLedStreamBuilder_ {
+
+    private static final File TEMP_DIR = new File("temp/concurrent_heap_builder");
+    private static final int NUM_THREADS = 4;
+    private static final int ELEMENTS_PER_THREAD = 100_000;
+
+    @Test
+    public void should_sort_elements_appended_from_several_threads() throws Exception {
+        ConcurrentHeapLedStreamBuilder<Item> builder = new ConcurrentHeapLedStreamBuilder<>(Item.class, 50_000, 4_096, 2, TEMP_DIR);
+        ExecutorService threadPool = Executors.newFixedThreadPool(NUM_THREADS);
+        for(int t = 0;t < NUM_THREADS;t++) {
+            final int thread = t;
+            threadPool.submit(() -> {
+                Random random = new Random(thread);
+                for(int i = 0;i < ELEMENTS_PER_THREAD;i++) {
+                    final long id = (long) random.nextInt(NUM_THREADS * ELEMENTS_PER_THREAD) * NUM_THREADS + thread;
+                    builder.append(item -> item.id(id).a((int) id));
+                }
+            });
+        }
+        threadPool.shutdown();
+        assertTrue(threadPool.awaitTermination(1, TimeUnit.MINUTES));
+
+        long count = 0;
+        long previous = Long.MIN_VALUE;
+        try(LedStream<Item> stream = builder.build()) {
+            while(stream.hasNext()) {
+                Item item = stream.next();
+                assertTrue(previous <= item.id());
+                assertEquals((int) item.id(), item.a());
+                previous = item.id();
+                ++count;
+            }
+        }
+        assertEquals((long) NUM_THREADS * ELEMENTS_PER_THREAD, count);
+    }
+
+    @Test
+    public void should_keep_partially_filled_buffers() throws Exception {
+        ConcurrentHeapLedStreamBuilder<Item> builder = new ConcurrentHeapLedStreamBuilder<>(Item.class, 1_000, TEMP_DIR);
+        for(int i = 2_500;i > 0;i--) {
+            final long id = i;
+            builder.append(item -> item.id(id));
+        }
+        BitSet ids = new BitSet();
+        long previous = 0;
+        try(LedStream<Item> stream = builder.build()) {
+            while(stream.hasNext()) {
+                long id = stream.next().id();
+                assertEquals(previous + 1, id);
+                ids.set((int) id);
+                previous = id;
+            }
+        }
+        assertEquals(2_500, ids.cardinality());
+        assertFalse(builder.tempDirectory().toFile().list((dir, name) -> name.endsWith(".led.tmp")).length > 0);
+    }
+
+    @Test
+    public void should_sort_by_schema_id_when_it_is_not_at_offset_zero() throws Exception {
+        ConcurrentHeapLedStreamBuilder<VentaEnergia> builder = new ConcurrentHeapLedStreamBuilder<>(VentaEnergia.class, 1_000, TEMP_DIR);
+        Random random = new Random(3);
+        for(int i = 0;i < 5_000;i++) {
+            final long ocr = random.nextInt(100_000);
+            builder.append(venta -> venta.total(-ocr).ocr(ocr));
+        }
+        long count = 0;
+        long previous = Long.MIN_VALUE;
+        try(LedStream<VentaEnergia> stream = builder.build()) {
+            while(stream.hasNext()) {
+                VentaEnergia venta = stream.next();
+                assertTrue(previous <= venta.id());
+                assertEquals(-venta.ocr(), venta.total());
+                previous = venta.id();
+                ++count;
+            }
+        }
+        assertEquals(5_000, count);
+    }
+
+    @Test
+    public void should_discard_spills_when_closed_without_build() throws Exception {
+        File tempDir = new File(TEMP_DIR, "closed");
+        ConcurrentHeapLedStreamBuilder<Item> builder = new ConcurrentHeapLedStreamBuilder<>(Item.class, 1_000, 256, 2, tempDir);
+        for(int i = 0;i < 10_000;i++) {
+            final long id = i;
+            builder.append(item -> item.id(id));
+        }
+        builder.close();
+        builder.close();
+        assertEquals(0, tempDir.list((dir, name) -> name.endsWith(".led.tmp")).length);
+        try {
+            builder.append(item -> item.id(1));
+            fail("Closed builder accepted an append");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void should_reject_appends_after_build() throws Exception {
+        ConcurrentHeapLedStreamBuilder<Item> builder = new ConcurrentHeapLedStreamBuilder<>(Item.class, 1_000, TEMP_DIR);
+        builder.build().close();
+        builder.append(item -> item.id(1));
+    }
+}
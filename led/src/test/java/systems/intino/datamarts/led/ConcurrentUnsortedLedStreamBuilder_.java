@@ -0,0 +1,67 @@
+package systems.intino.datamarts.led;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentUnsortedLedStreamBuilder_ {
+
+    private static final File FILE = new File("temp/concurrent_builder.led");
+    private static final int NUM_THREADS = 8;
+    private static final int ELEMENTS_PER_THREAD = 250_000;
+
+    @After
+    public void tearDown() {
+        FILE.delete();
+    }
+
+    @Test
+    public void should_collect_every_element_appended_from_several_threads() throws Exception {
+        ConcurrentUnsortedLedStreamBuilder<Item> builder = new ConcurrentUnsortedLedStreamBuilder<>(Item.class, Item.FACTORY, 10_000, FILE);
+        ExecutorService threadPool = Executors.newFixedThreadPool(NUM_THREADS);
+        for(int t = 0;t < NUM_THREADS;t++) {
+            final long first = (long) t * ELEMENTS_PER_THREAD;
+            threadPool.submit(() -> {
+                for(long i = first;i < first + ELEMENTS_PER_THREAD;i++) {
+                    final long id = i;
+                    builder.append(item -> item.id(id).a((int) id));
+                }
+            });
+        }
+        threadPool.shutdown();
+        assertTrue(threadPool.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals((long) NUM_THREADS * ELEMENTS_PER_THREAD, builder.size());
+
+        BitSet ids = new BitSet(NUM_THREADS * ELEMENTS_PER_THREAD);
+        try(LedStream<Item> stream = builder.build()) {
+            stream.forEach(item -> {
+                assertEquals((int) item.id(), item.a());
+                assertFalse("Repeated id: " + item.id(), ids.get((int) item.id()));
+                ids.set((int) item.id());
+            });
+        }
+        assertEquals(NUM_THREADS * ELEMENTS_PER_THREAD, ids.cardinality());
+    }
+
+    @Test
+    public void should_write_a_valid_header_on_close() throws Exception {
+        ConcurrentUnsortedLedStreamBuilder<Item> builder = new ConcurrentUnsortedLedStreamBuilder<>(Item.class, FILE);
+        for(int i = 0;i < 1000;i++) {
+            final long id = i;
+            builder.append(item -> item.id(id));
+        }
+        builder.close();
+        assertTrue(builder.isClosed());
+        LedHeader header = LedHeader.from(FILE);
+        assertEquals(1000, header.elementCount());
+        assertEquals(Item.SIZE, header.elementSize());
+        assertEquals(LedHeader.SIZE + 1000L * Item.SIZE, FILE.length());
+    }
+}
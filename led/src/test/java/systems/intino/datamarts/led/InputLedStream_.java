@@ -0,0 +1,149 @@
+package systems.intino.datamarts.led;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import systems.intino.datamarts.led.allocators.DefaultAllocator;
+import systems.intino.datamarts.led.allocators.SchemaAllocator;
+import systems.intino.datamarts.led.codecs.LedCodec;
+import systems.intino.datamarts.led.leds.InputLedStream;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class InputLedStream_ {
+
+	private static final int NUM_ELEMENTS = 100_000 + 7;
+	private static final File legacyFile = new File("temp/read_ahead_legacy.led");
+	private static final File blockFile = new File("temp/read_ahead_blocks.led");
+
+	@BeforeClass
+	public static void beforeClass() {
+		legacyFile.getParentFile().mkdirs();
+		new LedWriter(legacyFile).write(items());
+		new LedWriter(blockFile).codec(LedCodec.snappy()).write(items());
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		legacyFile.delete();
+		blockFile.delete();
+	}
+
+	private static LedStream<Item> items() {
+		SchemaAllocator<Item> allocator = new DefaultAllocator<>(Item.SIZE, Item.class);
+		List<Item> items = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) items.add(allocator.malloc().id(i).a(-i));
+		return new IteratorLedStream<>(Item.class, items.iterator());
+	}
+
+	@Test
+	public void should_read_ahead_in_order() throws Exception {
+		checkReadAhead(legacyFile);
+		checkReadAhead(blockFile);
+	}
+
+	@Test
+	public void should_keep_previous_schema_valid_across_batches() throws Exception {
+		try(LedStream<Item> stream = new LedReader(legacyFile).readAhead(true).read(Item.class)) {
+			Item previous = stream.next();
+			while(stream.hasNext()) {
+				Item current = stream.next();
+				assertEquals(previous.id() + 1, current.id());
+				previous = current;
+			}
+		}
+	}
+
+	@Test
+	public void should_keep_every_schema_valid_when_collected() throws Exception {
+		try(LedStream<Item> stream = new LedReader(legacyFile).readAhead(true).read(Item.class)) {
+			Led<Item> led = Led.fromLedStream(stream);
+			assertEquals(NUM_ELEMENTS, led.size());
+			for(int i = 0;i < NUM_ELEMENTS;i++) {
+				assertEquals(i, led.schema(i).id());
+				assertEquals(-i, led.schema(i).a());
+			}
+		}
+	}
+
+	@Test
+	public void should_stop_reading_ahead_when_closed_early() throws Exception {
+		LedStream<Item> stream = new LedReader(legacyFile).readAhead(true).read(Item.class);
+		assertTrue(stream instanceof InputLedStream);
+		assertTrue(((InputLedStream<Item>) stream).readAhead());
+		for(int i = 0;i < 10;i++) assertEquals(i, stream.next().id());
+		stream.close();
+		assertFalse(stream.hasNext());
+	}
+
+	@Test
+	public void should_release_a_consumer_waiting_for_a_batch_when_closed_from_another_thread() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		InputStream blocked = new InputStream() {
+			@Override
+			public int read() {
+				while(release.getCount() > 0) {
+					try {
+						release.await();
+					} catch(InterruptedException ignored) {
+					}
+				}
+				return -1;
+			}
+		};
+		try {
+			LedStream<Item> stream = new InputLedStream<>(blocked, Item.FACTORY, Item.SIZE, 16).readAhead(true);
+			CompletableFuture<Boolean> hasNext = CompletableFuture.supplyAsync(stream::hasNext);
+			Thread.sleep(100);
+			stream.close();
+			assertFalse(hasNext.get(5, TimeUnit.SECONDS));
+		} finally {
+			release.countDown();
+		}
+	}
+
+	@Test
+	public void should_stop_reading_ahead_when_abandoned_without_close() throws Exception {
+		CountDownLatch closed = new CountDownLatch(1);
+		abandonAfterFirstElement(closed);
+		for(int i = 0;i < 100 && closed.getCount() > 0;i++) {
+			System.gc();
+			closed.await(100, TimeUnit.MILLISECONDS);
+		}
+		assertEquals(0, closed.getCount());
+	}
+
+	private void abandonAfterFirstElement(CountDownLatch closed) throws Exception {
+		InputStream inputStream = new ByteArrayInputStream(new byte[Item.SIZE * 10_000]) {
+			@Override
+			public void close() {
+				closed.countDown();
+			}
+		};
+		LedStream<Item> stream = new InputLedStream<>(inputStream, Item.FACTORY, Item.SIZE, 16).readAhead(true);
+		assertEquals(0, stream.next().id());
+	}
+
+	private void checkReadAhead(File file) throws Exception {
+		try(LedStream<Item> stream = new LedReader(file).readAhead(true).read(Item.class)) {
+			int count = 0;
+			while(stream.hasNext()) {
+				Item item = stream.next();
+				assertEquals(count, item.id());
+				assertEquals(-count, item.a());
+				count++;
+			}
+			assertEquals(NUM_ELEMENTS, count);
+		}
+	}
+}
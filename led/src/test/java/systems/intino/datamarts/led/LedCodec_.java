@@ -0,0 +1,120 @@
+package systems.intino.datamarts.led;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import systems.intino.datamarts.led.allocators.DefaultAllocator;
+import systems.intino.datamarts.led.allocators.SchemaAllocator;
+import systems.intino.datamarts.led.codecs.LedCodec;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LedCodec_ {
+
+	private static final int NUM_ELEMENTS = 10_000 + 17;
+	private static final File tempFile = new File("temp/codec_test.led");
+
+	@BeforeClass
+	public static void beforeClass() {
+		tempFile.getParentFile().mkdirs();
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		tempFile.delete();
+	}
+
+	@Test
+	public void should_write_and_read_uncompressed_blocks() throws Exception {
+		checkRoundTrip(LedCodec.uncompressed());
+	}
+
+	@Test
+	public void should_write_and_read_snappy_blocks() throws Exception {
+		checkRoundTrip(LedCodec.snappy());
+	}
+
+	@Test
+	public void should_write_and_read_deflate_blocks() throws Exception {
+		checkRoundTrip(LedCodec.deflate());
+	}
+
+	@Test
+	public void should_write_and_read_registered_codecs() throws Exception {
+		LedCodec.register(new XorCodec());
+		checkRoundTrip(LedCodec.of(XorCodec.ID));
+	}
+
+	@Test
+	public void should_keep_writing_legacy_snappy_streams_by_default() throws Exception {
+		new LedWriter(tempFile).write(items());
+		LedHeader header = LedHeader.from(tempFile);
+		assertEquals(LedHeader.LEGACY_VERSION, header.version());
+		assertNull(header.codec());
+		assertEquals(Item.SIZE, header.elementSize());
+		checkItems(new LedReader(tempFile).read(Item.class));
+	}
+
+	private void checkRoundTrip(LedCodec codec) throws Exception {
+		new LedWriter(tempFile).codec(codec).bufferSize(1000).write(items());
+		LedHeader header = LedHeader.from(tempFile);
+		assertEquals(LedHeader.BLOCK_FRAMED_VERSION, header.version());
+		assertEquals(codec.id(), header.codecId());
+		assertEquals(Item.SIZE, header.elementSize());
+		assertEquals(NUM_ELEMENTS, header.elementCount());
+		Led<Item> led = new LedReader(tempFile).readAll(Item.class);
+		assertEquals(NUM_ELEMENTS, led.size());
+		for(int i = 0;i < NUM_ELEMENTS;i++) checkItem(i, led.schema(i));
+		checkItems(new LedReader(tempFile).read(Item.class));
+	}
+
+	private void checkItems(LedStream<Item> stream) throws Exception {
+		int count = 0;
+		while(stream.hasNext()) checkItem(count++, stream.next());
+		stream.close();
+		assertEquals(NUM_ELEMENTS, count);
+	}
+
+	private void checkItem(int index, Item item) {
+		assertEquals(index, item.id());
+		assertEquals(index * 3, item.a());
+	}
+
+	private LedStream<Item> items() {
+		SchemaAllocator<Item> allocator = new DefaultAllocator<>(Item.SIZE, Item.class);
+		List<Item> items = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) items.add(allocator.malloc().id(i).a(i * 3));
+		return new IteratorLedStream<>(Item.class, items.iterator());
+	}
+
+	private static class XorCodec implements LedCodec {
+
+		static final int ID = 200;
+
+		@Override
+		public int id() {
+			return ID;
+		}
+
+		@Override
+		public int maxCompressedLength(int length) {
+			return length;
+		}
+
+		@Override
+		public int compress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset) {
+			for(int i = 0;i < length;i++) dest[destOffset + i] = (byte) (src[srcOffset + i] ^ 0x5A);
+			return length;
+		}
+
+		@Override
+		public void decompress(byte[] src, int srcOffset, int length, byte[] dest, int destOffset, int uncompressedLength) {
+			compress(src, srcOffset, length, dest, destOffset);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package systems.intino.datamarts.led;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import systems.intino.datamarts.led.buffers.BigEndianBitBuffer;
+import systems.intino.datamarts.led.buffers.BitBuffer;
+import systems.intino.datamarts.led.buffers.LittleEndianBitBuffer;
+import systems.intino.datamarts.led.buffers.store.NativePointerStore;
+import systems.intino.datamarts.led.util.memory.ModifiableMemoryAddress;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static org.junit.Assert.assertEquals;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+public class LedColumns_ {
+
+	private static final int COUNT = 1_003;
+	private static final SchemaLayout ITEM = new SchemaLayout("Item", Item.SIZE)
+			.add("id", "long", Item.ID_OFFSET, Item.ID_SIZE)
+			.add("a", "int", Item.A_OFFSET, Item.A_SIZE)
+			.add("b", "float", Item.B_OFFSET, Item.B_SIZE)
+			.add("c", "short", Item.C_OFFSET, Item.C_SIZE)
+			.add("d", "short", Item.D_OFFSET, Item.D_SIZE);
+	private static final SchemaLayout PACKED = new SchemaLayout("Packed", 24)
+			.add("id", "long", 0, 64)
+			.add("small", "int", 67, 20)
+			.add("value", "float", 90, 32);
+
+	private ByteBuffer buffer;
+
+	@Before
+	public void setUp() {
+		buffer = allocBuffer((long) COUNT * Item.SIZE);
+		LedCursor<Item> cursor = new LedCursor<>(Item.FACTORY, Item.SIZE).reset(buffer);
+		for(int i = 0;i < COUNT;i++) {
+			Item item = cursor.moveTo(i).id(i * 3L - 100).a(-i);
+			item.b(i / 4.0f).c((short) (i - 500)).d((short) i);
+		}
+	}
+
+	@After
+	public void tearDown() {
+		free(buffer);
+	}
+
+	@Test
+	public void should_extract_aligned_longs_across_records() {
+		long[] ids = new long[COUNT];
+		assertEquals(COUNT, LedColumns.extractLong(buffer, Item.SIZE, Item.ID_OFFSET, ids));
+		for(int i = 0;i < COUNT;i++) assertEquals(i * 3L - 100, ids[i]);
+	}
+
+	@Test
+	public void should_extract_narrow_fields_with_sign() {
+		long[] values = new long[COUNT];
+		LedColumns.extractLong(buffer, Item.SIZE, ITEM.field("a"), values);
+		for(int i = 0;i < COUNT;i++) assertEquals(-i, values[i]);
+		LedColumns.extractLong(buffer, Item.SIZE, ITEM.field("c"), values);
+		for(int i = 0;i < COUNT;i++) assertEquals(i - 500, values[i]);
+		double[] reals = new double[COUNT];
+		LedColumns.extractDouble(buffer, Item.SIZE, ITEM.field("b"), reals);
+		for(int i = 0;i < COUNT;i++) assertEquals(i / 4.0, reals[i], 0);
+	}
+
+	@Test
+	public void should_stop_at_output_length_and_buffer_remaining() {
+		long[] ids = new long[10];
+		assertEquals(10, LedColumns.extractLong(buffer, Item.SIZE, ITEM.field("id"), ids));
+		assertEquals(9 * 3L - 100, ids[9]);
+		buffer.position((COUNT - 3) * Item.SIZE);
+		assertEquals(3, LedColumns.extractLong(buffer, Item.SIZE, Item.ID_OFFSET, ids));
+		assertEquals((COUNT - 1) * 3L - 100, ids[2]);
+		buffer.position(0);
+	}
+
+	@Test
+	public void should_fall_back_to_bit_extraction_for_unaligned_fields() {
+		final int size = PACKED.size();
+		ByteBuffer packed = allocBuffer((long) COUNT * size);
+		ModifiableMemoryAddress address = new ModifiableMemoryAddress(addressOf(packed));
+		NativePointerStore store = new NativePointerStore(address, 0, size);
+		BitBuffer bits = store.order() == LITTLE_ENDIAN ? new LittleEndianBitBuffer(store) : new BigEndianBitBuffer(store);
+		for(int i = 0;i < COUNT;i++) {
+			address.set(addressOf(packed) + (long) i * size);
+			bits.setAlignedLong(0, i);
+			bits.setLongNBits(67, 20, i - 300);
+			bits.setReal32Bits(90, i * 1.5f);
+		}
+		long[] small = new long[COUNT];
+		double[] values = new double[COUNT];
+		LedColumns.extractLong(packed, size, PACKED.field("small"), small);
+		LedColumns.extractDouble(packed, size, PACKED.field("value"), values);
+		for(int i = 0;i < COUNT;i++) {
+			assertEquals(i - 300, small[i]);
+			assertEquals(i * 1.5, values[i], 0);
+		}
+		free(packed);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_unaligned_bit_offsets_on_raw_extraction() {
+		LedColumns.extractLong(buffer, Item.SIZE, 3, new long[COUNT]);
+	}
+}
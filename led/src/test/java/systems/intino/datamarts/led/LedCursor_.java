@@ -0,0 +1,115 @@
+package systems.intino.datamarts.led;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import systems.intino.datamarts.led.allocators.DefaultAllocator;
+import systems.intino.datamarts.led.allocators.SchemaAllocator;
+import systems.intino.datamarts.led.leds.ByteChannelLedStream;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class LedCursor_ {
+
+	private static final int NUM_ELEMENTS = 50_000 + 3;
+	private static final File ledFile = new File("temp/cursor_test.led");
+	private static final File uncompressedFile = new File("temp/cursor_test_uncompressed.led");
+	private static final File destFile = new File("temp/cursor_test_dest.led");
+
+	@BeforeClass
+	public static void beforeClass() {
+		ledFile.getParentFile().mkdirs();
+		new LedWriter(ledFile).write(items());
+		new LedWriter(uncompressedFile).writeUncompressed(items());
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		ledFile.delete();
+		uncompressedFile.delete();
+		destFile.delete();
+	}
+
+	private static LedStream<Item> items() {
+		SchemaAllocator<Item> allocator = new DefaultAllocator<>(Item.SIZE, Item.class);
+		List<Item> items = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) items.add(allocator.malloc().id(i).a(i % 10));
+		return new IteratorLedStream<>(Item.class, items.iterator());
+	}
+
+	@Test
+	public void should_reuse_a_single_schema_instance() throws Exception {
+		checkCursor(new LedReader(ledFile).read(Item.class));
+		checkCursor(new LedReader(ledFile).readAhead(true).read(Item.class));
+		checkCursor(new ByteChannelLedStream<>(uncompressedFile, Item.FACTORY, Item.SIZE));
+	}
+
+	@Test
+	public void should_filter_peek_and_map_with_cursor() throws Exception {
+		AtomicLong peeked = new AtomicLong();
+		AtomicLong sum = new AtomicLong();
+		Map<Item, Boolean> instances = new IdentityHashMap<>();
+		try(LedStream<Item> stream = new LedReader(ledFile).read(Item.class)
+				.filter(item -> item.a() == 3)
+				.peek(item -> peeked.incrementAndGet())
+				.map(Item.class, (item, mapped) -> mapped.id(item.id()).a(item.a() * 2))) {
+			stream.forEachCursor(item -> {
+				instances.put(item, true);
+				assertEquals(6, item.a());
+				sum.addAndGet(item.id());
+			});
+		}
+		long expected = 0;
+		for(int i = 3;i < NUM_ELEMENTS;i += 10) expected += i;
+		assertEquals((NUM_ELEMENTS + 6) / 10, peeked.get());
+		assertEquals(expected, sum.get());
+		assertEquals(1, instances.size());
+	}
+
+	@Test
+	public void should_write_from_cursor() throws Exception {
+		new LedWriter(destFile).write(new LedReader(ledFile).read(Item.class).filter(item -> item.id() % 2 == 0));
+		try(LedStream<Item> stream = new LedReader(destFile).read(Item.class)) {
+			long expected = 0;
+			while(stream.hasNext()) {
+				assertEquals(expected, stream.next().id());
+				expected += 2;
+			}
+			assertEquals((NUM_ELEMENTS + 1) / 2 * 2, expected);
+		}
+	}
+
+	@Test
+	public void should_write_uncompressed_file_from_cursor() throws Exception {
+		new LedWriter(destFile).writeUncompressed(new LedReader(ledFile).read(Item.class).filter(item -> item.id() % 2 == 0));
+		try(LedStream<Item> stream = new ByteChannelLedStream<>(destFile, Item.FACTORY, Item.SIZE)) {
+			long expected = 0;
+			while(stream.hasNext()) {
+				assertEquals(expected, stream.next().id());
+				expected += 2;
+			}
+			assertEquals((NUM_ELEMENTS + 1) / 2 * 2, expected);
+		}
+	}
+
+	private void checkCursor(LedStream<Item> stream) throws Exception {
+		Map<Item, Boolean> instances = new IdentityHashMap<>();
+		AtomicLong expected = new AtomicLong();
+		try(stream) {
+			stream.forEachCursor(item -> {
+				instances.put(item, true);
+				assertEquals(expected.getAndIncrement(), item.id());
+			});
+		}
+		assertEquals(NUM_ELEMENTS, expected.get());
+		assertEquals(1, instances.size());
+	}
+}
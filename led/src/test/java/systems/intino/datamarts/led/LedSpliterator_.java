@@ -0,0 +1,104 @@
+package systems.intino.datamarts.led;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import systems.intino.datamarts.led.allocators.DefaultAllocator;
+import systems.intino.datamarts.led.allocators.SchemaAllocator;
+import systems.intino.datamarts.led.codecs.LedCodec;
+import systems.intino.datamarts.led.leds.BlockLed;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+import systems.intino.datamarts.led.leds.MappedLed;
+import systems.intino.datamarts.led.util.iterators.LedSpliterator;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class LedSpliterator_ {
+
+	private static final int NUM_ELEMENTS = 200_000 + 11;
+	private static final long EXPECTED_SUM = (long) NUM_ELEMENTS * (NUM_ELEMENTS - 1) / 2;
+	private static final File blockFile = new File("temp/spliterator_blocks.led");
+	private static final File mappedFile = new File("temp/spliterator_mapped.led");
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		blockFile.getParentFile().mkdirs();
+		new LedWriter(blockFile).codec(LedCodec.snappy()).write(items());
+		try(FileOutputStream outputStream = new FileOutputStream(mappedFile)) {
+			outputStream.write(new LedHeader().elementCount(NUM_ELEMENTS).elementSize(Item.SIZE).uuid(Item.SERIAL_UUID).toByteArray());
+			new LedWriter(outputStream).writeUncompressed(items());
+		}
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		blockFile.delete();
+		mappedFile.delete();
+	}
+
+	private static LedStream<Item> items() {
+		SchemaAllocator<Item> allocator = new DefaultAllocator<>(Item.SIZE, Item.class);
+		List<Item> items = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) items.add(allocator.malloc().id(i).a(i));
+		return new IteratorLedStream<>(Item.class, items.iterator());
+	}
+
+	@Test
+	public void should_split_on_granularity_boundaries() {
+		LedSpliterator<Long> spliterator = new LedSpliterator<>(i -> i, 10_000, 1000);
+		Spliterator<Long> prefix = spliterator.trySplit();
+		assertNotNull(prefix);
+		assertEquals(5000, prefix.estimateSize());
+		assertEquals(5000, spliterator.estimateSize());
+		assertTrue(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED | Spliterator.SORTED));
+		Spliterator<Long> smaller = new LedSpliterator<>(i -> i, 1500, 1000);
+		assertNull(smaller.trySplit());
+	}
+
+	@Test
+	public void should_aggregate_mapped_led_in_parallel() {
+		try(MappedLed<Item> led = MappedLed.open(mappedFile, Item.class)) {
+			assertEquals(EXPECTED_SUM, led.asJavaStream().parallel().mapToLong(Item::id).sum());
+			checkOrder(led);
+		}
+	}
+
+	@Test
+	public void should_aggregate_block_led_in_parallel() {
+		try(BlockLed<Item> led = new BlockLed<>(blockFile, Item.class)) {
+			assertEquals(EXPECTED_SUM, led.asJavaStream().parallel().mapToLong(Item::a).sum());
+			checkOrder(led);
+		}
+	}
+
+	@Test
+	public void should_aggregate_block_led_in_parallel_with_a_single_cached_block() {
+		try(BlockLed<Item> led = new BlockLed<>(blockFile, Item.class, 1)) {
+			Spliterator<Item> spliterator = led.spliterator();
+			Spliterator<Item> prefix = spliterator.trySplit();
+			assertNotNull(prefix);
+			assertEquals(0, prefix.getExactSizeIfKnown() % led.elementsPerBlock());
+			assertEquals(EXPECTED_SUM, led.asJavaStream().parallel().mapToLong(Item::a).sum());
+			checkOrder(led);
+		}
+	}
+
+	@Test
+	public void should_aggregate_in_memory_led_in_parallel() {
+		Led<Item> led = new LedReader(blockFile).readAll(Item.class);
+		assertEquals(NUM_ELEMENTS, led.spliterator().getExactSizeIfKnown());
+		assertEquals(EXPECTED_SUM, led.asJavaStream().parallel().mapToLong(Item::id).sum());
+	}
+
+	private void checkOrder(Led<Item> led) {
+		List<Long> ids = led.asJavaStream().parallel().map(Item::id).collect(Collectors.toList());
+		for(int i = 0;i < ids.size();i++) assertEquals(i, (long) ids.get(i));
+	}
+}
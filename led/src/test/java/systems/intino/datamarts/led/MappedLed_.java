@@ -0,0 +1,95 @@
+package systems.intino.datamarts.led;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import systems.intino.datamarts.led.allocators.DefaultAllocator;
+import systems.intino.datamarts.led.allocators.SchemaAllocator;
+import systems.intino.datamarts.led.leds.IteratorLedStream;
+import systems.intino.datamarts.led.leds.MappedLed;
+import systems.intino.test.schemas.VentaEnergia;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MappedLed_ {
+
+	private static final int NUM_ELEMENTS = 10_000;
+	private static final File ledFile = new File("temp/mapped_test.led");
+	private static final File headerlessFile = new File("temp/mapped_headerless_test.led");
+
+	@BeforeClass
+	public static void beforeClass() throws Exception {
+		ledFile.getParentFile().mkdirs();
+		try(FileOutputStream outputStream = new FileOutputStream(ledFile)) {
+			LedHeader header = new LedHeader().elementCount(NUM_ELEMENTS).elementSize(Item.SIZE).uuid(Item.SERIAL_UUID);
+			outputStream.write(header.toByteArray());
+			new LedWriter(outputStream).writeUncompressed(items());
+		}
+		new LedWriter(headerlessFile).writeUncompressed(items());
+	}
+
+	@AfterClass
+	public static void afterClass() {
+		ledFile.delete();
+		headerlessFile.delete();
+	}
+
+	private static LedStream<Item> items() {
+		SchemaAllocator<Item> allocator = new DefaultAllocator<>(Item.SIZE, Item.class);
+		List<Item> items = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) items.add(allocator.malloc().id(i * 2L).a(i));
+		return new IteratorLedStream<>(Item.class, items.iterator());
+	}
+
+	@Test
+	public void should_map_uncompressed_led_with_header() {
+		try(MappedLed<Item> led = new LedReader(ledFile).readMapped(Item.class)) {
+			assertEquals(NUM_ELEMENTS, led.size());
+			assertEquals(1, led.segmentCount());
+			for(int i = 0;i < NUM_ELEMENTS;i++) assertEquals(i, led.schema(i).a());
+		}
+	}
+
+	@Test
+	public void should_split_large_files_in_several_segments() {
+		try(MappedLed<Item> led = MappedLed.open(ledFile, Item.class, 1000)) {
+			assertEquals((NUM_ELEMENTS + 1000 / Item.SIZE - 1) / (1000 / Item.SIZE), led.segmentCount());
+			for(int i = 0;i < NUM_ELEMENTS;i++) assertEquals(i * 2L, led.schema(i).id());
+			assertEquals(NUM_ELEMENTS - 1, led.findById((NUM_ELEMENTS - 1) * 2L).a());
+			assertEquals(77, led.findById(154).a());
+			assertNull(led.findById(155));
+		}
+	}
+
+	@Test
+	public void should_map_headerless_files() {
+		try(MappedLed<Item> led = MappedLed.openHeaderless(headerlessFile, Item.FACTORY, Item.SIZE)) {
+			assertEquals(NUM_ELEMENTS, led.size());
+			assertEquals(0, led.indexOf(0));
+			assertEquals(-1, led.indexOf(-1));
+			assertEquals(NUM_ELEMENTS / 2, led.indexOf(NUM_ELEMENTS));
+		}
+	}
+
+	@Test
+	public void should_find_by_id_when_it_is_not_at_offset_zero() {
+		File file = new File("temp/mapped_venta_energia.led");
+		SchemaAllocator<VentaEnergia> allocator = new DefaultAllocator<>(VentaEnergia.SIZE, VentaEnergia.class);
+		List<VentaEnergia> ventas = new ArrayList<>(NUM_ELEMENTS);
+		for(int i = 0;i < NUM_ELEMENTS;i++) ventas.add(allocator.malloc().ocr(i * 3L).total(NUM_ELEMENTS - i));
+		new LedWriter(file).writeUncompressed(new IteratorLedStream<>(VentaEnergia.class, ventas.iterator()));
+		try(MappedLed<VentaEnergia> led = MappedLed.openHeaderless(file, VentaEnergia.FACTORY, VentaEnergia.SIZE)) {
+			assertEquals(0, led.indexOf(0));
+			assertEquals(1234, led.indexOf(1234 * 3L));
+			assertEquals(-1, led.indexOf(1234 * 3L + 1));
+			assertEquals(NUM_ELEMENTS - 1234, led.findById(1234 * 3L).total());
+		} finally {
+			file.delete();
+		}
+	}
+}
@@ -0,0 +1,40 @@
+package systems.intino.datamarts.led;
+
+import org.junit.Test;
+import systems.intino.datamarts.led.util.iterators.MergedIterator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+@SuppressWarnings("deprecation")
+public class MergedIterator_ {
+
+	@Test
+	public void should_merge_sources_with_the_given_comparator() {
+		MergedIterator<String> iterator = new MergedIterator<>(Stream.of(
+				List.of("d", "b").iterator(),
+				List.of("e", "c", "a").iterator(),
+				List.<String>of().iterator()), Comparator.reverseOrder());
+		List<String> merged = new ArrayList<>();
+		while(iterator.hasNext()) {
+			merged.add(iterator.next());
+			assertEquals(merged.get(merged.size() - 1), iterator.current());
+		}
+		assertEquals(List.of("e", "d", "c", "b", "a"), merged);
+	}
+
+	@Test
+	public void should_end_a_source_at_its_first_null() {
+		MergedIterator<Integer> iterator = new MergedIterator<>(Stream.of(
+				Arrays.asList(1, null, 2).iterator(),
+				Arrays.asList(0, 3).iterator()), Comparator.naturalOrder());
+		List<Integer> merged = new ArrayList<>();
+		while(iterator.hasNext()) merged.add(iterator.next());
+		assertEquals(List.of(0, 1, 3), merged);
+	}
+}
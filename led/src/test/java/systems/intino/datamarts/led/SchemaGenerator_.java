@@ -0,0 +1,114 @@
+package systems.intino.datamarts.led;
+
+import org.junit.Test;
+import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
+import systems.intino.datamarts.led.codegen.SchemaCompiler;
+import systems.intino.datamarts.led.codegen.SchemaGenerator;
+
+import java.io.File;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SchemaGenerator_ {
+
+	private static final SchemaLayout LAYOUT = new SchemaLayout("Item", Item.SIZE)
+			.add("id", "long", Item.ID_OFFSET, Item.ID_SIZE)
+			.add("a", "int", Item.A_OFFSET, Item.A_SIZE)
+			.add("b", "float", Item.B_OFFSET, Item.B_SIZE)
+			.add("c", "short", Item.C_OFFSET, Item.C_SIZE)
+			.add("d", "short", Item.D_OFFSET, Item.D_SIZE);
+
+	@Test
+	public void should_use_aligned_accessors_for_aligned_fields() {
+		String code = new SchemaGenerator(LAYOUT, "generated", "GeneratedItem").generate();
+		assertTrue(code.contains("bitBuffer.getAlignedLong(0)"));
+		assertTrue(code.contains("bitBuffer.getAlignedInteger(64)"));
+		assertTrue(code.contains("bitBuffer.getAlignedReal32Bits(96)"));
+		assertTrue(code.contains("bitBuffer.setAlignedShort(128, value)"));
+		assertFalse(code.contains("NBits"));
+	}
+
+	@Test
+	public void should_compile_a_schema_that_reads_the_same_bytes_as_the_hand_written_one() throws Exception {
+		Class<? extends Schema> type = new SchemaCompiler().compile(LAYOUT, "generated", "GeneratedItem");
+		assertEquals(Item.SIZE, Schema.sizeOf(type));
+		assertEquals(LAYOUT, Schema.layoutOf(type));
+		assertEquals(LAYOUT.serialUUID(), Schema.getSerialUUID(type));
+
+		ByteBufferStore store = new ByteBufferStore(Item.SIZE);
+		Schema generated = Schema.factoryOf(type).newInstance(store);
+		Item item = new Item(store);
+		item.id(42).a(-7).b(1.5f).c((short) 300).d((short) -2);
+		assertEquals(42L, generated.id());
+		assertEquals(-7, invoke(generated, "a"));
+		assertEquals(1.5f, invoke(generated, "b"));
+		assertEquals((short) 300, invoke(generated, "c"));
+
+		type.getMethod("d", short.class).invoke(generated, (short) 11);
+		assertEquals(11, item.d());
+	}
+
+	@Test
+	public void should_round_trip_bit_packed_fields() throws Exception {
+		Class<? extends Schema> type = new SchemaCompiler().compile(new SchemaLayout("Packed", 16)
+				.add("id", "long", 0, 64)
+				.add("small", "int", 64, 20)
+				.add("flag", "boolean", 84, 1)
+				.add("level", "byte", 85, 3), "generated", "Packed");
+		Schema schema = Schema.factoryOf(type).newInstance(new ByteBufferStore(16));
+		type.getMethod("id", long.class).invoke(schema, 5L);
+		type.getMethod("small", int.class).invoke(schema, -300_000);
+		type.getMethod("flag", boolean.class).invoke(schema, true);
+		type.getMethod("level", byte.class).invoke(schema, (byte) 3);
+		assertEquals(5L, schema.id());
+		assertEquals(-300_000, invoke(schema, "small"));
+		assertEquals(true, invoke(schema, "flag"));
+		assertEquals((byte) 3, invoke(schema, "level"));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public <T extends Schema> void should_write_and_read_leds_with_generated_schemas() throws Exception {
+		Class<T> type = (Class<T>) new SchemaCompiler().compile(LAYOUT, "generated", "StoredItem");
+		File file = new File("temp/generated_items.led");
+		file.getParentFile().mkdirs();
+		List<T> schemas = new ArrayList<>();
+		for(int i = 0;i < 100;i++) {
+			T schema = Schema.factoryOf(type).newInstance(new ByteBufferStore(Item.SIZE));
+			type.getMethod("id", long.class).invoke(schema, (long) i);
+			type.getMethod("a", int.class).invoke(schema, i * 2);
+			schemas.add(schema);
+		}
+		new LedWriter(file).write(LedStream.fromStream(type, schemas.stream()));
+		try(LedStream<T> items = new LedReader(file).read(type)) {
+			int i = 0;
+			while(items.hasNext()) {
+				T item = items.next();
+				assertEquals(i, item.id());
+				assertEquals(i * 2, invoke(item, "a"));
+				++i;
+			}
+			assertEquals(100, i);
+		} finally {
+			file.delete();
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_layouts_without_id() {
+		new SchemaGenerator(new SchemaLayout("NoId", 8).add("value", "long", 0, 64), "generated", "NoId");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void should_reject_fields_that_clash_with_schema_methods() {
+		new SchemaGenerator(new SchemaLayout("Clash", 16).add("id", "long", 0, 64).add("size", "int", 64, 32), "generated", "Clash");
+	}
+
+	private static Object invoke(Schema schema, String accessor) throws Exception {
+		Method method = schema.getClass().getMethod(accessor);
+		return method.invoke(schema);
+	}
+}
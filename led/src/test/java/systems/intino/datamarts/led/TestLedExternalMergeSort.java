@@ -8,6 +8,8 @@ import java.io.File;
 import java.util.Random;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 public class TestLedExternalMergeSort {
 
@@ -60,6 +62,75 @@ public class TestLedExternalMergeSort {
         mergeSort(numTransactions);
     }
 
+    @Test
+    public void testRandomWithRepeatedIdsAndSeveralThreads() {
+        final int numTransactions = 1_000_003;
+        LedStream.Builder<Item> builder = new UnsortedLedStreamBuilder<>(Item.class, SRC);
+        Random random = new Random(7);
+        for(int i = 0;i < numTransactions;i++) {
+            final long id = random.nextInt(numTransactions / 4);
+            builder.append(t -> t.id(id).a((int)id));
+        }
+        builder.build();
+        new LedExternalMergeSort(SRC, DST)
+                .numTransactionsInMemory(NUM_SCHEMAS_IN_MEMORY)
+                .threads(4)
+                .sort();
+        assertEquals(numTransactions, LedHeader.from(DST).elementCount());
+        try(LedStream<Item> ledStream = new LedReader(DST).read(Item.class)) {
+            long previous = Long.MIN_VALUE;
+            int count = 0;
+            while(ledStream.hasNext()) {
+                Item item = ledStream.next();
+                assertTrue(previous <= item.id());
+                assertEquals((int) item.id(), item.a());
+                previous = item.id();
+                ++count;
+            }
+            assertEquals(numTransactions, count);
+        } catch (Exception e) {
+            Logger.error(e);
+        }
+    }
+
+    @Test
+    public void testManySmallChunksAreMergedInSeveralLevels() {
+        final int numTransactions = 300_017;
+        createLed(SRC, numTransactions);
+        LedExternalMergeSort sort = new LedExternalMergeSort(SRC, DST).numTransactionsInMemory(1000).threads(4);
+        sort.sort();
+        assertEquals(numTransactions, LedHeader.from(DST).elementCount());
+        assertFalse(sort.chunksDirectory().exists());
+        checkData(numTransactions);
+    }
+
+    @Test
+    public void testFailedChunkSortDoesNotProduceOutput() {
+        final int numTransactions = 100_003;
+        createLed(SRC, numTransactions);
+        LedExternalMergeSort sort = new LedExternalMergeSort(SRC, DST).numTransactionsInMemory(1000).threads(4);
+        assertTrue(sort.chunksDirectory().delete());
+        sort.sort();
+        assertFalse(DST.exists());
+    }
+
+    @Test
+    public void testDefaultsToOneThread() {
+        LedExternalMergeSort sort = new LedExternalMergeSort(SRC, DST);
+        assertEquals(1, sort.threads());
+        assertEquals(sort.maxMemoryUsedInBytes(64), sort.maxMemoryUsed(64));
+        sort.chunksDirectory().delete();
+    }
+
+    @Test
+    public void testSmallMergeFanIn() {
+        final int numTransactions = 50_003;
+        createLed(SRC, numTransactions);
+        new LedExternalMergeSort(SRC, DST).numTransactionsInMemory(1000).mergeFanIn(4).sort();
+        assertEquals(numTransactions, LedHeader.from(DST).elementCount());
+        checkData(numTransactions);
+    }
+
     @Ignore
     @Test
     public void testLarge() {
@@ -0,0 +1,114 @@
+package systems.intino.datamarts.led;
+
+import org.junit.Test;
+import systems.intino.datamarts.led.buffers.store.StoreArena;
+import systems.intino.datamarts.led.buffers.store.VarHandleStore;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.*;
+
+public class VarHandleStore_ {
+
+	@Test
+	public void should_read_and_write_schemas_like_a_byte_buffer_store() {
+		try(StoreArena arena = new StoreArena()) {
+			VarHandleStore store = arena.allocate(Item.SIZE);
+			Item item = new Item(store).id(42).a(-7);
+			item.b(3.5f).c((short) 12).d((short) -1);
+			ByteBuffer buffer = store.storeImpl();
+			assertEquals(42, buffer.getLong(0));
+			assertEquals(-7, buffer.getInt(8));
+			assertEquals(3.5f, buffer.getFloat(12), 0);
+			assertEquals(12, buffer.getShort(16));
+			assertEquals(-1, buffer.getShort(18));
+			assertEquals(42, item.id());
+			assertEquals(3.5f, item.b(), 0);
+		}
+	}
+
+	@Test
+	public void should_honour_buffer_byte_order() {
+		VarHandleStore big = new VarHandleStore(ByteBuffer.allocate(16).order(ByteOrder.BIG_ENDIAN));
+		big.setInt(1, 0x01020304);
+		assertEquals(0x01, big.getByte(1));
+		assertEquals(0x01020304, big.getInt(1));
+		VarHandleStore little = new VarHandleStore(ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN));
+		little.setLong(3, 0x0102030405060708L);
+		assertEquals(0x08, little.getByte(3));
+		assertEquals(0x0102030405060708L, little.getLong(3));
+		little.setDouble(8, Math.PI);
+		assertEquals(Math.PI, little.getDouble(8), 0);
+	}
+
+	@Test
+	public void should_slice_clear_and_copy_regions() {
+		try(StoreArena arena = new StoreArena()) {
+			VarHandleStore store = arena.allocate(64);
+			for(int i = 0;i < 8;i++) store.setLong(i * Long.BYTES, i + 1);
+			VarHandleStore slice = store.slice(16, 16);
+			assertEquals(3, slice.getLong(0));
+			assertEquals(16, slice.baseOffset());
+			VarHandleStore dest = arena.allocate(32);
+			VarHandleStore.copy(store, 8, dest, 0, 24);
+			assertEquals(2, dest.getLong(0));
+			assertEquals(4, dest.getLong(16));
+			slice.clear();
+			assertEquals(2, store.getLong(8));
+			assertEquals(0, store.getLong(16));
+			assertEquals(0, store.getLong(24));
+			assertEquals(5, store.getLong(32));
+		}
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void should_reject_slices_out_of_bounds() {
+		new VarHandleStore(ByteBuffer.allocate(16)).slice(8, 16);
+	}
+
+	@Test
+	public void should_reject_structural_operations_after_arena_is_closed() {
+		StoreArena arena = new StoreArena();
+		VarHandleStore store = arena.allocate(16);
+		VarHandleStore slice = store.slice(8, 8);
+		store.setLong(0, 1);
+		arena.close();
+		assertFalse(store.isAlive());
+		assertFalse(slice.isAlive());
+		assertClosed(() -> store.slice(0, 8));
+		assertClosed(() -> VarHandleStore.copy(store, 0, slice, 0, 8));
+		assertClosed(() -> arena.allocate(8));
+	}
+
+	@Test
+	public void should_map_files_into_the_arena() throws Exception {
+		File file = new File("temp/var_handle_store.bin");
+		file.getParentFile().mkdirs();
+		file.delete();
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			StoreArena arena = new StoreArena()) {
+			VarHandleStore store = arena.map(channel, FileChannel.MapMode.READ_WRITE, 0, 32);
+			store.setLong(8, 99);
+			store.setInt(16, 7);
+		}
+		try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+			StoreArena arena = new StoreArena()) {
+			VarHandleStore store = arena.map(channel, FileChannel.MapMode.READ_ONLY, 0, 32);
+			assertEquals(99, store.getLong(8));
+			assertEquals(7, store.getInt(16));
+		}
+		file.delete();
+	}
+
+	private static void assertClosed(Runnable access) {
+		try {
+			access.run();
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException ignored) {
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.led.util.sorting.LedRadixSort;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static systems.intino.datamarts.led.util.memory.MemoryUtils.*;
+
+public class LedRadixSort_ {
+
+	private static final int SCHEMA_SIZE = 16;
+
+	@Test
+	public void should_sort_ids_including_negative_ones() {
+		Random random = new Random(1);
+		long[] ids = new long[10_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = random.nextLong();
+		LedRadixSort sort = new LedRadixSort().sort(ids, ids.length);
+		long[] sorted = ids.clone();
+		Arrays.sort(sorted);
+		for (int i = 0; i < ids.length; i++) assertEquals(sorted[i], ids[sort.index(i)]);
+	}
+
+	@Test
+	public void should_keep_insertion_order_of_repeated_ids() {
+		long[] ids = {5, 3, 5, 1, 3, 5};
+		LedRadixSort sort = new LedRadixSort().sort(ids, ids.length);
+		int[] expected = {3, 1, 4, 0, 2, 5};
+		for (int i = 0; i < ids.length; i++) assertEquals(expected[i], sort.index(i));
+	}
+
+	@Test
+	public void should_permute_records_of_an_off_heap_buffer() {
+		final int count = 50_000;
+		ByteBuffer source = allocBuffer((long) count * SCHEMA_SIZE);
+		ByteBuffer dest = allocBuffer((long) count * SCHEMA_SIZE);
+		Random random = new Random(2);
+		for (int i = 0; i < count; i++) {
+			long id = random.nextInt(count / 10);
+			setLong(addressOf(source), (long) i * SCHEMA_SIZE, id);
+			setLong(addressOf(source), (long) i * SCHEMA_SIZE + Long.BYTES, id * 7);
+		}
+		new LedRadixSort().sort(addressOf(source), count, SCHEMA_SIZE).copy(addressOf(source), addressOf(dest), SCHEMA_SIZE);
+		long previous = Long.MIN_VALUE;
+		for (int i = 0; i < count; i++) {
+			long id = getLong(addressOf(dest), (long) i * SCHEMA_SIZE);
+			assertTrue(previous <= id);
+			assertEquals(id * 7, getLong(addressOf(dest), (long) i * SCHEMA_SIZE + Long.BYTES));
+			previous = id;
+		}
+		free(source);
+		free(dest);
+	}
+}
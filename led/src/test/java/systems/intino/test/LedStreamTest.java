@@ -10,11 +10,15 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -94,6 +98,35 @@ public class LedStreamTest {
         }
     }
 
+    @Test
+    public void testMergeManyStreams() {
+        final int numStreams = 37;
+        LedStream<TestSchema> merge = createTestTransactionsLedStream(i -> i * numStreams)
+                .merge(IntStream.range(1, numStreams).mapToObj(s -> createTestTransactionsLedStream(i -> i * numStreams + s)));
+
+        long expected = numStreams;
+        while(merge.hasNext()) {
+            assertEquals(expected++, merge.next().id());
+        }
+        assertEquals((long) numElements * numStreams, expected);
+    }
+
+    @Test
+    public void testMergeKeepsStreamOrderOnEqualIds() {
+        SchemaAllocator<TestSchema> allocator = StackAllocators.managedStackAllocator(TestSchema.SIZE, 4, TestSchema.class);
+        LedStream<TestSchema> a = IteratorLedStream.fromStream(TestSchema.class, Stream.of(allocator.calloc().id(1).b(0), allocator.calloc().id(2).b(0)));
+        LedStream<TestSchema> b = IteratorLedStream.fromStream(TestSchema.class, Stream.of(allocator.calloc().id(1).b(1), allocator.calloc().id(2).b(1)));
+
+        List<TestSchema> merged = new ArrayList<>();
+        a.merge(b).forEach(merged::add);
+
+        assertEquals(4, merged.size());
+        for(int i = 0;i < merged.size();i++) {
+            assertEquals(i / 2 + 1, merged.get(i).id());
+            assertEquals(i % 2, merged.get(i).b());
+        }
+    }
+
     @Test
     public void testRemoveAllNoRemoving() {
 
@@ -200,4 +233,39 @@ public class LedStreamTest {
             assertEquals(expected.id(), actual.id());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRemoveAllWithLongIterator() {
+        LedStream<TestSchema> complementAB = ledStream.removeAll(LongStream.range(1, numElements).filter(i -> i % 3 == 0).iterator());
+
+        long count = 0;
+        while(complementAB.hasNext()) {
+            assertNotEquals(0, complementAB.next().id() % 3);
+            ++count;
+        }
+        assertEquals(numElements - 1 - (numElements - 1) / 3, count);
+    }
+
+    @Test
+    public void testRemoveAllLastIdOfOther() {
+        LedStream<TestSchema> complementAB = ledStream.removeAll(LongStream.of(numElements - 1).iterator());
+
+        long last = 0;
+        while(complementAB.hasNext()) {
+            last = complementAB.next().id();
+        }
+        assertEquals(numElements - 2, last);
+    }
+
+    @Test
+    public void testRetainAllWithLongIterator() {
+        LedStream<TestSchema> intersectionAB = ledStream.retainAll(LongStream.range(1, numElements).filter(i -> i % 3 == 0).iterator());
+
+        long expected = 3;
+        while(intersectionAB.hasNext()) {
+            assertEquals(expected, intersectionAB.next().id());
+            expected += 3;
+        }
+        assertTrue(expected >= numElements);
+    }
+}
@@ -1,6 +1,7 @@
 package systems.intino.test.schemas;
 
 import systems.intino.datamarts.led.Schema;
+import systems.intino.datamarts.led.allocators.SchemaFactory;
 import systems.intino.datamarts.led.buffers.store.ByteBufferStore;
 import systems.intino.datamarts.led.buffers.store.ByteStore;
 import systems.intino.datamarts.led.util.memory.MemoryAddress;
@@ -25,6 +26,13 @@ public class VentaEnergia extends Schema {
 
     public static final UUID SERIAL_UUID = UUID.randomUUID();
 
+    public static final SchemaFactory<VentaEnergia> FACTORY = new SchemaFactory<>(VentaEnergia.class) {
+        @Override
+        public VentaEnergia newInstance(ByteStore store) {
+            return new VentaEnergia(store);
+        }
+    };
+
     public VentaEnergia() {
         super(defaultByteStore());
     }
@@ -0,0 +1,364 @@
+package systems.intino.datamarts.zet;
+
+import java.util.Arrays;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class BitmapZet {
+	private static final int MaxArraySize = 4096;
+	private static final int Words = 1024;
+	private final long[] keys;
+	private final Container[] containers;
+
+	public BitmapZet(ZetStream stream) {
+		Builder builder = new Builder();
+		char[] values = new char[1 << 16];
+		int count = 0;
+		long key = -1;
+		while (stream.hasNext()) {
+			long id = stream.next();
+			if (id >>> 16 != key) {
+				builder.add(key, Container.of(values, count));
+				key = id >>> 16;
+				count = 0;
+			}
+			char low = (char) id;
+			if (count == 0 || values[count - 1] != low) values[count++] = low;
+		}
+		builder.add(key, Container.of(values, count));
+		this.keys = builder.keys();
+		this.containers = builder.containers();
+	}
+
+	private BitmapZet(long[] keys, Container[] containers) {
+		this.keys = keys;
+		this.containers = containers;
+	}
+
+	public boolean isIn(long id) {
+		int index = Arrays.binarySearch(keys, id >>> 16);
+		return index >= 0 && containers[index].contains((char) id);
+	}
+
+	public long size() {
+		long size = 0;
+		for (Container container : containers) size += container.cardinality();
+		return size;
+	}
+
+	public BitmapZet and(BitmapZet zet) {
+		Builder builder = new Builder();
+		int i = 0, j = 0;
+		while (i < keys.length && j < zet.keys.length) {
+			if (keys[i] < zet.keys[j]) i++;
+			else if (keys[i] > zet.keys[j]) j++;
+			else builder.add(keys[i], Container.and(containers[i++], zet.containers[j++]));
+		}
+		return builder.build();
+	}
+
+	public BitmapZet or(BitmapZet zet) {
+		Builder builder = new Builder();
+		int i = 0, j = 0;
+		while (i < keys.length || j < zet.keys.length) {
+			if (j == zet.keys.length || i < keys.length && keys[i] < zet.keys[j]) builder.add(keys[i], containers[i++]);
+			else if (i == keys.length || keys[i] > zet.keys[j]) builder.add(zet.keys[j], zet.containers[j++]);
+			else builder.add(keys[i], Container.or(containers[i++], zet.containers[j++]));
+		}
+		return builder.build();
+	}
+
+	public BitmapZet andNot(BitmapZet zet) {
+		Builder builder = new Builder();
+		int i = 0, j = 0;
+		while (i < keys.length) {
+			if (j == zet.keys.length || keys[i] < zet.keys[j]) builder.add(keys[i], containers[i++]);
+			else if (keys[i] > zet.keys[j]) j++;
+			else builder.add(keys[i], Container.andNot(containers[i++], zet.containers[j++]));
+		}
+		return builder.build();
+	}
+
+	public BitmapZet xor(BitmapZet zet) {
+		Builder builder = new Builder();
+		int i = 0, j = 0;
+		while (i < keys.length || j < zet.keys.length) {
+			if (j == zet.keys.length || i < keys.length && keys[i] < zet.keys[j]) builder.add(keys[i], containers[i++]);
+			else if (i == keys.length || keys[i] > zet.keys[j]) builder.add(zet.keys[j], zet.containers[j++]);
+			else builder.add(keys[i], Container.xor(containers[i++], zet.containers[j++]));
+		}
+		return builder.build();
+	}
+
+	public ZetStream stream() {
+		return new ZetStream.Partitionable() {
+			private int container = 0;
+			private int low = 0;
+			private long current = -1;
+			private long next = nextValue();
+
+			@Override
+			public long current() {
+				return current;
+			}
+
+			@Override
+			public long next() {
+				current = next;
+				next = nextValue();
+				return current;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != -1;
+			}
+
+			@Override
+			public long advanceTo(long id) {
+				if (current >= id) return current;
+				if (next != -1 && next < id) seek(id);
+				return hasNext() ? next() : -1;
+			}
+
+			@Override
+			public long[] splits() {
+				long[] splits = new long[keys.length];
+				for (int i = 0; i < keys.length; i++) splits[i] = keys[i] << 16;
+				return splits;
+			}
+
+			@Override
+			public ZetStream partition(long from, long to) {
+				return new Range(stream(), from, to);
+			}
+
+			private void seek(long id) {
+				int index = Arrays.binarySearch(keys, container, keys.length, id >>> 16);
+				container = index >= 0 ? index : -index - 1;
+				low = index >= 0 ? (int) (id & 0xFFFF) : 0;
+				next = nextValue();
+			}
+
+			private long nextValue() {
+				for (; container < containers.length; container++, low = 0) {
+					int value = containers[container].nextFrom(low);
+					if (value < 0) continue;
+					low = value + 1;
+					return keys[container] << 16 | value;
+				}
+				return -1;
+			}
+		};
+	}
+
+	private static class Builder {
+		private long[] keys = new long[16];
+		private Container[] containers = new Container[16];
+		private int size;
+
+		void add(long key, Container container) {
+			if (container == null) return;
+			if (size == keys.length) {
+				keys = Arrays.copyOf(keys, size * 2);
+				containers = Arrays.copyOf(containers, size * 2);
+			}
+			keys[size] = key;
+			containers[size++] = container;
+		}
+
+		long[] keys() {
+			return Arrays.copyOf(keys, size);
+		}
+
+		Container[] containers() {
+			return Arrays.copyOf(containers, size);
+		}
+
+		BitmapZet build() {
+			return new BitmapZet(keys(), containers());
+		}
+	}
+
+	private static abstract class Container {
+
+		abstract int cardinality();
+
+		abstract boolean contains(char low);
+
+		abstract int nextFrom(int low);
+
+		abstract long[] words();
+
+		static Container of(char[] values, int count) {
+			if (count == 0) return null;
+			if (count <= MaxArraySize) return new ArrayContainer(Arrays.copyOf(values, count));
+			long[] words = new long[Words];
+			for (int i = 0; i < count; i++) words[values[i] >>> 6] |= 1L << values[i];
+			return new BitmapContainer(words, count);
+		}
+
+		static Container of(long[] words) {
+			int cardinality = 0;
+			for (long word : words) cardinality += Long.bitCount(word);
+			if (cardinality == 0) return null;
+			if (cardinality > MaxArraySize) return new BitmapContainer(words, cardinality);
+			char[] values = new char[cardinality];
+			int count = 0;
+			for (int i = 0; i < Words; i++)
+				for (long word = words[i]; word != 0; word &= word - 1)
+					values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+			return new ArrayContainer(values);
+		}
+
+		static Container and(Container a, Container b) {
+			if (a instanceof ArrayContainer x && b instanceof ArrayContainer y) return x.and(y);
+			if (a instanceof ArrayContainer x) return x.filter(b, true);
+			if (b instanceof ArrayContainer y) return y.filter(a, true);
+			long[] words = a.words().clone();
+			long[] other = b.words();
+			for (int i = 0; i < Words; i++) words[i] &= other[i];
+			return of(words);
+		}
+
+		static Container or(Container a, Container b) {
+			if (a instanceof ArrayContainer x && b instanceof ArrayContainer y && x.cardinality() + y.cardinality() <= MaxArraySize)
+				return x.or(y);
+			long[] words = a.words().clone();
+			long[] other = b.words();
+			for (int i = 0; i < Words; i++) words[i] |= other[i];
+			return of(words);
+		}
+
+		static Container andNot(Container a, Container b) {
+			if (a instanceof ArrayContainer x) return x.filter(b, false);
+			long[] words = a.words().clone();
+			long[] other = b.words();
+			for (int i = 0; i < Words; i++) words[i] &= ~other[i];
+			return of(words);
+		}
+
+		static Container xor(Container a, Container b) {
+			if (a instanceof ArrayContainer x && b instanceof ArrayContainer y && x.cardinality() + y.cardinality() <= MaxArraySize)
+				return x.xor(y);
+			long[] words = a.words().clone();
+			long[] other = b.words();
+			for (int i = 0; i < Words; i++) words[i] ^= other[i];
+			return of(words);
+		}
+	}
+
+	private static class ArrayContainer extends Container {
+		private final char[] values;
+
+		ArrayContainer(char[] values) {
+			this.values = values;
+		}
+
+		@Override
+		int cardinality() {
+			return values.length;
+		}
+
+		@Override
+		boolean contains(char low) {
+			return Arrays.binarySearch(values, low) >= 0;
+		}
+
+		@Override
+		int nextFrom(int low) {
+			if (low > 0xFFFF) return -1;
+			int index = Arrays.binarySearch(values, (char) low);
+			if (index < 0) index = -index - 1;
+			return index < values.length ? values[index] : -1;
+		}
+
+		@Override
+		long[] words() {
+			long[] words = new long[Words];
+			for (char value : values) words[value >>> 6] |= 1L << value;
+			return words;
+		}
+
+		Container filter(Container container, boolean keep) {
+			char[] result = new char[values.length];
+			int count = 0;
+			for (char value : values) if (container.contains(value) == keep) result[count++] = value;
+			return of(result, count);
+		}
+
+		Container and(ArrayContainer container) {
+			char[] result = new char[Math.min(values.length, container.values.length)];
+			int i = 0, j = 0, count = 0;
+			while (i < values.length && j < container.values.length) {
+				if (values[i] < container.values[j]) i++;
+				else if (values[i] > container.values[j]) j++;
+				else {
+					result[count++] = values[i++];
+					j++;
+				}
+			}
+			return of(result, count);
+		}
+
+		Container or(ArrayContainer container) {
+			return merge(container, true);
+		}
+
+		Container xor(ArrayContainer container) {
+			return merge(container, false);
+		}
+
+		private Container merge(ArrayContainer container, boolean keepCommon) {
+			char[] other = container.values;
+			char[] result = new char[values.length + other.length];
+			int i = 0, j = 0, count = 0;
+			while (i < values.length || j < other.length) {
+				if (j == other.length || i < values.length && values[i] < other[j]) result[count++] = values[i++];
+				else if (i == values.length || values[i] > other[j]) result[count++] = other[j++];
+				else {
+					if (keepCommon) result[count++] = values[i];
+					i++;
+					j++;
+				}
+			}
+			return of(result, count);
+		}
+	}
+
+	private static class BitmapContainer extends Container {
+		private final long[] words;
+		private final int cardinality;
+
+		BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		boolean contains(char low) {
+			return (words[low >>> 6] & (1L << low)) != 0;
+		}
+
+		@Override
+		int nextFrom(int low) {
+			if (low > 0xFFFF) return -1;
+			int index = low >>> 6;
+			long word = words[index] & (-1L << low);
+			while (word == 0) {
+				if (++index == Words) return -1;
+				word = words[index];
+			}
+			return index << 6 | Long.numberOfTrailingZeros(word);
+		}
+
+		@Override
+		long[] words() {
+			return words;
+		}
+	}
+}
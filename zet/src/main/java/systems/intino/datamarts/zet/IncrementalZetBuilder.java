@@ -0,0 +1,138 @@
+package systems.intino.datamarts.zet;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.zet.io.ZDeltas;
+import systems.intino.datamarts.zet.io.ZOutputStream;
+
+import java.io.*;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class IncrementalZetBuilder {
+	private static final int DefaultMaxDeltas = 16;
+	private final File source;
+	private final int maxDeltas;
+	private final int indexStep;
+
+	public IncrementalZetBuilder(File file) {
+		this(file, DefaultMaxDeltas);
+	}
+
+	public IncrementalZetBuilder(File file, int maxDeltas) {
+		this(file, maxDeltas, 0);
+	}
+
+	public IncrementalZetBuilder(File file, int maxDeltas, int indexStep) {
+		this.source = file;
+		this.maxDeltas = maxDeltas;
+		this.indexStep = indexStep;
+		file.getAbsoluteFile().getParentFile().mkdirs();
+	}
+
+	public void put(long... data) {
+		put(new ZetReader(data));
+	}
+
+	public void put(List<Long> messages) {
+		put(new ZetReader(messages));
+	}
+
+	public void put(Stream<Long> stream) {
+		put(new ZetReader(stream));
+	}
+
+	public void put(ZetStream stream) {
+		if (!stream.hasNext()) return;
+		File file = write(stream);
+		locked(() -> {
+			if (claimDelta(file) > maxDeltas) compactDeltas();
+		});
+	}
+
+	public void compact() {
+		locked(this::compactDeltas);
+	}
+
+	private void compactDeltas() {
+		List<File> deltas = ZDeltas.of(source);
+		if (deltas.isEmpty()) return;
+		List<ZetStream> streams = new ArrayList<>();
+		streams.add(read(source));
+		for (File delta : deltas) streams.add(read(delta));
+		if (move(write(new ZetStream.Union(streams)), source)) ZDeltas.delete(deltas);
+	}
+
+	private int claimDelta(File file) {
+		for (int index = ZDeltas.of(source).size(); ; index++) {
+			try {
+				Files.move(file.toPath(), ZDeltas.delta(source, index).toPath());
+				return index + 1;
+			} catch (FileAlreadyExistsException e) {
+				// slot already taken, try the next one
+			} catch (IOException e) {
+				Logger.error(e);
+				file.delete();
+				return 0;
+			}
+		}
+	}
+
+	private void locked(Runnable action) {
+		try {
+			ZetLock.locked(source, action::run);
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private File write(ZetStream stream) {
+		File file = tempFile();
+		boolean written = false;
+		try (ZOutputStream os = new ZOutputStream(new BufferedOutputStream(new FileOutputStream(file)), indexStep)) {
+			while (stream.hasNext()) os.writeLong(stream.next());
+			written = true;
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		} finally {
+			if (!written) file.delete();
+		}
+		return file;
+	}
+
+	private boolean move(File file, File destination) {
+		try {
+			Files.move(file.toPath(), destination.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+			return true;
+		} catch (IOException e) {
+			Logger.error(e);
+			file.delete();
+			return false;
+		}
+	}
+
+	private File tempFile() {
+		try {
+			return File.createTempFile("." + source.getName() + ".", ".tmp", source.getAbsoluteFile().getParentFile());
+		} catch (IOException e) {
+			Logger.error(e);
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private static ZetStream read(File file) {
+		try {
+			return new ZetReader(new BufferedInputStream(new FileInputStream(file)));
+		} catch (FileNotFoundException e) {
+			return ZetStream.Empty.instance;
+		}
+	}
+}
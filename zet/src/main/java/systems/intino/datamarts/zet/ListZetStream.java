@@ -1,13 +1,12 @@
 package systems.intino.datamarts.zet;
 
-import java.util.Iterator;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
-import static java.util.Arrays.stream;
-
 public class ListZetStream implements ZetStream {
-	private final Iterator<Long> iterator;
+	private final PrimitiveIterator.OfLong iterator;
 	private long current;
 
 	public ListZetStream(List<Long> ids) {
@@ -15,10 +14,14 @@ public class ListZetStream implements ZetStream {
 	}
 
 	public ListZetStream(long... ids) {
-		this(stream(ids).boxed());
+		this(LongStream.of(ids));
 	}
 
 	public ListZetStream(Stream<Long> ids) {
+		this(ids.mapToLong(Long::longValue));
+	}
+
+	public ListZetStream(LongStream ids) {
 		iterator = ids.iterator();
 	}
 
@@ -29,7 +32,7 @@ public class ListZetStream implements ZetStream {
 
 	@Override
 	public long next() {
-		return current = iterator.next();
+		return current = iterator.nextLong();
 	}
 
 	@Override
@@ -0,0 +1,149 @@
+package systems.intino.datamarts.zet;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.zet.io.ZDeltas;
+import systems.intino.datamarts.zet.io.ZIndex;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class MappedZetReader implements ZetStream.Partitionable {
+	private static final long SegmentSize = 1L << 30;
+	private static final int MaxBlockSize = 2 + 8 + 256;
+	private MappedByteBuffer[] segments;
+	private final ZIndex index;
+	private final long length;
+	private MappedByteBuffer block;
+	private long position;
+	private long base;
+	private int data;
+	private int count;
+	private int cursor;
+	private long current = -1;
+	private boolean closed;
+
+	public MappedZetReader(File file) {
+		if (ZDeltas.exist(file)) throw new IllegalStateException(file + " has pending deltas. Compact it before opening a MappedZetReader");
+		long length = 0;
+		MappedByteBuffer[] segments = new MappedByteBuffer[0];
+		ZIndex index = null;
+		try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+			length = raf.length();
+			segments = map(raf.getChannel(), length);
+			index = ZIndex.read(raf);
+		} catch (IOException e) {
+			if (file.exists()) Logger.error(e);
+		}
+		this.length = length;
+		this.segments = segments;
+		this.index = index;
+	}
+
+	private MappedZetReader(MappedZetReader reader) {
+		this.length = reader.length;
+		this.segments = reader.segments;
+		this.index = reader.index;
+	}
+
+	@Override
+	public long current() {
+		return current;
+	}
+
+	@Override
+	public long next() {
+		if (cursor == count) {
+			if (!hasBlock()) {
+				close();
+				return current = -1;
+			}
+			readBlock();
+		}
+		return current = (base << 8) | (block.get(data + cursor++) & 0xFF);
+	}
+
+	@Override
+	public boolean hasNext() {
+		if (cursor < count || hasBlock()) return true;
+		close();
+		return false;
+	}
+
+	@Override
+	public long advanceTo(long id) {
+		if (current >= id) return current;
+		if (closed) return -1;
+		seek(id);
+		while (hasNext()) if (next() >= id) return current;
+		return -1;
+	}
+
+	@Override
+	public long[] splits() {
+		return index != null ? index.ids() : new long[0];
+	}
+
+	@Override
+	public ZetStream partition(long from, long to) {
+		if (closed) return Empty.instance;
+		return new Range(new MappedZetReader(this), from, to);
+	}
+
+	@Override
+	public void close() {
+		if (closed) return;
+		closed = true;
+		cursor = count = 0;
+		block = null;
+		segments = null;
+	}
+
+	private void seek(long id) {
+		if (index == null) return;
+		int entry = index.entryOf(id);
+		if (entry < 0 || index.offset(entry) < position) return;
+		position = index.offset(entry);
+		base = index.id(entry) >> 8;
+		count = cursor = 0;
+	}
+
+	private boolean hasBlock() {
+		return !closed && position < length && (segmentAt(position).get(offsetOf(position)) & 0xFF) <= 8;
+	}
+
+	private void readBlock() {
+		block = segmentAt(position);
+		int offset = offsetOf(position);
+		int level = block.get(offset++) & 0xFF;
+		base = base >> (level << 3);
+		for (int i = 0; i < level; i++) base = (base << 8) | (block.get(offset++) & 0xFF);
+		count = block.get(offset++) & 0xFF;
+		if (count == 0) count = 256;
+		data = offset;
+		cursor = 0;
+		position += level + 2 + count;
+	}
+
+	private MappedByteBuffer segmentAt(long position) {
+		return segments[(int) (position / SegmentSize)];
+	}
+
+	private static int offsetOf(long position) {
+		return (int) (position % SegmentSize);
+	}
+
+	private static MappedByteBuffer[] map(FileChannel channel, long length) throws IOException {
+		MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((length + SegmentSize - 1) / SegmentSize)];
+		for (int i = 0; i < segments.length; i++) {
+			long start = i * SegmentSize;
+			segments[i] = channel.map(READ_ONLY, start, Math.min(SegmentSize + MaxBlockSize, length - start));
+		}
+		return segments;
+	}
+}
@@ -0,0 +1,89 @@
+package systems.intino.datamarts.zet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import static systems.intino.datamarts.zet.ZetStream.Partitionable;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class ParallelZetStream implements ZetStream {
+	private static final int PartitionsPerThread = 4;
+	private final ZetStream source;
+	private final List<ForkJoinTask<long[]>> tasks;
+	private long[] ids = new long[0];
+	private int task = 0;
+	private int index = 0;
+	private long current = -1;
+
+	public ParallelZetStream(ZetStream stream) {
+		this(stream, ForkJoinPool.commonPool());
+	}
+
+	public ParallelZetStream(ZetStream stream, ForkJoinPool pool) {
+		this.source = stream;
+		this.tasks = stream instanceof Partitionable p && p.isPartitionable() ?
+				submit(p, bounds(p.splits(), pool.getParallelism() * PartitionsPerThread), pool) :
+				List.of(pool.submit(stream::toLongArray));
+	}
+
+	@Override
+	public long current() {
+		return current;
+	}
+
+	@Override
+	public long next() {
+		return current = hasNext() ? ids[index++] : -1;
+	}
+
+	@Override
+	public boolean hasNext() {
+		while (index == ids.length && task < tasks.size()) {
+			ids = tasks.get(task++).join();
+			index = 0;
+			if (task == tasks.size()) source.close();
+		}
+		return index < ids.length;
+	}
+
+	@Override
+	public void close() {
+		for (ForkJoinTask<long[]> task : tasks) task.cancel(false);
+		for (ForkJoinTask<long[]> task : tasks) task.quietlyJoin();
+		task = tasks.size();
+		ids = new long[0];
+		index = 0;
+		source.close();
+	}
+
+	private static List<ForkJoinTask<long[]>> submit(Partitionable stream, long[] bounds, ForkJoinPool pool) {
+		List<ForkJoinTask<long[]>> tasks = new ArrayList<>(bounds.length + 1);
+		long from = 0;
+		for (int i = 0; i <= bounds.length; i++) {
+			long start = from;
+			long end = i < bounds.length ? bounds[i] : Long.MAX_VALUE;
+			tasks.add(pool.submit(() -> {
+				try (ZetStream partition = stream.partition(start, end)) {
+					return partition.toLongArray();
+				}
+			}));
+			from = end;
+		}
+		return tasks;
+	}
+
+	private static long[] bounds(long[] splits, int partitions) {
+		if (splits.length <= 1 || partitions <= 1) return new long[0];
+		int count = Math.min(partitions, splits.length) - 1;
+		long[] bounds = new long[count];
+		int size = 0;
+		for (int i = 1; i <= count; i++) {
+			long bound = splits[(int) ((long) i * splits.length / (count + 1))];
+			if (bound > 0 && (size == 0 || bound > bounds[size - 1])) bounds[size++] = bound;
+		}
+		return Arrays.copyOf(bounds, size);
+	}
+}
@@ -0,0 +1,125 @@
+package systems.intino.datamarts.zet;
+
+import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.zet.io.ZDeltas;
+import systems.intino.datamarts.zet.io.ZIndex;
+import systems.intino.datamarts.zet.io.ZInputStream;
+
+import java.io.*;
+import java.nio.channels.Channels;
+
+@SuppressWarnings({"WeakerAccess", "unused"})
+public class SeekableZetReader implements ZetStream.Partitionable {
+	private final File source;
+	private final RandomAccessFile file;
+	private final ZIndex index;
+	private ZInputStream stream;
+	private long current = -1;
+	private long next;
+
+	public SeekableZetReader(File file) {
+		if (ZDeltas.exist(file)) throw new IllegalStateException(file + " has pending deltas. Compact it before opening a SeekableZetReader");
+		this.source = file;
+		this.file = open(file);
+		this.index = indexOf(this.file);
+		this.stream = streamAt(0, 0);
+		this.next = read();
+	}
+
+	@Override
+	public long current() {
+		return current;
+	}
+
+	@Override
+	public long next() {
+		current = next;
+		next = read();
+		return current;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return next != -1;
+	}
+
+	@Override
+	public long advanceTo(long id) {
+		if (current >= id) return current;
+		seek(id);
+		while (next != -1 && next < id) next = read();
+		return next != -1 ? next() : -1;
+	}
+
+	@Override
+	public long[] splits() {
+		return index != null ? index.ids() : new long[0];
+	}
+
+	@Override
+	public ZetStream partition(long from, long to) {
+		return new Range(new SeekableZetReader(source), from, to);
+	}
+
+	private void seek(long id) {
+		if (index == null || next == -1) return;
+		int entry = index.entryOf(id);
+		if (entry < 0 || index.id(entry) <= next) return;
+		stream = streamAt(index.offset(entry), index.id(entry) >> 8);
+		next = read();
+	}
+
+	private long read() {
+		if (stream == null) return -1;
+		try {
+			return stream.readLong();
+		} catch (IOException e) {
+			release();
+			return -1;
+		}
+	}
+
+	private ZInputStream streamAt(long offset, long base) {
+		if (file == null) return null;
+		try {
+			return new ZInputStream(new BufferedInputStream(Channels.newInputStream(file.getChannel().position(offset))), base);
+		} catch (IOException e) {
+			Logger.error(e);
+			return null;
+		}
+	}
+
+	@Override
+	public void close() {
+		release();
+	}
+
+	private void release() {
+		stream = null;
+		next = -1;
+		if (file == null) return;
+		try {
+			file.close();
+		} catch (IOException e) {
+			Logger.error(e);
+		}
+	}
+
+	private static ZIndex indexOf(RandomAccessFile file) {
+		if (file == null) return null;
+		try {
+			return ZIndex.read(file);
+		} catch (IOException e) {
+			Logger.error(e);
+			return null;
+		}
+	}
+
+	private static RandomAccessFile open(File file) {
+		try {
+			return new RandomAccessFile(file, "r");
+		} catch (IOException e) {
+			return null;
+		}
+	}
+}
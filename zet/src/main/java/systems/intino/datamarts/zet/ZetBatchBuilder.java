@@ -0,0 +1,114 @@
+package systems.intino.datamarts.zet;
+
+import io.intino.alexandria.logger.Logger;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SuppressWarnings({"unused", "WeakerAccess"})
+public class ZetBatchBuilder implements AutoCloseable {
+	private static final int DefaultMaxIds = 1 << 24;
+	private final int maxIds;
+	private final int threads;
+	private final int indexStep;
+	private final Map<Path, Integer> targets = new HashMap<>();
+	private final List<File> files = new ArrayList<>();
+	private int[] fileIndices;
+	private long[] ids;
+	private int size;
+
+	public ZetBatchBuilder() {
+		this(DefaultMaxIds, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ZetBatchBuilder(int maxIds, int threads) {
+		this(maxIds, threads, 0);
+	}
+
+	public ZetBatchBuilder(int maxIds, int threads, int indexStep) {
+		this.maxIds = maxIds;
+		this.threads = threads;
+		this.indexStep = indexStep;
+		this.fileIndices = new int[Math.min(maxIds, 1024)];
+		this.ids = new long[fileIndices.length];
+	}
+
+	public void put(File file, long id) {
+		if (size == ids.length) grow();
+		fileIndices[size] = targets.computeIfAbsent(file.getAbsoluteFile().toPath().normalize(), this::register);
+		ids[size++] = id;
+		if (size >= maxIds) flush();
+	}
+
+	public void put(File file, long... ids) {
+		for (long id : ids) put(file, id);
+	}
+
+	public void flush() {
+		if (size == 0) return;
+		int[] offsets = new int[files.size() + 1];
+		for (int i = 0; i < size; i++) offsets[fileIndices[i] + 1]++;
+		for (int i = 1; i < offsets.length; i++) offsets[i] += offsets[i - 1];
+		long[] sorted = new long[size];
+		int[] cursors = Arrays.copyOf(offsets, files.size());
+		for (int i = 0; i < size; i++) sorted[cursors[fileIndices[i]]++] = ids[i];
+		merge(sorted, offsets);
+		targets.clear();
+		files.clear();
+		size = 0;
+	}
+
+	@Override
+	public void close() {
+		flush();
+	}
+
+	private void merge(long[] sorted, int[] offsets) {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>(files.size());
+		for (int i = 0; i < files.size(); i++) {
+			File file = files.get(i);
+			int from = offsets[i];
+			int to = offsets[i + 1];
+			futures.add(executor.submit(() -> {
+				Arrays.sort(sorted, from, to);
+				new ZetBuilder(file, indexStep).update(new ListZetStream(Arrays.stream(sorted, from, to)));
+				return null;
+			}));
+		}
+		try {
+			RuntimeException failure = null;
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					Logger.error(e.getCause());
+					if (failure == null) failure = new IllegalStateException("Failed to merge zet batch", e.getCause());
+					else failure.addSuppressed(e.getCause());
+				}
+			}
+			if (failure != null) throw failure;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while merging zet batch", e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private int register(Path path) {
+		files.add(path.toFile());
+		return files.size() - 1;
+	}
+
+	private void grow() {
+		int length = (int) Math.min((long) ids.length * 2, Math.max(maxIds, ids.length + 1));
+		fileIndices = Arrays.copyOf(fileIndices, length);
+		ids = Arrays.copyOf(ids, length);
+	}
+}
@@ -1,24 +1,30 @@
 package systems.intino.datamarts.zet;
 
 import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.zet.io.ZDeltas;
 import systems.intino.datamarts.zet.io.ZOutputStream;
 
-import java.io.BufferedOutputStream;
-import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
+import java.io.*;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
 import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 @SuppressWarnings({"unused", "WeakerAccess"})
 public class ZetBuilder {
 	private final File source;
+	private final int indexStep;
 
 	public ZetBuilder(File file) {
+		this(file, 0);
+	}
+
+	public ZetBuilder(File file, int indexStep) {
 		this.source = file;
+		this.indexStep = indexStep;
 		file.getParentFile().mkdirs();
 	}
 
@@ -36,39 +42,48 @@ public class ZetBuilder {
 
 	public void put(ZetStream stream) {
 		try {
-			Files.move(merge(stream).toPath(), source.toPath(), REPLACE_EXISTING);
+			update(stream);
 		} catch (IOException e) {
 			Logger.error(e);
 		}
 	}
 
-	private File merge(ZetStream data) {
-		File file = tempFile();
+	void update(ZetStream stream) throws IOException {
+		ZetLock.locked(source, () -> {
+			List<File> deltas = ZDeltas.of(source);
+			Files.move(merge(stream, deltas).toPath(), source.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+			ZDeltas.delete(deltas);
+		});
+	}
+
+	private File merge(ZetStream data, List<File> deltas) throws IOException {
+		File file = File.createTempFile("." + source.getName() + ".", ".tmp", source.getAbsoluteFile().getParentFile());
+		boolean merged = false;
 		try (ZOutputStream os = zipStream(file)) {
-			ZetStream stream = mergeFileWith(data);
+			ZetStream stream = mergeFileWith(data, deltas);
 			while (stream.hasNext()) os.writeLong(stream.next());
-		} catch (IOException e) {
-			Logger.error(e);
+			merged = true;
+		} finally {
+			if (!merged) file.delete();
 		}
 		return file;
 	}
 
-
 	private ZOutputStream zipStream(File file) throws IOException {
-		return new ZOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		return new ZOutputStream(new BufferedOutputStream(new FileOutputStream(file)), indexStep);
 	}
 
-	private File tempFile() {
-		try {
-			return File.createTempFile("merge", "zim");
-		} catch (IOException e) {
-			Logger.error(e);
-			return new File("merge");
-		}
+	private ZetStream mergeFileWith(ZetStream stream, List<File> deltas) throws IOException {
+		List<ZetStream> streams = new ArrayList<>();
+		streams.add(segment(source));
+		for (File delta : deltas) streams.add(segment(delta));
+		streams.add(stream);
+		return new ZetStream.Union(streams);
 	}
 
-	private ZetStream mergeFileWith(ZetStream stream) {
-		return new ZetStream.Union(new ZetReader(source), stream);
+	private static ZetStream segment(File file) throws IOException {
+		if (!file.exists()) return ZetStream.Empty.instance;
+		return new ZetReader(new BufferedInputStream(new FileInputStream(file)));
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package systems.intino.datamarts.zet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+final class ZetLock {
+	private static final Map<Path, Monitor> Monitors = new ConcurrentHashMap<>();
+
+	private ZetLock() {
+	}
+
+	static void locked(File source, Action action) throws IOException {
+		Path key = source.getAbsoluteFile().toPath().normalize();
+		Monitor monitor = Monitors.compute(key, (k, m) -> (m != null ? m : new Monitor()).acquire());
+		try {
+			synchronized (monitor) {
+				try (FileChannel channel = FileChannel.open(lockFile(source).toPath(), CREATE, WRITE)) {
+					FileLock lock = channel.lock();
+					try {
+						action.run();
+					} finally {
+						lock.release();
+					}
+				}
+			}
+		} finally {
+			Monitors.computeIfPresent(key, (k, m) -> m.release());
+		}
+	}
+
+	private static File lockFile(File source) {
+		return new File(source.getPath() + ".lock");
+	}
+
+	interface Action {
+		void run() throws IOException;
+	}
+
+	private static final class Monitor {
+		private int users;
+
+		Monitor acquire() {
+			users++;
+			return this;
+		}
+
+		Monitor release() {
+			return --users == 0 ? null : this;
+		}
+	}
+}
@@ -1,21 +1,24 @@
 package systems.intino.datamarts.zet;
 
 import io.intino.alexandria.logger.Logger;
+import systems.intino.datamarts.zet.io.ZDeltas;
 import systems.intino.datamarts.zet.io.ZInputStream;
 
 import java.io.*;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 @SuppressWarnings({"WeakerAccess", "unused"})
 public class ZetReader implements ZetStream {
-	private final Iterator<Long> iterator;
+	private final PrimitiveIterator.OfLong iterator;
 	private long current = -1;
 
 	public ZetReader(File file) {
-		this(iteratorOf(inputStream(file)));
+		this(iteratorOf(file));
 	}
 
 	public ZetReader(InputStream is) {
@@ -23,19 +26,23 @@ public class ZetReader implements ZetStream {
 	}
 
 	public ZetReader(long... ids) {
-		this(Arrays.stream(ids).boxed());
+		this(LongStream.of(ids));
 	}
 
 	public ZetReader(List<Long> ids) {
 		this(ids.stream());
 	}
 
+	public ZetReader(LongStream stream) {
+		this(stream.sorted().iterator());
+	}
+
 	public long current() {
 		return this.current;
 	}
 
 	public long next() {
-		return this.current = this.iterator.next();
+		return this.current = this.iterator.nextLong();
 	}
 
 	public boolean hasNext() {
@@ -43,18 +50,43 @@ public class ZetReader implements ZetStream {
 	}
 
 	public ZetReader(Stream<Long> stream) {
-		this(stream.sorted().iterator());
+		this(stream.mapToLong(Long::longValue));
 	}
 
 	public ZetReader(Iterator<Long> iterator) {
+		this(iteratorOf(iterator));
+	}
+
+	public ZetReader(PrimitiveIterator.OfLong iterator) {
 		this.iterator = iterator;
 	}
 
-	private static Iterator<Long> iteratorOf(final ZInputStream stream) {
-		return new Iterator<>() {
+	private static PrimitiveIterator.OfLong iteratorOf(File file) {
+		List<File> deltas = ZDeltas.of(file);
+		if (deltas.isEmpty()) return iteratorOf(inputStream(file));
+		List<ZetStream> streams = new ArrayList<>();
+		streams.add(new ZetReader(iteratorOf(inputStream(file))));
+		for (File delta : deltas) streams.add(new ZetReader(iteratorOf(inputStream(delta))));
+		return new Union(streams).asLongIterator();
+	}
+
+	private static PrimitiveIterator.OfLong iteratorOf(Iterator<Long> iterator) {
+		return new PrimitiveIterator.OfLong() {
+			public long nextLong() {
+				return iterator.next();
+			}
+
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+		};
+	}
+
+	private static PrimitiveIterator.OfLong iteratorOf(final ZInputStream stream) {
+		return new PrimitiveIterator.OfLong() {
 			private long next = read();
 
-			public Long next() {
+			public long nextLong() {
 				long next = this.next;
 				this.next = read();
 				return next;
@@ -1,39 +1,81 @@
 package systems.intino.datamarts.zet;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.util.Arrays.asList;
 
-public interface ZetStream {
+public interface ZetStream extends AutoCloseable {
 	long current();
 
 	long next();
 
 	boolean hasNext();
 
+	@Override
+	default void close() {
+	}
+
+	static void closeAll(List<ZetStream> streams) {
+		for (ZetStream stream : streams) stream.close();
+	}
+
+	default long advanceTo(long id) {
+		long current = current();
+		while (current < id) {
+			if (!hasNext()) return -1;
+			current = next();
+		}
+		return current;
+	}
+
+	default ZetStream parallel() {
+		return new ParallelZetStream(this);
+	}
+
+	default ZetStream parallel(ForkJoinPool pool) {
+		return new ParallelZetStream(this, pool);
+	}
+
 	default Iterator<Long> asIterator(){
-		return new Iterator<>() {
+		return asLongIterator();
+	}
+
+	default PrimitiveIterator.OfLong asLongIterator() {
+		return new PrimitiveIterator.OfLong() {
 			@Override
 			public boolean hasNext() {
 				return ZetStream.this.hasNext();
 			}
 
 			@Override
-			public Long next() {
+			public long nextLong() {
 				return ZetStream.this.next();
 			}
 		};
 	}
 
+	default long[] toLongArray() {
+		long[] ids = new long[1024];
+		int size = 0;
+		while (hasNext()) {
+			if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+			ids[size++] = next();
+		}
+		return Arrays.copyOf(ids, size);
+	}
+
 	@SuppressWarnings({"WeakerAccess", "unused"})
-	class Difference implements ZetStream {
+	class Difference implements Partitionable {
 
+		private final List<ZetStream> inputs;
 		private final List<ZetStream> streams;
 		private final ZetStream stream;
 		private long next;
 		private long current = -1;
 
 		public Difference(List<ZetStream> streams) {
+			this.inputs = streams;
 			this.stream = !streams.isEmpty() ? streams.getFirst() : null;
 			this.streams = new ArrayList<>(streams.subList(1, streams.size()));
 			this.streams.forEach(ZetStream::next);
@@ -53,16 +95,21 @@ public interface ZetStream {
 		public long next() {
 			current = next;
 			next = nextValue();
+			if (next == -1) close();
 			return current;
 		}
 
+		@Override
+		public void close() {
+			closeAll(inputs);
+		}
+
 		private long nextValue() {
 			while (stream.hasNext()) {
 				long value = stream.next();
 				boolean ignore = false;
 				for (ZetStream zetStream : streams) {
-					while (zetStream.current() != -1 && zetStream.current() < value) zetStream.next();
-					if (zetStream.current() == value) {
+					if (zetStream.current() != -1 && zetStream.advanceTo(value) == value) {
 						ignore = true;
 						break;
 					}
@@ -74,19 +121,39 @@ public interface ZetStream {
 
 		@Override
 		public boolean hasNext() {
-			return this.next != -1;
+			if (next != -1) return true;
+			close();
+			return false;
+		}
+
+		@Override
+		public boolean isPartitionable() {
+			return Partitionable.all(inputs);
+		}
+
+		@Override
+		public long[] splits() {
+			return Partitionable.splits(inputs);
+		}
+
+		@Override
+		public ZetStream partition(long from, long to) {
+			return new Difference(Partitionable.partition(inputs, from, to));
 		}
 	}
 
 	@SuppressWarnings({"WeakerAccess", "unused"})
-	class SymmetricDifference implements ZetStream {
-		private final List<ZetStream> streams;
+	class SymmetricDifference implements Partitionable {
+		private final List<ZetStream> inputs;
+		private final ZetStreamHeap heap;
+		private final int[] indices;
 		private long next;
 		private long current;
 
 		public SymmetricDifference(List<ZetStream> streams) {
-			this.streams = streams;
-			this.streams.forEach(ZetStream::next);
+			this.inputs = streams;
+			this.heap = new ZetStreamHeap(streams);
+			this.indices = new int[heap.streams()];
 			this.next = nextValue();
 			this.current = -1;
 		}
@@ -104,51 +171,50 @@ public interface ZetStream {
 		public long next() {
 			this.current = this.next;
 			this.next = nextValue();
+			if (next == -1) close();
 			return this.current;
 		}
 
-		private long nextValue() {
-			boolean duplicated;
-			int index;
-			long min;
-			do {
-				index = -1;
-				min = Long.MAX_VALUE;
-				duplicated = false;
-				for (int i = 0; i < streams.size(); i++) {
-					ZetStream stream = streams.get(i);
-					if (stream.current() == -1 || stream.current() > min) continue;
-					if (stream.current() < min) {
-						min = stream.current();
-						index = i;
-					} else {
-						duplicated = true;
-						advance(index);
-						advance(i);
-						for (int j = i + 1; j < streams.size(); j++)
-							if (streams.get(j).current() == min) advance(j);
-						break;
-					}
-				}
-				if (index < 0) return -1;
-			} while (duplicated);
-			advance(index);
-			return min;
+		@Override
+		public void close() {
+			closeAll(inputs);
 		}
 
-		private void advance(int i) {
-			if (streams.get(i).hasNext()) streams.get(i).next();
-			else streams.set(i, Empty.instance);
+		private long nextValue() {
+			while (!heap.isEmpty()) {
+				long min = heap.min();
+				int count = heap.pollAll(min, indices);
+				heap.advance(indices, count);
+				if (count == 1) return min;
+			}
+			return -1;
 		}
 
 		@Override
 		public boolean hasNext() {
-			return next != -1;
+			if (next != -1) return true;
+			close();
+			return false;
+		}
+
+		@Override
+		public boolean isPartitionable() {
+			return Partitionable.all(inputs);
+		}
+
+		@Override
+		public long[] splits() {
+			return Partitionable.splits(inputs);
+		}
+
+		@Override
+		public ZetStream partition(long from, long to) {
+			return new SymmetricDifference(Partitionable.partition(inputs, from, to));
 		}
 	}
 
 	@SuppressWarnings({"WeakerAccess", "unused"})
-	class Intersection implements ZetStream {
+	class Intersection implements Partitionable {
 
 		private final List<ZetStream> streams;
 		private long next;
@@ -173,9 +239,15 @@ public interface ZetStream {
 		public long next() {
 			this.current = this.next;
 			this.next = nextValue(advancing());
+			if (next == -1) close();
 			return this.current;
 		}
 
+		@Override
+		public void close() {
+			closeAll(streams);
+		}
+
 		private long advancing() {
 			long max = Long.MIN_VALUE;
 			for (ZetStream stream : streams) {
@@ -189,13 +261,10 @@ public interface ZetStream {
 		private long nextValue(long max) {
 			if (max == Long.MAX_VALUE) return -1;
 			for (int i = 0; i < streams.size(); i++) {
-				ZetStream stream = streams.get(i);
-				while (stream.current() < max) {
-					if (stream.current() == -1 || !stream.hasNext()) return -1;
-					stream.next();
-				}
-				if (stream.current() == max) continue;
-				max = stream.current();
+				long value = streams.get(i).advanceTo(max);
+				if (value == -1) return -1;
+				if (value == max) continue;
+				max = value;
 				i = -1;
 			}
 			return max;
@@ -204,17 +273,35 @@ public interface ZetStream {
 
 		@Override
 		public boolean hasNext() {
-			return next != -1;
+			if (next != -1) return true;
+			close();
+			return false;
+		}
+
+		@Override
+		public boolean isPartitionable() {
+			return Partitionable.all(streams);
+		}
+
+		@Override
+		public long[] splits() {
+			return Partitionable.splits(streams);
+		}
+
+		@Override
+		public ZetStream partition(long from, long to) {
+			return new Intersection(Partitionable.partition(streams, from, to));
 		}
 	}
 
 	@SuppressWarnings("WeakerAccess")
-	class Union implements ZetStream {
-		private final List<ZetStreamWithIndex> streams = new ArrayList<>();
+	class Union implements Partitionable {
+		private final List<ZetStream> inputs;
+		private final ZetStreamHeap heap;
+		private final int[] indices;
 		private final int minFrequency;
 		private final int maxFrequency;
 		private final boolean consecutive;
-		private final Comparator<ZetStreamWithIndex> comparator = Comparator.comparing(a -> a.stream.current());
 		private long current = -1;
 		private long next = -1;
 
@@ -227,10 +314,9 @@ public interface ZetStream {
 		}
 
 		public Union(List<ZetStream> streams, int minFrequency, int maxFrequency, boolean consecutive) {
-			for (int i = 0; i < streams.size(); i++) this.streams.add(new ZetStreamWithIndex(streams.get(i), i));
-			this.streams.forEach(s -> s.stream.next());
-			this.streams.sort(comparator);
-			while (!this.streams.isEmpty() && this.streams.getFirst().stream.current() == -1) this.streams.removeFirst();
+			this.inputs = streams;
+			this.heap = new ZetStreamHeap(streams);
+			this.indices = new int[heap.streams()];
 			this.minFrequency = minFrequency;
 			this.maxFrequency = maxFrequency;
 			this.consecutive = consecutive;
@@ -252,63 +338,64 @@ public interface ZetStream {
 		public boolean hasNext() {
 			if (current != next) return true;
 			while (true) {
-				next = !this.streams.isEmpty() ? this.streams.getFirst().stream.current() : -1;
-				if (next == -1) return false;
-				List<ZetStreamWithIndex> streams = itemsWith(next);
-				if (current != next && isValid(streams)) {
-					updateStreams(streams);
-					return true;
+				next = !heap.isEmpty() ? heap.min() : -1;
+				if (next == -1) {
+					close();
+					return false;
 				}
-				updateStreams(streams);
+				int count = heap.pollAll(next, indices);
+				boolean valid = current != next && isValid(count);
+				heap.advance(indices, count);
+				if (valid) return true;
 			}
 		}
 
-		private void updateStreams(List<ZetStreamWithIndex> items) {
-			for (int i = 0; i < items.size(); i++) {
-				ZetStreamWithIndex stream = streams.removeFirst();
-				if (!stream.stream.hasNext()) continue;
-				stream.stream.next();
-				int index = Collections.binarySearch(streams, stream, comparator);
-				index = index < 0 ? (index + 1) * -1 : index;
-				streams.add(index, stream);
-			}
+		@Override
+		public void close() {
+			closeAll(inputs);
 		}
 
-		private boolean isValid(List<ZetStreamWithIndex> streams) {
-			if (!consecutive) return streams.size() >= minFrequency && streams.size() <= maxFrequency;
-			streams.sort(Comparator.comparing(i -> i.index));
+		private boolean isValid(int frequency) {
+			if (!consecutive) return frequency >= minFrequency && frequency <= maxFrequency;
+			Arrays.sort(indices, 0, frequency);
 			int count = 0;
 			int lastIndex = -2;
-			for (ZetStreamWithIndex stream : streams) {
-				if (stream.index - lastIndex != 1) {
+			for (int i = 0; i < frequency; i++) {
+				if (indices[i] - lastIndex != 1) {
 					if (count >= minFrequency && count <= maxFrequency) return true;
 					count = 0;
 				} else count++;
-				lastIndex = stream.index;
+				lastIndex = indices[i];
 			}
 			return count >= minFrequency && count <= maxFrequency;
 		}
 
-		private List<ZetStreamWithIndex> itemsWith(long key) {
-			List<ZetStreamWithIndex> streams = new ArrayList<>();
-			for (ZetStreamWithIndex stream : this.streams) {
-				if (stream.stream.current() != key) break;
-				streams.add(stream);
-			}
-			return streams;
+		@Override
+		public boolean isPartitionable() {
+			return Partitionable.all(inputs);
+		}
+
+		@Override
+		public long[] splits() {
+			return Partitionable.splits(inputs);
 		}
 
+		@Override
+		public ZetStream partition(long from, long to) {
+			return new Union(Partitionable.partition(inputs, from, to), minFrequency, maxFrequency, consecutive);
+		}
 	}
 
-	class Merge implements ZetStream {
-		private final List<ZetStream> streams;
+	class Merge implements Partitionable {
+		private final List<ZetStream> inputs;
+		private final ZetStreamHeap heap;
 		private long current;
 		private long next;
 
 		public Merge(List<ZetStream> streams) {
-			this.streams = streams;
+			this.inputs = streams;
+			this.heap = new ZetStreamHeap(streams);
 			this.current = -1;
-			this.streams.forEach(ZetStream::next);
 			this.next = nextValue();
 		}
 
@@ -323,26 +410,118 @@ public interface ZetStream {
 		public long next() {
 			this.current = next;
 			this.next = nextValue();
+			if (next == -1) close();
 			return this.current;
 		}
 
+		@Override
+		public void close() {
+			closeAll(inputs);
+		}
+
 		private long nextValue() {
-			int index = -1;
-			long min = Long.MAX_VALUE;
-			for (int i = 0; i < streams.size(); i++) {
-				ZetStream stream = streams.get(i);
-				if (stream.current() == -1 || stream.current() > min) continue;
-				min = stream.current();
-				index = i;
+			return !heap.isEmpty() ? heap.advanceMin() : -1;
+		}
+
+		public boolean hasNext() {
+			if (next != -1) return true;
+			close();
+			return false;
+		}
+
+		@Override
+		public boolean isPartitionable() {
+			return Partitionable.all(inputs);
+		}
+
+		@Override
+		public long[] splits() {
+			return Partitionable.splits(inputs);
+		}
+
+		@Override
+		public ZetStream partition(long from, long to) {
+			return new Merge(Partitionable.partition(inputs, from, to));
+		}
+	}
+
+	interface Partitionable extends ZetStream {
+		default boolean isPartitionable() {
+			return true;
+		}
+
+		long[] splits();
+
+		ZetStream partition(long from, long to);
+
+		static boolean all(List<ZetStream> streams) {
+			for (ZetStream stream : streams)
+				if (!(stream instanceof Partitionable p) || !p.isPartitionable()) return false;
+			return true;
+		}
+
+		static long[] splits(List<ZetStream> streams) {
+			long[] splits = new long[0];
+			for (ZetStream stream : streams) {
+				long[] other = ((Partitionable) stream).splits();
+				if (other.length > splits.length) splits = other;
 			}
-			if (index < 0) return -1;
-			streams.get(index).next();
-			return min;
+			return splits;
 		}
 
+		static List<ZetStream> partition(List<ZetStream> streams, long from, long to) {
+			List<ZetStream> partitions = new ArrayList<>(streams.size());
+			for (ZetStream stream : streams) partitions.add(((Partitionable) stream).partition(from, to));
+			return partitions;
+		}
+	}
+
+	class Range implements ZetStream {
+		private final ZetStream stream;
+		private final long to;
+		private long current = -1;
+		private long next;
+
+		public Range(ZetStream stream, long from, long to) {
+			this.stream = stream;
+			this.to = to;
+			this.next = bounded(stream.advanceTo(from));
+		}
+
+		@Override
+		public long current() {
+			return current;
+		}
+
+		@Override
+		public long next() {
+			current = next;
+			next = bounded(stream.hasNext() ? stream.next() : -1);
+			return current;
+		}
+
+		@Override
 		public boolean hasNext() {
 			return next != -1;
 		}
+
+		@Override
+		public long advanceTo(long id) {
+			if (current >= id) return current;
+			if (next != -1 && next < id) next = bounded(stream.advanceTo(id));
+			return hasNext() ? next() : -1;
+		}
+
+		@Override
+		public void close() {
+			stream.close();
+		}
+
+		private long bounded(long id) {
+			if (id != -1 && id < to) return id;
+			stream.close();
+			return -1;
+		}
 	}
 
 	class Empty implements ZetStream {
@@ -364,14 +543,4 @@ public interface ZetStream {
 		}
 	}
 
-	class ZetStreamWithIndex {
-		private final ZetStream stream;
-		private final int index;
-
-		public ZetStreamWithIndex(ZetStream stream, int index) {
-			this.stream = stream;
-			this.index = index;
-		}
-	}
-
 }
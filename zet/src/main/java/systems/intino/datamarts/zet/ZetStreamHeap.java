@@ -0,0 +1,104 @@
+package systems.intino.datamarts.zet;
+
+import java.util.List;
+
+class ZetStreamHeap {
+	private final ZetStream[] streams;
+	private final int[] heap;
+	private final long[] keys;
+	private int size;
+
+	ZetStreamHeap(List<ZetStream> streams) {
+		this.streams = streams.toArray(new ZetStream[0]);
+		this.heap = new int[this.streams.length];
+		this.keys = new long[this.streams.length];
+		for (int i = 0; i < this.streams.length; i++) advance(i);
+	}
+
+	int streams() {
+		return streams.length;
+	}
+
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	long min() {
+		return keys[0];
+	}
+
+	long advanceMin() {
+		long min = keys[0];
+		ZetStream stream = streams[heap[0]];
+		long next = stream.hasNext() ? stream.next() : -1;
+		if (next == -1) remove();
+		else {
+			keys[0] = next;
+			down(0);
+		}
+		return min;
+	}
+
+	int pollAll(long key, int[] indices) {
+		int count = 0;
+		while (size > 0 && keys[0] == key) {
+			indices[count++] = heap[0];
+			remove();
+		}
+		return count;
+	}
+
+	void advance(int[] indices, int count) {
+		for (int i = 0; i < count; i++) advance(indices[i]);
+	}
+
+	private void advance(int index) {
+		ZetStream stream = streams[index];
+		if (!stream.hasNext()) return;
+		long key = stream.next();
+		if (key != -1) push(index, key);
+	}
+
+	private void push(int index, long key) {
+		heap[size] = index;
+		keys[size] = key;
+		up(size++);
+	}
+
+	private void remove() {
+		if (--size == 0) return;
+		heap[0] = heap[size];
+		keys[0] = keys[size];
+		down(0);
+	}
+
+	private void up(int slot) {
+		int index = heap[slot];
+		long key = keys[slot];
+		while (slot > 0) {
+			int parent = (slot - 1) >>> 1;
+			if (keys[parent] <= key) break;
+			heap[slot] = heap[parent];
+			keys[slot] = keys[parent];
+			slot = parent;
+		}
+		heap[slot] = index;
+		keys[slot] = key;
+	}
+
+	private void down(int slot) {
+		int index = heap[slot];
+		long key = keys[slot];
+		int half = size >>> 1;
+		while (slot < half) {
+			int child = 2 * slot + 1;
+			if (child + 1 < size && keys[child + 1] < keys[child]) child++;
+			if (key <= keys[child]) break;
+			heap[slot] = heap[child];
+			keys[slot] = keys[child];
+			slot = child;
+		}
+		heap[slot] = index;
+		keys[slot] = key;
+	}
+}
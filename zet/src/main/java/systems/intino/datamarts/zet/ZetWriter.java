@@ -9,14 +9,25 @@ import java.util.stream.Stream;
 
 public class ZetWriter {
 	private final OutputStream stream;
+	private final int indexStep;
 
 	public ZetWriter(File file) {
+		this(file, 0);
+	}
+
+	public ZetWriter(File file, int indexStep) {
 		file.getParentFile().mkdirs();
-		stream = fileOutputStream(file);
+		this.stream = fileOutputStream(file);
+		this.indexStep = indexStep;
 	}
 
 	public ZetWriter(OutputStream stream) {
+		this(stream, 0);
+	}
+
+	public ZetWriter(OutputStream stream, int indexStep) {
 		this.stream = stream;
+		this.indexStep = indexStep;
 	}
 
 	public void write(long... data) {
@@ -40,7 +51,7 @@ public class ZetWriter {
 	}
 
 	private ZOutputStream zOutputStream() {
-		return new ZOutputStream(new BufferedOutputStream(stream));
+		return new ZOutputStream(new BufferedOutputStream(stream), indexStep);
 	}
 
 	private OutputStream fileOutputStream(File file) {
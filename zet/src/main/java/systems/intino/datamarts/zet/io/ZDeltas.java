@@ -0,0 +1,27 @@
+package systems.intino.datamarts.zet.io;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ZDeltas {
+	private static final String Extension = ".delta.";
+
+	public static boolean exist(File file) {
+		return delta(file, 0).exists();
+	}
+
+	public static List<File> of(File file) {
+		List<File> deltas = new ArrayList<>();
+		for (File delta = delta(file, 0); delta.exists(); delta = delta(file, deltas.size())) deltas.add(delta);
+		return deltas;
+	}
+
+	public static File delta(File file, int index) {
+		return new File(file.getPath() + Extension + index);
+	}
+
+	public static void delete(List<File> deltas) {
+		for (int i = deltas.size() - 1; i >= 0; i--) deltas.get(i).delete();
+	}
+}
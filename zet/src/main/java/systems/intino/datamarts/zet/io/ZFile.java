@@ -1,8 +1,6 @@
 package systems.intino.datamarts.zet.io;
 
-import java.io.File;
-import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.io.*;
 
 public class ZFile {
     private final File file;
@@ -16,6 +14,7 @@ public class ZFile {
     }
 
     public long size() throws IOException {
+        checkNoDeltas();
         RandomAccessFile file = new RandomAccessFile(this.file, "r");
         file.seek(file.length() - 8);
         long size = file.readLong();
@@ -23,5 +22,57 @@ public class ZFile {
         return size;
     }
 
+    public long min() throws IOException {
+        checkNoDeltas();
+        ZStats stats = stats();
+        if (stats != null) return stats.min();
+        try (ZInputStream stream = inputStream()) {
+            return stream.readLong();
+        } catch (EOFException e) {
+            return -1;
+        }
+    }
+
+    public long max() throws IOException {
+        checkNoDeltas();
+        ZStats stats = stats();
+        if (stats != null) return stats.max();
+        long max = -1;
+        try (ZInputStream stream = inputStream()) {
+            while (true) max = stream.readLong();
+        } catch (EOFException e) {
+            return max;
+        }
+    }
+
+    public boolean overlaps(ZFile zFile) throws IOException {
+        if (size() == 0 || zFile.size() == 0) return false;
+        return min() <= zFile.max() && zFile.min() <= max();
+    }
+
+    public long estimateIntersection(ZFile zFile) throws IOException {
+        if (!overlaps(zFile)) return 0;
+        long size = size();
+        long otherSize = zFile.size();
+        ZStats stats = stats();
+        ZStats otherStats = zFile.stats();
+        if (stats == null || otherStats == null) return Math.min(size, otherSize);
+        double jaccard = stats.jaccard(otherStats);
+        return Math.min(Math.round(jaccard * (size + otherSize) / (1 + jaccard)), Math.min(size, otherSize));
+    }
+
+    public ZStats stats() throws IOException {
+        checkNoDeltas();
+        try (RandomAccessFile file = new RandomAccessFile(this.file, "r")) {
+            return ZStats.read(file);
+        }
+    }
 
+    private void checkNoDeltas() throws IOException {
+        if (ZDeltas.exist(file)) throw new IOException(file + " has pending deltas. Compact it before reading its trailer");
+    }
+
+    private ZInputStream inputStream() throws IOException {
+        return new ZInputStream(new BufferedInputStream(new FileInputStream(file)));
+    }
 }
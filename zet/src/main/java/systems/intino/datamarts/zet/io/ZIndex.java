@@ -0,0 +1,76 @@
+package systems.intino.datamarts.zet.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class ZIndex {
+	public static final long MARK = 0x5A49445800000001L;
+	private long[] ids;
+	private long[] offsets;
+	private int size;
+
+	public ZIndex() {
+		this(new long[64], new long[64], 0);
+	}
+
+	private ZIndex(long[] ids, long[] offsets, int size) {
+		this.ids = ids;
+		this.offsets = offsets;
+		this.size = size;
+	}
+
+	public static ZIndex read(RandomAccessFile file) throws IOException {
+		ByteBuffer buffer = ZTrailer.section(file, MARK);
+		if (buffer == null) return null;
+		int size = buffer.remaining() / 16;
+		long[] ids = new long[size];
+		long[] offsets = new long[size];
+		for (int i = 0; i < size; i++) {
+			ids[i] = buffer.getLong();
+			offsets[i] = buffer.getLong();
+		}
+		return new ZIndex(ids, offsets, size);
+	}
+
+	public void add(long id, long offset) {
+		if (size == ids.length) {
+			ids = Arrays.copyOf(ids, size * 2);
+			offsets = Arrays.copyOf(offsets, size * 2);
+		}
+		ids[size] = id;
+		offsets[size++] = offset;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long id(int entry) {
+		return ids[entry];
+	}
+
+	public long offset(int entry) {
+		return offsets[entry];
+	}
+
+	public long[] ids() {
+		return Arrays.copyOf(ids, size);
+	}
+
+	public int entryOf(long id) {
+		int index = Arrays.binarySearch(ids, 0, size, id);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	void write(DataOutputStream output) throws IOException {
+		for (int i = 0; i < size; i++) {
+			output.writeLong(ids[i]);
+			output.writeLong(offsets[i]);
+		}
+		output.writeLong(size * 16L);
+		output.writeLong(MARK);
+	}
+}
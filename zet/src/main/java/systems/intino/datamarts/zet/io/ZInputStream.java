@@ -14,7 +14,12 @@ public class ZInputStream extends InputStream {
 	private int size = 0;
 
 	public ZInputStream(InputStream inputStream) {
+		this(inputStream, 0);
+	}
+
+	public ZInputStream(InputStream inputStream, long base) {
 		this.input = new DataInputStream(inputStream);
+		this.base = base;
 		this.init();
 	}
 
@@ -46,7 +51,7 @@ public class ZInputStream extends InputStream {
 
 	private void readBase() throws IOException {
 		int level = input.read();
-		if (level < 0) throw new EOFException();
+		if (level < 0 || level > 8) throw new EOFException();
 		this.base = this.base >> (level << 3);
 		for (int i = 1; i <= level; i++)
 			this.base = (this.base << 8) | (input.readByte() & 0xFF);
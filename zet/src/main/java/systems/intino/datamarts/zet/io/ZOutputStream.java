@@ -3,6 +3,7 @@ package systems.intino.datamarts.zet.io;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 
 public class ZOutputStream extends OutputStream {
 	private DataOutputStream output;
@@ -10,32 +11,48 @@ public class ZOutputStream extends OutputStream {
 	private byte[] data = new byte[256];
 	private int count = 0;
 	private int size = 0;
+	private final ZIndex index;
+	private final ZStats stats;
+	private final int indexStep;
+	private long position = 0;
+	private long blocks = 0;
 
 	public ZOutputStream(OutputStream outputStream) {
+		this(outputStream, 0);
+	}
+
+	public ZOutputStream(OutputStream outputStream, int indexStep) {
 		this.output = new DataOutputStream(outputStream);
+		this.indexStep = indexStep;
+		this.index = indexStep > 0 ? new ZIndex() : null;
+		this.stats = new ZStats();
 	}
 
 	public void write(int b) {
 	}
 
 	public void writeLong(long id) {
-		this.base(id >> 8);
+		this.base(id);
 		if (isRepeated((byte) id)) return;
 		this.data[this.count++] = (byte) (id);
 		this.size++;
+		stats.add(id);
 	}
 
 	private boolean isRepeated(byte b) {
 		return count > 0 && this.data[this.count - 1] == b;
 	}
 
-	private void base(long base) {
+	private void base(long id) {
 		try {
+			long base = id >> 8;
 			if (this.base == base) return;
 			writeData();
+			index(id);
 			writeBase(base);
 			this.base = base;
 		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
 	}
 
@@ -46,6 +63,11 @@ public class ZOutputStream extends OutputStream {
 			byte b = (byte) (base >> (i << 3));
 			output.writeByte(b);
 		}
+		position += level + 1;
+	}
+
+	private void index(long id) {
+		if (index != null && blocks++ % indexStep == 0) index.add(id, position);
 	}
 
 	private int level(long base) {
@@ -60,6 +82,7 @@ public class ZOutputStream extends OutputStream {
 		if (base < 0) return;
 		output.writeByte(count);
 		for (int i = 0; i < count; i++) output.writeByte(data[i]);
+		position += count + 1;
 		count = 0;
 	}
 
@@ -67,6 +90,8 @@ public class ZOutputStream extends OutputStream {
 	public void close() throws IOException {
 		writeData();
 		output.writeLong(0xFFFFFFFFFFFFFFFFL);
+		if (index != null) index.write(output);
+		stats.write(output);
 		output.writeLong(size);
 		output.close();
 	}
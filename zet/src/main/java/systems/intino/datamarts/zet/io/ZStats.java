@@ -0,0 +1,100 @@
+package systems.intino.datamarts.zet.io;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class ZStats {
+	public static final long MARK = 0x5A49445800000002L;
+	public static final int DefaultSketchSize = 64;
+	private long min = -1;
+	private long max = -1;
+	private long[] sketch;
+	private int count;
+
+	public ZStats() {
+		this(DefaultSketchSize);
+	}
+
+	public ZStats(int sketchSize) {
+		this.sketch = new long[sketchSize];
+	}
+
+	private ZStats(long min, long max, long[] sketch) {
+		this.min = min;
+		this.max = max;
+		this.sketch = sketch;
+		this.count = sketch.length;
+	}
+
+	public static ZStats read(RandomAccessFile file) throws IOException {
+		ByteBuffer buffer = ZTrailer.section(file, MARK);
+		if (buffer == null) return null;
+		long min = buffer.getLong();
+		long max = buffer.getLong();
+		long[] sketch = new long[buffer.remaining() / 8];
+		for (int i = 0; i < sketch.length; i++) sketch[i] = buffer.getLong();
+		return new ZStats(min, max, sketch);
+	}
+
+	public long min() {
+		return min;
+	}
+
+	public long max() {
+		return max;
+	}
+
+	public long[] sketch() {
+		return Arrays.copyOf(sketch, count);
+	}
+
+	public double jaccard(ZStats stats) {
+		int k = Math.min(count, stats.count);
+		if (k == 0) return 0;
+		int i = 0, j = 0, common = 0;
+		for (int taken = 0; taken < k; taken++) {
+			if (j == stats.count || i < count && sketch[i] < stats.sketch[j]) i++;
+			else if (i == count || sketch[i] > stats.sketch[j]) j++;
+			else {
+				common++;
+				i++;
+				j++;
+			}
+		}
+		return (double) common / k;
+	}
+
+	public void add(long id) {
+		if (min == -1) min = id;
+		max = id;
+		if (sketch.length > 0) sketch(hash(id));
+	}
+
+	private void sketch(long hash) {
+		if (count == sketch.length && hash >= sketch[count - 1]) return;
+		int index = Arrays.binarySearch(sketch, 0, count, hash);
+		if (index >= 0) return;
+		index = -index - 1;
+		int length = Math.min(count, sketch.length - 1) - index;
+		System.arraycopy(sketch, index, sketch, index + 1, length);
+		sketch[index] = hash;
+		if (count < sketch.length) count++;
+	}
+
+	void write(DataOutputStream output) throws IOException {
+		output.writeLong(min);
+		output.writeLong(max);
+		for (int i = 0; i < count; i++) output.writeLong(sketch[i]);
+		output.writeLong(16 + count * 8L);
+		output.writeLong(MARK);
+	}
+
+	private static long hash(long id) {
+		id = (id ^ (id >>> 30)) * 0xBF58476D1CE4E5B9L;
+		id = (id ^ (id >>> 27)) * 0x94D049BB133111EBL;
+		return (id ^ (id >>> 31)) >>> 1;
+	}
+}
@@ -0,0 +1,32 @@
+package systems.intino.datamarts.zet.io;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+
+class ZTrailer {
+	private static final long SectionPrefix = 0x5A494458L;
+
+	static boolean isSection(long mark) {
+		return mark >>> 32 == SectionPrefix;
+	}
+
+	static ByteBuffer section(RandomAccessFile file, long mark) throws IOException {
+		long end = file.length() - 8;
+		while (end >= 24) {
+			file.seek(end - 16);
+			long length = file.readLong();
+			long current = file.readLong();
+			if (!isSection(current)) return null;
+			long start = end - 16 - length;
+			if (current == mark) {
+				byte[] bytes = new byte[(int) length];
+				file.seek(start);
+				file.readFully(bytes);
+				return ByteBuffer.wrap(bytes);
+			}
+			end = start;
+		}
+		return null;
+	}
+}
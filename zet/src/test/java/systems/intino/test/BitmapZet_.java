@@ -0,0 +1,47 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.zet.BitmapZet;
+import systems.intino.datamarts.zet.ListZetStream;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.ZetStream;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BitmapZet_ {
+	private final BitmapZet dense = new BitmapZet(new ListZetStream(LongStream.range(100_000, 200_000)));
+	private final BitmapZet sparse = new BitmapZet(new ZetReader(5, 150_000, 150_001, 199_999, 200_000, 1L << 40));
+
+	@Test
+	public void should_answer_membership_queries() {
+		assertThat(dense.size()).isEqualTo(100_000L);
+		assertThat(dense.isIn(100_000)).isTrue();
+		assertThat(dense.isIn(99_999)).isFalse();
+		assertThat(sparse.isIn(1L << 40)).isTrue();
+		assertThat(sparse.isIn(6)).isFalse();
+	}
+
+	@Test
+	public void should_intersect_array_and_bitmap_containers() {
+		assertThat(dense.and(sparse).stream().toLongArray()).containsExactly(150_000, 150_001, 199_999);
+	}
+
+	@Test
+	public void should_unite_and_subtract_containers() {
+		assertThat(dense.or(sparse).size()).isEqualTo(100_003L);
+		assertThat(sparse.andNot(dense).stream().toLongArray()).containsExactly(5, 200_000, 1L << 40);
+		assertThat(dense.andNot(sparse).size()).isEqualTo(99_997L);
+		assertThat(dense.xor(sparse).size()).isEqualTo(100_000L);
+	}
+
+	@Test
+	public void should_be_used_as_a_zet_stream() {
+		ZetStream stream = dense.stream();
+		assertThat(stream.advanceTo(150_000)).isEqualTo(150_000);
+		assertThat(stream.next()).isEqualTo(150_001);
+		ZetStream intersection = new ZetStream.Intersection(sparse.stream(), dense.stream());
+		assertThat(intersection.toLongArray()).containsExactly(150_000, 150_001, 199_999);
+	}
+}
@@ -0,0 +1,167 @@
+package systems.intino.test;
+
+import org.junit.Before;
+import org.junit.Test;
+import systems.intino.datamarts.zet.IncrementalZetBuilder;
+import systems.intino.datamarts.zet.MappedZetReader;
+import systems.intino.datamarts.zet.SeekableZetReader;
+import systems.intino.datamarts.zet.ZetBuilder;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.io.ZFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class IncrementalZetBuilder_ {
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		File directory = Files.createTempDirectory("incremental").toFile();
+		directory.deleteOnExit();
+		file = new File(directory, "tag.zet");
+	}
+
+	@Test
+	public void should_read_main_file_and_deltas_as_one_zet() {
+		new ZetBuilder(file).put(1, 5, 9);
+		IncrementalZetBuilder builder = new IncrementalZetBuilder(file);
+		builder.put(7, 3);
+		builder.put(5, 11);
+		assertThat(new File(file.getPath() + ".delta.1").exists()).isTrue();
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(1, 3, 5, 7, 9, 11);
+	}
+
+	@Test
+	public void should_fold_deltas_into_main_file_on_compact() {
+		IncrementalZetBuilder builder = new IncrementalZetBuilder(file);
+		builder.put(4, 2);
+		builder.put(3);
+		builder.compact();
+		assertThat(new File(file.getPath() + ".delta.0").exists()).isFalse();
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(2, 3, 4);
+	}
+
+	@Test
+	public void should_compact_when_too_many_deltas_are_written() {
+		IncrementalZetBuilder builder = new IncrementalZetBuilder(file, 2);
+		for (long id = 10; id > 0; id--) builder.put(id);
+		assertThat(new File(file.getPath() + ".delta.2").exists()).isFalse();
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+	}
+
+	@Test
+	public void should_not_lose_ids_when_puts_and_compactions_run_concurrently() throws Exception {
+		final int threads = 8;
+		final int putsPerThread = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			IncrementalZetBuilder builder = new IncrementalZetBuilder(file, 4);
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < putsPerThread; i++) {
+					builder.put((long) i * threads + thread);
+					if (i % 10 == 0) builder.compact();
+				}
+			}));
+		}
+		for (Future<?> future : futures) future.get();
+		executor.shutdown();
+		long[] expected = new long[threads * putsPerThread];
+		for (int i = 0; i < expected.length; i++) expected[i] = i;
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(expected);
+	}
+
+	@Test
+	public void should_not_lose_deltas_when_zet_builder_puts_run_concurrently() throws Exception {
+		final int threads = 8;
+		final int putsPerThread = 40;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < threads; t++) {
+			final int thread = t;
+			futures.add(executor.submit(() -> {
+				IncrementalZetBuilder incremental = new IncrementalZetBuilder(file, 3);
+				ZetBuilder builder = new ZetBuilder(file);
+				for (int i = 0; i < putsPerThread; i++) {
+					long id = (long) i * threads + thread;
+					if (thread % 2 == 0) builder.put(id);
+					else incremental.put(id);
+				}
+			}));
+		}
+		for (Future<?> future : futures) future.get();
+		executor.shutdown();
+		long[] expected = new long[threads * putsPerThread];
+		for (int i = 0; i < expected.length; i++) expected[i] = i;
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(expected);
+	}
+
+	@Test
+	public void should_not_claim_a_delta_when_writing_it_fails() {
+		IncrementalZetBuilder builder = new IncrementalZetBuilder(file);
+		builder.put(1, 2);
+		try {
+			builder.put(new ZetReader(failingAfter(3)));
+			fail("Failed write was not reported");
+		} catch (UncheckedIOException expected) {
+		}
+		assertThat(new File(file.getPath() + ".delta.1").exists()).isFalse();
+		assertThat(file.getParentFile().list((dir, name) -> name.endsWith(".tmp"))).isEmpty();
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(1, 2);
+	}
+
+	@Test
+	public void should_reject_trailer_readers_while_deltas_are_pending() {
+		new ZetBuilder(file).put(1, 5, 9);
+		new IncrementalZetBuilder(file).put(7);
+		try {
+			new SeekableZetReader(file);
+			fail("SeekableZetReader ignored pending deltas");
+		} catch (IllegalStateException expected) {
+		}
+		try {
+			new MappedZetReader(file);
+			fail("MappedZetReader ignored pending deltas");
+		} catch (IllegalStateException expected) {
+		}
+		try {
+			new ZFile(file).size();
+			fail("ZFile ignored pending deltas");
+		} catch (IOException expected) {
+		}
+		new IncrementalZetBuilder(file).compact();
+		try (MappedZetReader reader = new MappedZetReader(file)) {
+			assertThat(reader.toLongArray()).containsExactly(1, 5, 7, 9);
+		}
+	}
+
+	private static PrimitiveIterator.OfLong failingAfter(long count) {
+		return new PrimitiveIterator.OfLong() {
+			private long next = 10;
+
+			@Override
+			public long nextLong() {
+				if (next - 10 == count) throw new UncheckedIOException(new IOException("disk full"));
+				return next++;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return true;
+			}
+		};
+	}
+}
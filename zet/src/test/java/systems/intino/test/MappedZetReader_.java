@@ -0,0 +1,86 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.zet.MappedZetReader;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.ZetStream;
+import systems.intino.datamarts.zet.ZetWriter;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedZetReader_ {
+
+	@Test
+	public void should_decode_all_blocks_of_a_mapped_file() throws IOException {
+		long[] ids = new long[50_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = 0x1122334400L + i * 131L;
+		File file = write(ids, 0);
+		MappedZetReader reader = new MappedZetReader(file);
+		for (long id : ids) {
+			assertThat(reader.hasNext()).isTrue();
+			assertThat(reader.next()).isEqualTo(id);
+		}
+		assertThat(reader.hasNext()).isFalse();
+		assertThat(reader.next()).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_advance_using_the_block_index() throws IOException {
+		long[] ids = new long[50_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = i * 1021L;
+		ZetStream reader = new MappedZetReader(write(ids, 8));
+		assertThat(reader.advanceTo(ids[40_000] - 1)).isEqualTo(ids[40_000]);
+		assertThat(reader.next()).isEqualTo(ids[40_001]);
+		assertThat(reader.advanceTo(ids[49_999] + 1)).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_read_an_empty_zet_and_a_missing_file() throws IOException {
+		assertThat(new MappedZetReader(write(new long[0], 0)).hasNext()).isFalse();
+		assertThat(new MappedZetReader(new File("missing.zet")).hasNext()).isFalse();
+	}
+
+	@Test
+	public void should_keep_the_mapping_alive_while_partitions_use_it() throws IOException {
+		long[] ids = new long[20_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = i * 7L;
+		MappedZetReader reader = new MappedZetReader(write(ids, 8));
+		ZetStream partition = reader.partition(0, Long.MAX_VALUE);
+		reader.close();
+		reader.close();
+		assertThat(reader.hasNext()).isFalse();
+		assertThat(partition.toLongArray()).containsExactly(ids);
+		assertThat(reader.partition(0, Long.MAX_VALUE).hasNext()).isFalse();
+	}
+
+	@Test
+	public void should_run_in_parallel_when_an_empty_input_was_already_closed() throws IOException {
+		long[] ids = new long[20_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = i * 5L;
+		MappedZetReader empty = new MappedZetReader(write(new long[0], 8));
+		ZetStream difference = new ZetStream.Difference(new MappedZetReader(write(ids, 8)), empty);
+		assertThat(empty.hasNext()).isFalse();
+		assertThat(difference.parallel().toLongArray()).containsExactly(ids);
+	}
+
+	@Test
+	public void should_release_inputs_when_an_intersection_finishes_early() throws IOException {
+		long[] ids = new long[20_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = i * 3L;
+		MappedZetReader reader = new MappedZetReader(write(ids, 8));
+		ZetStream intersection = new ZetStream.Intersection(new ZetReader(ids[2], ids[10]), reader);
+		assertThat(intersection.toLongArray()).containsExactly(ids[2], ids[10]);
+		assertThat(reader.hasNext()).isFalse();
+		assertThat(reader.advanceTo(ids[100])).isEqualTo(-1);
+	}
+
+	private static File write(long[] ids, int indexStep) throws IOException {
+		File file = File.createTempFile("mapped", ".zet");
+		file.deleteOnExit();
+		new ZetWriter(file, indexStep).write(ids);
+		return file;
+	}
+}
@@ -0,0 +1,59 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.zet.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelZetStream_ {
+
+	@Test
+	public void should_evaluate_operators_over_indexed_files_in_parallel() throws IOException {
+		List<File> files = new ArrayList<>();
+		for (int i = 1; i <= 4; i++) files.add(write(i));
+		ForkJoinPool pool = new ForkJoinPool(4);
+		assertThat(union(files).parallel(pool).toLongArray()).isEqualTo(union(files).toLongArray());
+		assertThat(intersection(files).parallel(pool).toLongArray()).isEqualTo(intersection(files).toLongArray());
+		assertThat(difference(files).parallel(pool).toLongArray()).isEqualTo(difference(files).toLongArray());
+		pool.shutdown();
+	}
+
+	@Test
+	public void should_evaluate_sequentially_when_a_stream_cannot_be_partitioned() {
+		ZetStream union = new ZetStream.Union(new ZetReader(5, 1), new ZetReader(3, 1));
+		assertThat(union.parallel().toLongArray()).containsExactly(1, 3, 5);
+	}
+
+	private static ZetStream union(List<File> files) {
+		return new ZetStream.Union(readers(files), 2, 3, false);
+	}
+
+	private static ZetStream intersection(List<File> files) {
+		return new ZetStream.Intersection(readers(files).subList(0, 2));
+	}
+
+	private static ZetStream difference(List<File> files) {
+		return new ZetStream.Difference(readers(files));
+	}
+
+	private static List<ZetStream> readers(List<File> files) {
+		List<ZetStream> readers = new ArrayList<>();
+		for (File file : files) readers.add(new MappedZetReader(file));
+		return readers;
+	}
+
+	private static File write(int step) throws IOException {
+		File file = File.createTempFile("parallel", ".zet");
+		file.deleteOnExit();
+		long[] ids = new long[200_000];
+		for (int i = 0; i < ids.length; i++) ids[i] = (long) i * step;
+		new ZetWriter(file, 16).write(ids);
+		return file;
+	}
+}
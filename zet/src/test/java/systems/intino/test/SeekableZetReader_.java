@@ -0,0 +1,89 @@
+package systems.intino.test;
+
+import org.junit.Before;
+import org.junit.Test;
+import systems.intino.datamarts.zet.SeekableZetReader;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.ZetStream;
+import systems.intino.datamarts.zet.ZetWriter;
+import systems.intino.datamarts.zet.io.ZFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SeekableZetReader_ {
+	private static final int Size = 100_000;
+	private File file;
+	private long[] ids;
+
+	@Before
+	public void setUp() throws IOException {
+		file = File.createTempFile("seekable", ".zet");
+		file.deleteOnExit();
+		ids = new long[Size];
+		for (int i = 0; i < Size; i++) ids[i] = i * 997L;
+		new ZetWriter(file, 4).write(ids);
+	}
+
+	@Test
+	public void should_read_an_indexed_file_sequentially() throws IOException {
+		ZetReader reader = new ZetReader(file);
+		for (long id : ids) assertThat(reader.next()).isEqualTo(id);
+		assertThat(reader.hasNext()).isFalse();
+		assertThat(new ZFile(file).size()).isEqualTo(Size);
+	}
+
+	@Test
+	public void should_advance_to_the_first_id_not_lower_than_target() {
+		SeekableZetReader reader = new SeekableZetReader(file);
+		assertThat(reader.advanceTo(ids[10])).isEqualTo(ids[10]);
+		assertThat(reader.advanceTo(ids[10])).isEqualTo(ids[10]);
+		assertThat(reader.advanceTo(ids[5000] + 1)).isEqualTo(ids[5001]);
+		assertThat(reader.next()).isEqualTo(ids[5002]);
+		assertThat(reader.advanceTo(ids[Size - 1])).isEqualTo(ids[Size - 1]);
+		assertThat(reader.advanceTo(ids[Size - 1] + 1)).isEqualTo(-1);
+		assertThat(reader.hasNext()).isFalse();
+	}
+
+	@Test
+	public void should_intersect_a_small_stream_with_an_indexed_file() {
+		ZetStream intersection = new ZetStream.Intersection(
+				new ZetReader(ids[3], ids[3] + 1, ids[70_000], ids[Size - 1]),
+				new SeekableZetReader(file));
+		List<Long> result = new ArrayList<>();
+		while (intersection.hasNext()) result.add(intersection.next());
+		assertThat(result).containsExactly(ids[3], ids[70_000], ids[Size - 1]);
+	}
+
+	@Test
+	public void should_subtract_an_indexed_file_from_a_small_stream() {
+		ZetStream difference = new ZetStream.Difference(
+				new ZetReader(ids[3], ids[3] + 1, ids[70_000], ids[Size - 1] + 1),
+				new SeekableZetReader(file));
+		List<Long> result = new ArrayList<>();
+		while (difference.hasNext()) result.add(difference.next());
+		assertThat(result).containsExactly(ids[3] + 1, ids[Size - 1] + 1);
+	}
+
+	@Test
+	public void should_close_the_indexed_file_when_an_intersection_finishes_early() {
+		SeekableZetReader reader = new SeekableZetReader(file);
+		ZetStream intersection = new ZetStream.Intersection(new ZetReader(ids[3], ids[100]), reader);
+		assertThat(intersection.toLongArray()).containsExactly(ids[3], ids[100]);
+		assertThat(reader.hasNext()).isFalse();
+		assertThat(reader.advanceTo(ids[200])).isEqualTo(-1);
+	}
+
+	@Test
+	public void should_close_inputs_when_an_operator_is_abandoned() {
+		SeekableZetReader reader = new SeekableZetReader(file);
+		try (ZetStream difference = new ZetStream.Difference(new ZetReader(ids[3] + 1, ids[5] + 1), reader)) {
+			assertThat(difference.next()).isEqualTo(ids[3] + 1);
+		}
+		assertThat(reader.hasNext()).isFalse();
+	}
+}
@@ -33,6 +33,18 @@ public class SymmetricDifference_ {
 		assertThat(longs.get(6)).isEqualTo(10L);
 	}
 
+	@Test
+	public void should_exclude_ids_repeated_in_streams_that_reach_them_later() {
+		ZetStream difference = new ZetStream.SymmetricDifference(asList(
+				new ZetReader(27),
+				new ZetReader(27),
+				new ZetReader(20, 27)));
+
+		List<Long> longs = new ArrayList<>();
+		while (difference.hasNext()) longs.add(difference.next());
+
+		assertThat(longs).containsExactly(20L);
+	}
 
 	@Test
 	public void should_make_a_difference_of_three_files_without_repeated_values() {
@@ -87,6 +87,20 @@ public class Union_ {
 		assertThat(longs.get(6)).isEqualTo(10L);
 	}
 
+	@Test
+	public void should_count_frequencies_over_hundreds_of_streams() {
+		List<ZetStream> streams = new ArrayList<>();
+		for (int i = 0; i < 500; i++) streams.add(new ZetReader(i, i + 1, 1000));
+		ZetStream.Union union = new ZetStream.Union(streams, 2, 2, false);
+
+		List<Long> longs = new ArrayList<>();
+		while (union.hasNext()) longs.add(union.next());
+
+		assertThat(longs.size()).isEqualTo(499);
+		assertThat(longs.get(0)).isEqualTo(1L);
+		assertThat(longs.get(498)).isEqualTo(499L);
+	}
+
 	@Test
 	public void should_read_three_sorted_files_without_duplicates() {
 		ZetStream.Union union = new ZetStream.Union(asList(
@@ -0,0 +1,83 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.zet.ZetWriter;
+import systems.intino.datamarts.zet.io.ZFile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ZFile_ {
+
+	@Test
+	public void should_read_range_from_trailer_of_indexed_files() throws IOException {
+		ZFile file = write(LongStream.rangeClosed(1_000, 9_000).toArray(), 16);
+		assertThat(file.stats()).isNotNull();
+		assertThat(file.size()).isEqualTo(8_001L);
+		assertThat(file.min()).isEqualTo(1_000L);
+		assertThat(file.max()).isEqualTo(9_000L);
+	}
+
+	@Test
+	public void should_write_stats_of_files_without_index() throws IOException {
+		ZFile file = write(new long[]{7, 300, 70_000}, 0);
+		assertThat(file.stats()).isNotNull();
+		assertThat(file.stats().min()).isEqualTo(7L);
+		assertThat(file.stats().max()).isEqualTo(70_000L);
+		assertThat(file.stats().sketch()).hasSize(3);
+		assertThat(file.size()).isEqualTo(3L);
+	}
+
+	@Test
+	public void should_scan_range_of_files_without_trailer_metadata() throws IOException {
+		ZFile file = withoutStats(fileOf(new long[]{7, 300, 70_000}, 0));
+		assertThat(file.stats()).isNull();
+		assertThat(file.size()).isEqualTo(3L);
+		assertThat(file.min()).isEqualTo(7L);
+		assertThat(file.max()).isEqualTo(70_000L);
+	}
+
+	@Test
+	public void should_skip_files_whose_ranges_cannot_overlap() throws IOException {
+		ZFile low = write(LongStream.range(0, 1_000).toArray(), 16);
+		ZFile high = write(LongStream.range(5_000, 6_000).toArray(), 16);
+		assertThat(low.overlaps(high)).isFalse();
+		assertThat(low.estimateIntersection(high)).isEqualTo(0L);
+	}
+
+	@Test
+	public void should_estimate_intersection_from_sketches() throws IOException {
+		ZFile a = write(LongStream.range(0, 100_000).toArray(), 16);
+		ZFile b = write(LongStream.range(50_000, 150_000).toArray(), 16);
+		long estimate = a.estimateIntersection(b);
+		assertThat(estimate).isBetween(30_000L, 70_000L);
+	}
+
+	private static ZFile write(long[] ids, int indexStep) throws IOException {
+		return new ZFile(fileOf(ids, indexStep));
+	}
+
+	private static File fileOf(long[] ids, int indexStep) throws IOException {
+		File file = File.createTempFile("zfile", ".zet");
+		file.deleteOnExit();
+		new ZetWriter(file, indexStep).write(ids);
+		return file;
+	}
+
+	private static ZFile withoutStats(File source) throws IOException {
+		File file = File.createTempFile("zfile", ".zet");
+		file.deleteOnExit();
+		long statsLength = 32 + new ZFile(source).stats().sketch().length * 8L;
+		byte[] bytes = Files.readAllBytes(source.toPath());
+		try (FileOutputStream output = new FileOutputStream(file)) {
+			output.write(bytes, 0, (int) (bytes.length - 8 - statsLength));
+			output.write(bytes, bytes.length - 8, 8);
+		}
+		return new ZFile(file);
+	}
+}
@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 import systems.intino.datamarts.zet.io.ZInputStream;
 import systems.intino.datamarts.zet.io.ZOutputStream;
+import systems.intino.datamarts.zet.io.ZStats;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -37,9 +38,10 @@ public class ZStream_ {
 		ZOutputStream stream = new ZOutputStream(this.stream);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat(bytes.length).isEqualTo(16);
+		assertThat(bytes.length).isEqualTo(16 + statsLength(0));
 		assertThat(getLong(bytes, 0)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 8)).isEqualTo(0x0L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(0x0L);
+		assertThat(getLong(bytes, bytes.length - 16)).isEqualTo(ZStats.MARK);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		eof(input);
@@ -51,12 +53,12 @@ public class ZStream_ {
 		stream.writeLong(0);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat(bytes.length).isEqualTo(19);
+		assertThat(bytes.length).isEqualTo(19 + statsLength(1));
 		assertThat(bytes[0]).isEqualTo((byte) 0);
 		assertThat(bytes[1]).isEqualTo((byte) 1);
 		assertThat(bytes[2]).isEqualTo((byte) 0);
 		assertThat(getLong(bytes, 3)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 11)).isEqualTo(0x1L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(0x1L);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		assertThat(input.readLong()).isEqualTo(0);
@@ -69,13 +71,13 @@ public class ZStream_ {
 		stream.writeLong(0x433);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat((long) bytes.length).isEqualTo(20);
+		assertThat((long) bytes.length).isEqualTo(20L + statsLength(1));
 		assertThat(bytes[0]).isEqualTo((byte) 1);
 		assertThat(bytes[1]).isEqualTo((byte) 4);
 		assertThat(bytes[2]).isEqualTo((byte) 1);
 		assertThat(bytes[3]).isEqualTo((byte) 0x33);
 		assertThat(getLong(bytes, 4)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 12)).isEqualTo(0x1L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(0x1L);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		assertThat(input.readLong()).isEqualTo(0x433);
@@ -88,14 +90,14 @@ public class ZStream_ {
 		stream.writeLong(0xAB433);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat((long) bytes.length).isEqualTo(21);
+		assertThat((long) bytes.length).isEqualTo(21L + statsLength(1));
 		assertThat(bytes[0]).isEqualTo((byte) 0x02);
 		assertThat(bytes[1]).isEqualTo((byte) 0xA);
 		assertThat(bytes[2]).isEqualTo((byte) 0xB4);
 		assertThat(bytes[3]).isEqualTo((byte) 0x01);
 		assertThat(bytes[4]).isEqualTo((byte) 0x33);
 		assertThat(getLong(bytes, 5)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 13)).isEqualTo(0x1L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(0x1L);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		assertThat(input.readLong()).isEqualTo(0xAB433);
@@ -108,7 +110,7 @@ public class ZStream_ {
 		stream.writeLong(0x1122334455667733L);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat((long) bytes.length).isEqualTo(26);
+		assertThat((long) bytes.length).isEqualTo(26L + statsLength(1));
 		assertThat(bytes[0]).isEqualTo((byte) 0x07);
 		assertThat(bytes[1]).isEqualTo((byte) 0x11);
 		assertThat(bytes[2]).isEqualTo((byte) 0x22);
@@ -120,7 +122,7 @@ public class ZStream_ {
 		assertThat(bytes[8]).isEqualTo((byte) 0x01);
 		assertThat(bytes[9]).isEqualTo((byte) 0x33);
 		assertThat(getLong(bytes, 10)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 18)).isEqualTo(0x1L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(0x1L);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		assertThat(input.readLong()).isEqualTo(0x1122334455667733L);
@@ -134,7 +136,7 @@ public class ZStream_ {
 		for (int i = 0; i < 256; i++) stream.writeLong(base + i);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat((long) bytes.length).isEqualTo(280);
+		assertThat((long) bytes.length).isEqualTo(280L + statsLength(256));
 		assertThat(bytes[0]).isEqualTo((byte) 0x06);
 		assertThat(bytes[1]).isEqualTo((byte) 0x11);
 		assertThat(bytes[2]).isEqualTo((byte) 0x22);
@@ -145,7 +147,7 @@ public class ZStream_ {
 		assertThat(bytes[7]).isEqualTo((byte) 0x00);
 		for (int i = 0; i < 256; i++) assertThat(bytes[8 + i]).isEqualTo((byte) i);
 		assertThat(getLong(bytes, 264)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 272)).isEqualTo(256L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(256L);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		for (int i = 0; i < 256; i++) assertThat(input.readLong()).isEqualTo(base + i);
@@ -159,7 +161,7 @@ public class ZStream_ {
 		for (int i = 0; i < 128; i++) stream.writeLong(base + i);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat((long) bytes.length).isEqualTo(150);
+		assertThat((long) bytes.length).isEqualTo(150L + statsLength(128));
 		assertThat(bytes[0]).isEqualTo((byte) 0x4);
 		assertThat(bytes[1]).isEqualTo((byte) 0x11);
 		assertThat(bytes[2]).isEqualTo((byte) 0x22);
@@ -168,7 +170,7 @@ public class ZStream_ {
 		assertThat(bytes[5]).isEqualTo((byte) 0x80);
 		for (int i = 0; i < 128; i++) assertThat(bytes[6 + i]).isEqualTo((byte) i);
 		assertThat(getLong(bytes, 134)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 142)).isEqualTo(128L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(128L);
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
 		for (int i = 0; i < 128; i++) assertThat(input.readLong()).isEqualTo(base + i);
@@ -184,7 +186,7 @@ public class ZStream_ {
 		for (int i = 0; i < 128; i++) stream.writeLong(base2 + i);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat(bytes.length).isEqualTo(282);
+		assertThat(bytes.length).isEqualTo(282 + statsLength(256));
 		assertThat(bytes[0]).isEqualTo((byte) 0x04);
 		assertThat(bytes[1]).isEqualTo((byte) 0x11);
 		assertThat(bytes[2]).isEqualTo((byte) 0x22);
@@ -198,7 +200,7 @@ public class ZStream_ {
 		assertThat(bytes[137]).isEqualTo((byte) 0x80);
 		for (int i = 0; i < 128; i++) assertThat(bytes[138 + i]).isEqualTo((byte) i);
 		assertThat(getLong(bytes, 266)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 274)).isEqualTo(256L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(256L);
 
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
@@ -216,7 +218,7 @@ public class ZStream_ {
 		for (int i = 0; i < 128; i++) stream.writeLong(base2 + i);
 		stream.close();
 		byte[] bytes = bytes();
-		assertThat((long) bytes.length).isEqualTo(285);
+		assertThat((long) bytes.length).isEqualTo(285L + statsLength(256));
 		assertThat(bytes[0]).isEqualTo((byte) 0x04);
 		assertThat(bytes[1]).isEqualTo((byte) 0x11);
 		assertThat(bytes[2]).isEqualTo((byte) 0x22);
@@ -233,7 +235,7 @@ public class ZStream_ {
 		assertThat(bytes[140]).isEqualTo((byte) 0x80);
 		for (int i = 0; i < 128; i++) assertThat(bytes[141 + i]).isEqualTo((byte) i);
 		assertThat(getLong(bytes, 269)).isEqualTo(0xFFFFFFFFFFFFFFFFL);
-		assertThat(getLong(bytes, 277)).isEqualTo(256L);
+		assertThat(getLong(bytes, bytes.length - 8)).isEqualTo(256L);
 
 
 		ZInputStream input = new ZInputStream(new ByteArrayInputStream(bytes));
@@ -242,6 +244,10 @@ public class ZStream_ {
 		eof(input);
 	}
 
+	private static int statsLength(int count) {
+		return 32 + 8 * Math.min(count, ZStats.DefaultSketchSize);
+	}
+
 	private long getLong(byte[] bytes, int pos) {
 		byte[] by = new byte[8];
 		System.arraycopy(bytes, pos, by, 0, 8);
@@ -0,0 +1,81 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.zet.ZetBatchBuilder;
+import systems.intino.datamarts.zet.ZetBuilder;
+import systems.intino.datamarts.zet.ZetReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ZetBatchBuilder_ {
+
+	@Test
+	public void should_merge_buffered_ids_into_each_target() throws IOException {
+		File directory = Files.createTempDirectory("batch").toFile();
+		File customers = new File(directory, "tag/customers.zet");
+		File contracts = new File(directory, "tag/contracts.zet");
+		new ZetBuilder(customers).put(2, 8);
+		try (ZetBatchBuilder builder = new ZetBatchBuilder(1000, 2)) {
+			builder.put(customers, 5);
+			builder.put(contracts, 30, 10);
+			builder.put(customers, 1, 8);
+			builder.put(contracts, 20);
+		}
+		assertThat(new ZetReader(customers).toLongArray()).containsExactly(1, 2, 5, 8);
+		assertThat(new ZetReader(contracts).toLongArray()).containsExactly(10, 20, 30);
+		assertThat(directory.toPath().resolve("tag").toFile().list((dir, name) -> !name.endsWith(".lock"))).hasSize(2);
+	}
+
+	@Test
+	public void should_flush_when_the_buffer_is_full() throws IOException {
+		File file = new File(Files.createTempDirectory("batch").toFile(), "ids.zet");
+		ZetBatchBuilder builder = new ZetBatchBuilder(3, 1);
+		for (long id = 10; id > 0; id--) builder.put(file, id);
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(2, 3, 4, 5, 6, 7, 8, 9, 10);
+		builder.close();
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+	}
+
+	@Test
+	public void should_treat_equivalent_paths_as_one_target() throws IOException {
+		File directory = Files.createTempDirectory("batch").toFile();
+		File file = new File(directory, "a/x.zet");
+		try (ZetBatchBuilder builder = new ZetBatchBuilder(1000, 4)) {
+			for (long id = 0; id < 100; id += 2) builder.put(file, id);
+			for (long id = 1; id < 100; id += 2) builder.put(new File(directory, "./a/../a/x.zet"), id);
+		}
+		assertThat(new ZetReader(file).toLongArray()).hasSize(100);
+	}
+
+	@Test
+	public void should_accept_targets_with_short_names() throws IOException {
+		File file = new File(Files.createTempDirectory("batch").toFile(), "x");
+		try (ZetBatchBuilder builder = new ZetBatchBuilder(1000, 1)) {
+			builder.put(file, 3, 1);
+		}
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(1, 3);
+	}
+
+	@Test
+	public void should_propagate_failures_and_keep_buffered_ids() throws IOException {
+		File directory = Files.createTempDirectory("batch").toFile();
+		File blocker = new File(directory, "blocker");
+		assertThat(blocker.createNewFile()).isTrue();
+		File file = new File(blocker, "ids.zet");
+		ZetBatchBuilder builder = new ZetBatchBuilder(1000, 1);
+		builder.put(file, 1, 2);
+		try {
+			builder.flush();
+			fail("Expected IllegalStateException");
+		} catch (IllegalStateException ignored) {
+		}
+		assertThat(blocker.delete()).isTrue();
+		builder.flush();
+		assertThat(new ZetReader(file).toLongArray()).containsExactly(1, 2);
+	}
+}
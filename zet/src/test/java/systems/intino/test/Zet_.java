@@ -0,0 +1,45 @@
+package systems.intino.test;
+
+import org.junit.Test;
+import systems.intino.datamarts.zet.ListZetStream;
+import systems.intino.datamarts.zet.Zet;
+import systems.intino.datamarts.zet.ZetReader;
+import systems.intino.datamarts.zet.ZetStream;
+
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class Zet_ {
+
+	@Test
+	public void should_sort_primitive_ids() {
+		assertThat(new ZetReader(5, 1, 3).toLongArray()).containsExactly(1, 3, 5);
+		assertThat(new ZetReader(LongStream.of(9, 2, 4)).toLongArray()).containsExactly(2, 4, 9);
+	}
+
+	@Test
+	public void should_collect_a_stream_larger_than_the_initial_buffer() {
+		ZetStream stream = new ListZetStream(LongStream.range(0, 5000));
+		long[] ids = stream.toLongArray();
+		assertThat(ids.length).isEqualTo(5000);
+		assertThat(ids[4999]).isEqualTo(4999);
+	}
+
+	@Test
+	public void should_build_a_zet_from_a_union() {
+		Zet zet = new Zet(new ZetStream.Union(new ZetReader(1, 4, 7), new ZetReader(2, 4, 8)));
+		assertThat(zet.ids()).containsExactly(1, 2, 4, 7, 8);
+		assertThat(zet.isIn(7)).isTrue();
+		assertThat(zet.isIn(3)).isFalse();
+	}
+
+	@Test
+	public void should_iterate_without_boxing() {
+		PrimitiveIterator.OfLong iterator = new ZetReader(3, 2, 1).asLongIterator();
+		long sum = 0;
+		while (iterator.hasNext()) sum += iterator.nextLong();
+		assertThat(sum).isEqualTo(6);
+	}
+}